@@ -5,6 +5,7 @@ import com.ibm.websphere.security.jwt.JwtConsumer;
 import edu.oswego.cs.rest.JsonClasses.Actor;
 import edu.oswego.cs.rest.JsonClasses.JSession;
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.client.Client;
@@ -19,6 +20,9 @@ import java.util.List;
 @Path("/")
 @RequestScoped
 public class ActorDataService {
+
+  @Inject
+  DatabaseController dbc;
   
   String AuthServiceUrl = System.getenv("AUTH_SERVICE_URL");
 
@@ -58,8 +62,7 @@ public class ActorDataService {
     String sessionId = actor.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController db = new DatabaseController();
-    db.createActor(actor.getName(), actor.getDateOfBirth(), movieId);
+    dbc.createActor(actor.getName(), actor.getDateOfBirth(), movieId);
     return Response.ok().build();
   }
 
@@ -77,7 +80,6 @@ public class ActorDataService {
     String sessionId = jsession.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Actor> actors = dbc.getActorWithName(name);
     return Response.ok(actors).build();
   }
@@ -90,7 +92,6 @@ public class ActorDataService {
     String sessionId = jsession.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Actor> actors = dbc.getActorWithMovieId(movieId);
     return Response.ok(actors).build();
   }
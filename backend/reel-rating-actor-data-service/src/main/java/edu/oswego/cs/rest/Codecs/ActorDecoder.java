@@ -0,0 +1,29 @@
+package edu.oswego.cs.rest.Codecs;
+
+import edu.oswego.cs.rest.JsonClasses.Actor;
+import org.bson.BsonReader;
+
+/**
+ * Decodes an actor document into an Actor. The dob field becomes dateOfBirth.
+ */
+public class ActorDecoder extends DtoDecoder<Actor> {
+
+  @Override
+  protected Actor newInstance() {
+    return new Actor();
+  }
+
+  @Override
+  protected boolean readField(Actor a, String name, BsonReader reader) {
+    switch (name) {
+      case "_id" -> a.setId(readString(reader));
+      case "name" -> a.setName(readString(reader));
+      case "dob" -> a.setDateOfBirth(readString(reader));
+      case "movies" -> a.setMovies(readStringList(reader));
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+}
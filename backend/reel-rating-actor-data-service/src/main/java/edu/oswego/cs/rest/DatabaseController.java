@@ -1,27 +1,48 @@
 package edu.oswego.cs.rest;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import edu.oswego.cs.rest.Codecs.ActorDecoder;
 import edu.oswego.cs.rest.JsonClasses.Actor;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+@ApplicationScoped
 public class DatabaseController {
-  private static String mongoDatabaseName = System.getenv("MONGO_MOVIE_DATABASE_NAME");
-  private static String mongoURL = System.getenv("MONGO_MOVIE_URL");
-  private static MongoClient mongoClient = MongoClients.create(mongoURL);
+  @Inject
+  MongoDatabase movieDatabase;
+
+  // decodes the raw actor documents the reads ask for, see the Codecs package
+  private static final ActorDecoder ACTOR_DECODER = new ActorDecoder();
+
+  // collection handles, looked up once
+  private MongoCollection<Document> movieCollection;
+  private MongoCollection<Document> actorCollection;
+
+  @PostConstruct
+  void initCollections() {
+    movieCollection = movieDatabase.getCollection("movies");
+    actorCollection = movieDatabase.getCollection("actors");
+  }
 
   public MongoDatabase getMovieDatabase() {
-    return mongoClient.getDatabase(mongoDatabaseName);
+    return movieDatabase;
   }
 
   /*
@@ -31,11 +52,11 @@ public class DatabaseController {
    * getActorCollection
    */
   public MongoCollection<Document> getMovieCollection() {
-    return getMovieDatabase().getCollection("movies");
+    return movieCollection;
   }
 
   public MongoCollection<Document> getActorCollection() {
-    return getMovieDatabase().getCollection("actors");
+    return actorCollection;
   }
 
   /*
@@ -71,7 +92,7 @@ public class DatabaseController {
 
       String actorId = newActor.getObjectId("_id").toHexString();
       // add actor to movie cast
-      Bson movieUpdateOperation = Updates.push("principalCast", actorId);
+      Bson movieUpdateOperation = Updates.combine(Updates.push("principalCast", actorId), Updates.inc("version", 1));
       movieCollection.updateOne(movie, movieUpdateOperation);
     }
   }
@@ -94,16 +115,9 @@ public class DatabaseController {
    * @return ArrayList of actors that fit the filter
    */
   private static ArrayList<Actor> getActorsWithFilter(MongoCollection<Document> actorsCollection, Bson filter) {
-    var actors = actorsCollection.find(filter).map(document -> {
-      var a = new Actor();
-      a.setName(document.getString("name"));
-      a.setDateOfBirth(document.getString("dob"));
-      a.setId(document.getObjectId("_id").toHexString());
-      a.setMovies(document.getList("movies", String.class));
-      return a;
-    });
+    var actors = actorsCollection.withDocumentClass(RawBsonDocument.class).find(filter);
     var list = new ArrayList<Actor>();
-    actors.forEach(list::add);
+    actors.forEach(raw -> list.add(raw.decode(ACTOR_DECODER)));
     return list;
   }
 
@@ -129,19 +143,11 @@ public class DatabaseController {
     if (movie != null) {
       //Looking at actors in movie
       var actorIds = movie.getList("principalCast", String.class);
-      var actors = new ArrayList<Actor>();
       if (actorIds == null) {
         return new ArrayList<>();
       }
-      //Putting actors into a list
-      for (var actorId : actorIds) {
-        var actorQuery = getActorWithActorId(actorId);
-        if (actorQuery != null) {
-          actors.add(actorQuery);
-        }
-      }
-      //return actor list
-      return actors;
+      //Loading the whole cast at once, in billing order
+      return getActorsWithHexIds(getActorCollection(), actorIds);
     }
     //return null if movie doesn't exist by ID.
     return null;
@@ -156,16 +162,8 @@ public class DatabaseController {
     var actorsCollection = getActorCollection();
     ObjectId actorObjectId = new ObjectId(actorId);
     var filter = Filters.eq("_id", actorObjectId);
-    var actorDocument = actorsCollection.find(filter).first();
-    if (actorDocument != null) {
-      Actor actor = new Actor();
-      actor.setName(actorDocument.getString("name"));
-      actor.setId(actorId);
-      actor.setDateOfBirth(actorDocument.getString("dob"));
-      actor.setMovies(actorDocument.getList("movies", String.class));
-      return actor;
-    }
-    return null;
+    RawBsonDocument actor = actorsCollection.withDocumentClass(RawBsonDocument.class).find(filter).first();
+    return actor == null ? null : actor.decode(ACTOR_DECODER);
   }
   /*
    * Actor Update functions
@@ -179,10 +177,45 @@ public class DatabaseController {
    * Other helper functions
    *
    * getMovieDocumentWithHexId
+   * getActorsWithHexIds
    */
   public Document getMovieDocumentWithHexId(String hexID){
     MongoCollection<Document> movieCollection = getMovieCollection();
     ObjectId movieId = new ObjectId(hexID);
     return movieCollection.find(Filters.eq("_id", movieId)).first();
   }
+
+  // largest $in list sent in one query by getActorsWithHexIds
+  private static final int ID_BATCH_SIZE = 500;
+
+  /**
+   * Loads many actors by id with one <code>$in</code> query per batch of ids instead of one query per id. The actors
+   * come back in the order of the ids given; ids that are not valid ObjectIds or whose actor no longer exists are
+   * skipped, as are repeated ids.
+   *
+   * @param actorsCollection MongoDB collection of actors
+   * @param hexIds MongoDB hex ids of the actors to load
+   * @return the actors that were found, in the order of hexIds
+   */
+  private static List<Actor> getActorsWithHexIds(MongoCollection<Document> actorsCollection, List<String> hexIds) {
+    List<ObjectId> ids = new ArrayList<>(hexIds.size());
+    Set<String> seen = new HashSet<>();
+    for (String hexId : hexIds) {
+      if (hexId != null && ObjectId.isValid(hexId) && seen.add(hexId)) ids.add(new ObjectId(hexId));
+    }
+    Map<String, Actor> found = new HashMap<>(ids.size() * 2);
+    for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+      List<ObjectId> batch = ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size()));
+      actorsCollection.withDocumentClass(RawBsonDocument.class).find(Filters.in("_id", batch)).forEach(raw -> {
+        Actor actor = raw.decode(ACTOR_DECODER);
+        found.put(actor.getId(), actor);
+      });
+    }
+    List<Actor> actors = new ArrayList<>(found.size());
+    for (ObjectId id : ids) {
+      Actor actor = found.get(id.toHexString());
+      if (actor != null) actors.add(actor);
+    }
+    return actors;
+  }
 }
@@ -1,9 +1,11 @@
 package edu.oswego.cs.rest;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
 import java.time.LocalDateTime;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
@@ -12,18 +14,26 @@ import com.mongodb.client.model.Updates;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
+@ApplicationScoped
 public class DatabaseController {
   
-  private static String mongoDatabaseName = System.getenv("MONGO_CRED_DATABASE_NAME");
-  private static String mongoURL = System.getenv("MONGO_CRED_URL");
-  private static MongoClient mongoClient = MongoClients.create(mongoURL);
+  @Inject
+  MongoDatabase userCredentialsDatabase;
+
+  // collection handles, looked up once
+  private MongoCollection<Document> userCollection;
+
+  @PostConstruct
+  void initCollections() {
+    userCollection = userCredentialsDatabase.getCollection("users");
+  }
 
   public MongoDatabase getUserCredentialsDatabase() {
-      return mongoClient.getDatabase(mongoDatabaseName);
+    return userCredentialsDatabase;
   }
 
   public MongoCollection<Document> getUserCollection() {
-    return getUserCredentialsDatabase().getCollection("users");
+    return userCollection;
   }
 
   public void createUser(String username, String password, String sessionId, String dateTime, String email) {
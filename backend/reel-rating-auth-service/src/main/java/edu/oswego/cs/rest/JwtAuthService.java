@@ -6,6 +6,7 @@ import java.util.Set;
 import com.ibm.websphere.security.jwt.JwtBuilder;
 
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
@@ -14,6 +15,9 @@ import jakarta.ws.rs.core.Response;
 @RequestScoped
 @Path("/jwt")
 public class JwtAuthService {
+
+  @Inject
+  DatabaseController dbc;
   
   String AUTH_SERVICE_URL = System.getenv("AUTH_SERVICE_URL");
 
@@ -21,7 +25,6 @@ public class JwtAuthService {
   @Path("/generate/{id}")
   public Response generateToken(@PathParam("id") String id) throws Exception {
 
-    DatabaseController dbc = new DatabaseController();
 
     String username = dbc.getUsername(id);
 
@@ -6,6 +6,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
@@ -18,6 +19,9 @@ import jakarta.ws.rs.core.Response.Status;
 @RequestScoped
 @Path("/auth")
 public class LoginService {
+
+  @Inject
+  DatabaseController dbc;
   
   /**
    * Provides a way for the user to login into our system(Opening a window of time for their
@@ -33,14 +37,13 @@ public class LoginService {
   @Consumes(MediaType.APPLICATION_JSON)
   @Path("/login")
   public Response login(@Context HttpServletRequest request, User user) throws NoSuchAlgorithmException {
-    DatabaseController db = new DatabaseController();
     String username = user.getUsername().toLowerCase();
-    if (db.checkIfUserExists(username)) {
-      if (SecurityUtils.validatePassword(user.getPassword(), db.getPassword(username))) {
+    if (dbc.checkIfUserExists(username)) {
+      if (SecurityUtils.validatePassword(user.getPassword(), dbc.getPassword(username))) {
         String sessionId = request.getSession().getId();
-        db.setUserSessionId(username, sessionId);
+        dbc.setUserSessionId(username, sessionId);
         String dateTime = LocalDateTime.now().toString();
-        db.setUserDateTime(username, dateTime);
+        dbc.setUserDateTime(username, dateTime);
         String stateMessage = "logged in";
         return Response.ok(stateMessage + "," + sessionId).build();
       }
@@ -61,7 +64,6 @@ public class LoginService {
   @Consumes(MediaType.APPLICATION_JSON)
   @Path("/register")
   public Response registerUser(@Context HttpServletRequest request, User user) throws NoSuchAlgorithmException {
-    DatabaseController db = new DatabaseController();
     String username = user.getUsername().toLowerCase();
     String password = user.getPassword();
     String email = user.getEmail();
@@ -82,7 +84,7 @@ public class LoginService {
     Matcher passwordNumberMatcher = passwordNumberRequirement.matcher(password);
 
     // Confirm the username meets our requirements
-    if (db.checkIfUserExists(username)) {
+    if (dbc.checkIfUserExists(username)) {
       return Response.status(Status.UNAUTHORIZED.getStatusCode()).entity("Username already exists.").build();
     }
 
@@ -110,7 +112,7 @@ public class LoginService {
     String encryptedPassword = SecurityUtils.generatePassword(user.getPassword());
     String sessionId = request.getSession().getId();
     String dateTime = LocalDateTime.now().toString();
-    db.createUser(username, encryptedPassword, sessionId, dateTime, email);
+    dbc.createUser(username, encryptedPassword, sessionId, dateTime, email);
     String stateMessage = "Registered";
     return Response.ok(stateMessage + "," + sessionId).build();
   }
@@ -0,0 +1,114 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Produces the one MongoClient the service uses and the database it works in. The pool and timeouts are read from
+ * MicroProfile Config, so they can be set with environment variables such as MONGO_POOL_MAXSIZE, and pool activity is
+ * published as metrics by MongoPoolMetrics. The client is opened when the application starts and closed when it stops.
+ */
+@ApplicationScoped
+public class MongoClientProducer {
+
+  private static final Logger LOGGER = Logger.getLogger(MongoClientProducer.class.getName());
+
+  @Inject
+  @ConfigProperty(name = "MONGO_CRED_URL")
+  String mongoURL;
+
+  @Inject
+  @ConfigProperty(name = "MONGO_CRED_DATABASE_NAME")
+  String mongoDatabaseName;
+
+  @Inject
+  @ConfigProperty(name = "mongo.pool.maxSize", defaultValue = "50")
+  int maxPoolSize;
+
+  // connections kept open while idle, opened in the background as soon as the client starts
+  @Inject
+  @ConfigProperty(name = "mongo.pool.minSize", defaultValue = "5")
+  int minPoolSize;
+
+  // how long a request waits for a free connection before failing
+  @Inject
+  @ConfigProperty(name = "mongo.pool.maxWaitMillis", defaultValue = "2000")
+  long maxWaitMillis;
+
+  @Inject
+  @ConfigProperty(name = "mongo.pool.maxIdleMillis", defaultValue = "300000")
+  long maxIdleMillis;
+
+  @Inject
+  @ConfigProperty(name = "mongo.connectTimeoutMillis", defaultValue = "5000")
+  int connectTimeoutMillis;
+
+  @Inject
+  @ConfigProperty(name = "mongo.readTimeoutMillis", defaultValue = "30000")
+  int readTimeoutMillis;
+
+  @Inject
+  @ConfigProperty(name = "mongo.serverSelectionTimeoutMillis", defaultValue = "5000")
+  long serverSelectionTimeoutMillis;
+
+  @Inject
+  MongoPoolMetrics poolMetrics;
+
+  @Produces
+  @ApplicationScoped
+  public MongoClient mongoClient() {
+    MongoClientSettings settings = MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString(mongoURL))
+            .applyToConnectionPoolSettings(pool -> pool
+                    .maxSize(maxPoolSize)
+                    .minSize(minPoolSize)
+                    .maxWaitTime(maxWaitMillis, TimeUnit.MILLISECONDS)
+                    .maxConnectionIdleTime(maxIdleMillis, TimeUnit.MILLISECONDS)
+                    .addConnectionPoolListener(poolMetrics))
+            .applyToSocketSettings(socket -> socket
+                    .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS))
+            .applyToClusterSettings(cluster -> cluster
+                    .serverSelectionTimeout(serverSelectionTimeoutMillis, TimeUnit.MILLISECONDS))
+            .build();
+    return MongoClients.create(settings);
+  }
+
+  public void closeMongoClient(@Disposes MongoClient mongoClient) {
+    mongoClient.close();
+  }
+
+  @Produces
+  @ApplicationScoped
+  public MongoDatabase userCredentialsDatabase(MongoClient mongoClient) {
+    return mongoClient.getDatabase(mongoDatabaseName);
+  }
+
+  /**
+   * Connects as soon as the application starts instead of on the first request. The ping waits for server selection
+   * and the first connection; the driver then fills the pool up to its minimum size in the background. A database
+   * that is not up yet only logs a warning, requests retry the connection on their own.
+   */
+  public void warmUp(@Observes @Initialized(ApplicationScoped.class) Object event, MongoDatabase database) {
+    try {
+      database.runCommand(new Document("ping", 1));
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Could not reach MongoDB at startup", e);
+    }
+  }
+}
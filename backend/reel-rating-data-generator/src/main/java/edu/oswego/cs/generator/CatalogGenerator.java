@@ -0,0 +1,299 @@
+package edu.oswego.cs.generator;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.BsonDateTime;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the synthetic catalog. Movies are generated in batches on a fixed thread pool and every batch is written with
+ * unordered bulk inserts. All ids and values come from a random stream seeded by the run seed and the index of the
+ * movie or actor, so the output does not depend on the thread count or the order batches finish in.
+ */
+class CatalogGenerator {
+  // kinds mixed into the random streams and the generated ObjectIds
+  private static final int KIND_MOVIE = 1;
+  private static final int KIND_ACTOR = 2;
+  private static final int KIND_RATING = 3;
+  private static final int KIND_TAG = 4;
+  private static final int KIND_REVIEW = 5;
+
+  // generated documents are timestamped around this instant so runs with the same seed are identical
+  private static final long BASE_TIME_MILLIS = 1_698_796_800_000L;
+  private static final long THREE_YEARS_MILLIS = 3L * 365 * 24 * 60 * 60 * 1000;
+  private static final int[] UPPERBOUNDS = {3, 5, 7, 10};
+  // ratings, tags and reviews of a movie are numbered within 20 bits of their ObjectId
+  private static final int MAX_PER_MOVIE = (1 << 20) - 1;
+
+  private final GeneratorConfig config;
+  private final MongoDatabase database;
+  private final TextSource text = new TextSource(2_000, 500);
+  private final Distributions.Zipf tagNames = new Distributions.Zipf(text.tagNames.size(), 1.1);
+  private final Distributions.Zipf ratingCategories = new Distributions.Zipf(text.ratingCategories.size(), 1.0);
+  private final Distributions.Zipf users;
+  private final Distributions.Zipf actors;
+  // the whole seed mixed down to the bits that go into every ObjectId
+  private final int seedBits;
+  private final List<String> stockImageIds = new ArrayList<>();
+
+  private final AtomicLong moviesWritten = new AtomicLong();
+  private final AtomicLong documentsWritten = new AtomicLong();
+
+  CatalogGenerator(GeneratorConfig config, MongoDatabase database) {
+    this.config = config;
+    this.database = database;
+    this.users = new Distributions.Zipf(config.users, 0.9);
+    this.actors = new Distributions.Zipf((int) Math.min(config.actors, Integer.MAX_VALUE), 1.0);
+    this.seedBits = (int) Distributions.streamFor(config.seed, 0, 0).nextLong();
+  }
+
+  void run() throws InterruptedException, ExecutionException {
+    if (config.drop) {
+      for (String name : List.of("movies", "actors", "ratings", "tags", "reviews")) {
+        database.getCollection(name).drop();
+      }
+    }
+    // reuse the stock images stored by the movie service if it has started against this database
+    GridFSBuckets.create(database, "stockMovieImages").find()
+            .forEach(file -> stockImageIds.add(file.getObjectId().toHexString()));
+
+    long start = System.nanoTime();
+    runInBatches(config.actors, this::writeActors);
+    System.out.printf("actors written: %d%n", config.actors);
+    runInBatches(config.movies, this::writeMovies);
+    linkActorsToMovies();
+    System.out.printf("done: %d movies, %d documents in %ds%n", moviesWritten.get(), documentsWritten.get(),
+            (System.nanoTime() - start) / 1_000_000_000L);
+  }
+
+  private interface BatchWriter {
+    void write(long from, long to);
+  }
+
+  /**
+   * Splits [0, total) into batches and writes them on the generator thread pool, failing fast on the first error.
+   */
+  private void runInBatches(long total, BatchWriter writer) throws InterruptedException, ExecutionException {
+    ExecutorService pool = Executors.newFixedThreadPool(config.threads);
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (long from = 0; from < total; from += config.batch) {
+        long batchStart = from;
+        long batchEnd = Math.min(total, from + config.batch);
+        futures.add(pool.submit(() -> writer.write(batchStart, batchEnd)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private void writeActors(long from, long to) {
+    var actorDocuments = new ArrayList<Document>((int) (to - from));
+    for (long index = from; index < to; index++) {
+      SplittableRandom random = Distributions.streamFor(config.seed, KIND_ACTOR, index);
+      actorDocuments.add(new Document("_id", objectId(KIND_ACTOR, index))
+              .append("name", TextSource.personName(random))
+              .append("dob", String.format("%02d/%02d/%d", 1 + random.nextInt(12), 1 + random.nextInt(28),
+                      1920 + random.nextInt(85)))
+              .append("movies", new ArrayList<String>()));
+    }
+    insert(database.getCollection("actors"), actorDocuments);
+  }
+
+  private void writeMovies(long from, long to) {
+    var movieDocuments = new ArrayList<Document>((int) (to - from));
+    var ratingDocuments = new ArrayList<Document>();
+    var tagDocuments = new ArrayList<Document>();
+    var reviewDocuments = new ArrayList<Document>();
+
+    double ratingsPerMovie = (double) config.ratings / config.movies;
+    double tagsPerMovie = (double) config.tags / config.movies;
+    double reviewsPerMovie = (double) config.reviews / config.movies;
+
+    for (long index = from; index < to; index++) {
+      SplittableRandom random = Distributions.streamFor(config.seed, KIND_MOVIE, index);
+      ObjectId movieId = objectId(KIND_MOVIE, index);
+      String movieIdHex = movieId.toHexString();
+      String title = TextSource.title(random, index);
+
+      // principal cast, popular actors show up in many movies
+      Set<String> cast = new LinkedHashSet<>();
+      int castSize = 3 + random.nextInt(6);
+      for (int i = 0; i < castSize; i++) {
+        cast.add(objectId(KIND_ACTOR, actors.sample(random)).toHexString());
+      }
+
+      // each movie uses a handful of rating categories, each with its own scale
+      int categoryCount = 1 + random.nextInt(5);
+      String[] categories = new String[categoryCount];
+      String[] upperbounds = new String[categoryCount];
+      for (int i = 0; i < categoryCount; i++) {
+        categories[i] = text.ratingCategories.get(ratingCategories.sample(random));
+        upperbounds[i] = Integer.toString(UPPERBOUNDS[random.nextInt(UPPERBOUNDS.length)]);
+      }
+
+      Set<String> ratingCategoryNames = new LinkedHashSet<>();
+      Set<String> ratedBy = new HashSet<>();
+      int ratings = Math.min(MAX_PER_MOVIE, Distributions.powerLawCount(random, ratingsPerMovie, 1.6));
+      for (int i = 0; i < ratings; i++) {
+        double skew = random.nextDouble();
+        int category = (int) (categoryCount * skew * skew);
+        String username = username(random);
+        // a user rates each category of a movie once
+        if (!ratedBy.add(username + '\n' + categories[category] + '\n' + upperbounds[category])) continue;
+        ratingCategoryNames.add(categories[category]);
+        ratingDocuments.add(new Document("_id", objectId(KIND_RATING, (index << 20) | i))
+                .append("username", username)
+                .append("ratingName", categories[category])
+                .append("userRating", Integer.toString(1 + random.nextInt(Integer.parseInt(upperbounds[category]))))
+                .append("upperbound", upperbounds[category])
+                .append("movieTitle", title)
+                .append("movieId", movieIdHex)
+                .append("dateTimeCreated", timestamp(random))
+                .append("privacy", "public")
+                .append("subtype", "scale"));
+      }
+
+      Set<String> tagNameSet = new LinkedHashSet<>();
+      Set<String> taggedBy = new HashSet<>();
+      int tagVotes = Math.min(MAX_PER_MOVIE, Distributions.powerLawCount(random, tagsPerMovie, 1.6));
+      for (int i = 0; i < tagVotes; i++) {
+        String tagName = text.tagNames.get(tagNames.sample(random));
+        String username = username(random);
+        // a user votes on each tag of a movie once
+        if (!taggedBy.add(username + '\n' + tagName)) continue;
+        tagNameSet.add(tagName);
+        tagDocuments.add(new Document("_id", objectId(KIND_TAG, (index << 20) | i))
+                .append("username", username)
+                .append("tagName", tagName)
+                .append("movieTitle", title)
+                .append("movieId", movieIdHex)
+                .append("dateTimeCreated", timestamp(random))
+                .append("privacy", "public")
+                .append("state", random.nextInt(100) < 85 ? "upvote" : "downvote"));
+      }
+
+      int reviews = Math.min(MAX_PER_MOVIE, Distributions.powerLawCount(random, reviewsPerMovie, 1.8));
+      for (int i = 0; i < reviews; i++) {
+        reviewDocuments.add(new Document("_id", objectId(KIND_REVIEW, (index << 20) | i))
+                .append("movieId", movieIdHex)
+                .append("reviewDescription", TextSource.sentences(random, Distributions.logNormal(random, 40, 0.9)))
+                .append("username", username(random))
+                .append("dateTimeCreated", timestamp(random))
+                .append("privacy", "public"));
+      }
+
+      int runtime = 80 + random.nextInt(100);
+      double recency = random.nextDouble();
+      movieDocuments.add(new Document("_id", movieId)
+              .append("title", title)
+              .append("director", TextSource.personName(random))
+              .append("writers", writers(random))
+              .append("releaseDate", releaseDate(random, 1920 + (int) (104 * Math.sqrt(recency))))
+              .append("releaseDatePrecision", "day")
+              .append("runtime", (runtime / 60) + "h. " + (runtime % 60) + "min.")
+              .append("plotSummary", TextSource.sentences(random, Distributions.logNormal(random, 45, 0.5)))
+              .append("movieImageId", stockImageIds.isEmpty() ? null
+                      : stockImageIds.get(random.nextInt(stockImageIds.size())))
+              .append("principalCast", new ArrayList<>(cast))
+              .append("tagNames", new ArrayList<>(tagNameSet))
+              .append("ratingCategoryNames", new ArrayList<>(ratingCategoryNames)));
+    }
+
+    insert(database.getCollection("movies"), movieDocuments);
+    insert(database.getCollection("ratings"), ratingDocuments);
+    insert(database.getCollection("tags"), tagDocuments);
+    insert(database.getCollection("reviews"), reviewDocuments);
+
+    long written = moviesWritten.addAndGet(to - from);
+    System.out.printf("movies written: %d/%d%n", written, config.movies);
+  }
+
+  /**
+   * Fills in actors.movies from movies.principalCast on the server so the two sides of the relationship match without
+   * holding the whole cast mapping in memory.
+   */
+  private void linkActorsToMovies() {
+    database.getCollection("movies").aggregate(Arrays.asList(
+            new Document("$project", new Document("principalCast", 1)),
+            new Document("$sort", new Document("_id", 1)),
+            new Document("$unwind", "$principalCast"),
+            new Document("$group", new Document("_id", "$principalCast")
+                    .append("movies", new Document("$push", new Document("$toString", "$_id")))),
+            new Document("$project", new Document("_id", new Document("$toObjectId", "$_id")).append("movies", 1)),
+            new Document("$merge", new Document("into", "actors").append("on", "_id")
+                    .append("whenMatched", "merge").append("whenNotMatched", "discard"))
+    )).allowDiskUse(true).toCollection();
+    System.out.println("actors linked to movies");
+  }
+
+  private void insert(MongoCollection<Document> collection, List<Document> documents) {
+    if (documents.isEmpty()) return;
+    collection.insertMany(documents, new InsertManyOptions().ordered(false));
+    documentsWritten.addAndGet(documents.size());
+  }
+
+  private String username(SplittableRandom random) {
+    return "user" + users.sample(random);
+  }
+
+  private static String writers(SplittableRandom random) {
+    int count = 1 + random.nextInt(3);
+    var writers = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) writers.append(", ");
+      writers.append(TextSource.personName(random));
+    }
+    return writers.toString();
+  }
+
+  private static BsonDateTime timestamp(SplittableRandom random) {
+    return new BsonDateTime(BASE_TIME_MILLIS - (long) (random.nextDouble() * THREE_YEARS_MILLIS));
+  }
+
+  /**
+   * Release dates are stored as UTC midnight, the way the movie service writes them.
+   */
+  private static BsonDateTime releaseDate(SplittableRandom random, int year) {
+    LocalDate day = LocalDate.ofYearDay(year, 1 + random.nextInt(Year.of(year).length()));
+    return new BsonDateTime(day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+  }
+
+  /**
+   * Builds a deterministic ObjectId from the run seed, the kind of document and its index. Ids of the same kind sort in
+   * index order, like ids created by the services sort in insertion order. The seed is mixed down to 32 bits, 24 of
+   * which move the timestamp back by up to half a year, so every seed gets its own ids and not just every 256th.
+   */
+  private ObjectId objectId(int kind, long index) {
+    ByteBuffer bytes = ByteBuffer.allocate(12);
+    bytes.putInt((int) (BASE_TIME_MILLIS / 1000) - (seedBits >>> 8));
+    bytes.put((byte) kind);
+    bytes.put((byte) seedBits);
+    bytes.putShort((short) (index >>> 32));
+    bytes.putInt((int) index);
+    return new ObjectId(bytes.array());
+  }
+}
@@ -0,0 +1,26 @@
+package edu.oswego.cs.generator;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Command line entry point of the synthetic catalog generator. See README.txt for the options.
+ */
+public class DataGenerator {
+
+  public static void main(String[] args) throws Exception {
+    GeneratorConfig config;
+    try {
+      config = GeneratorConfig.fromArgs(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.exit(2);
+      return;
+    }
+
+    System.out.println("generating " + config);
+    try (MongoClient mongoClient = MongoClients.create(config.mongoURL)) {
+      new CatalogGenerator(config, mongoClient.getDatabase(config.mongoDatabaseName)).run();
+    }
+  }
+}
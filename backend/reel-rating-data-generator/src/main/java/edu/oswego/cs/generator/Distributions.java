@@ -0,0 +1,83 @@
+package edu.oswego.cs.generator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random distributions used to make the synthetic catalog look like real usage: a few movies collect most of the
+ * ratings, a few tag names are used everywhere, and review lengths have a long tail.
+ */
+final class Distributions {
+
+  private Distributions() {}
+
+  /**
+   * Samples ranks 0 to n - 1 where rank k is picked with probability proportional to 1 / (k + 1)^exponent. The
+   * cumulative table is computed once so each sample is a binary search.
+   */
+  static final class Zipf {
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+      cumulative = new double[n];
+      double total = 0;
+      for (int k = 0; k < n; k++) {
+        total += 1.0 / Math.pow(k + 1, exponent);
+        cumulative[k] = total;
+      }
+      for (int k = 0; k < n; k++) {
+        cumulative[k] /= total;
+      }
+    }
+
+    int sample(SplittableRandom random) {
+      double u = random.nextDouble();
+      int low = 0;
+      int high = cumulative.length - 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (cumulative[mid] < u) low = mid + 1;
+        else high = mid;
+      }
+      return low;
+    }
+  }
+
+  /**
+   * Draws a count from a Pareto distribution with the given mean. Most draws are well below the mean while a few are
+   * far above it. The result is capped so one movie cannot take a large share of the whole catalog.
+   * @param random source of randomness
+   * @param mean expected value of the count
+   * @param alpha shape of the tail, must be greater than 1. Smaller values give heavier tails
+   * @return a non-negative count
+   */
+  static int powerLawCount(SplittableRandom random, double mean, double alpha) {
+    if (mean <= 0) return 0;
+    double scale = mean * (alpha - 1) / alpha;
+    double value = scale * Math.pow(1 - random.nextDouble(), -1 / alpha);
+    return (int) Math.min(value, mean * 200);
+  }
+
+  /**
+   * Draws a value from a log-normal distribution, used for review lengths in words.
+   * @param random source of randomness
+   * @param median median of the distribution
+   * @param sigma spread of the underlying normal distribution
+   * @return a value of at least 1
+   */
+  static int logNormal(SplittableRandom random, double median, double sigma) {
+    // Box-Muller transform for a standard normal sample
+    double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    return Math.max(1, (int) Math.round(median * Math.exp(sigma * gaussian)));
+  }
+
+  /**
+   * Mixes a seed with an index so every movie or actor gets an independent random stream. This is what keeps the
+   * output the same no matter which thread generates which part of the catalog.
+   */
+  static SplittableRandom streamFor(long seed, long kind, long index) {
+    long z = seed * 0x9E3779B97F4A7C15L + kind * 0xBF58476D1CE4E5B9L + index * 0x94D049BB133111EBL;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return new SplittableRandom(z ^ (z >>> 31));
+  }
+}
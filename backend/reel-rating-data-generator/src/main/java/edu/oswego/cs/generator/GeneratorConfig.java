@@ -0,0 +1,68 @@
+package edu.oswego.cs.generator;
+
+/**
+ * Scale and connection settings for a generator run. Counts are totals for the whole catalog; ratings, tag votes and
+ * reviews are spread over the movies with a power law, so individual movies get far more or far fewer than the mean.
+ */
+public class GeneratorConfig {
+  String mongoURL = System.getenv("MONGO_MOVIE_URL");
+  String mongoDatabaseName = System.getenv("MONGO_MOVIE_DATABASE_NAME");
+
+  long movies = 10_000;
+  long actors = 2_000;
+  long ratings = 500_000;
+  long tags = 200_000;
+  long reviews = 50_000;
+  int users = 5_000;
+  long seed = 1;
+  int threads = Runtime.getRuntime().availableProcessors();
+  int batch = 1_000;
+  boolean drop = false;
+
+  /**
+   * Builds a config from <code>--name=value</code> style arguments. Unknown arguments are rejected so a typo does not
+   * silently generate the default scale.
+   * @param args command line arguments
+   * @return the parsed config
+   */
+  static GeneratorConfig fromArgs(String[] args) {
+    var config = new GeneratorConfig();
+    for (String arg : args) {
+      if (arg.equals("--drop")) {
+        config.drop = true;
+        continue;
+      }
+      int split = arg.indexOf('=');
+      if (!arg.startsWith("--") || split < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      String name = arg.substring(2, split);
+      String value = arg.substring(split + 1);
+      switch (name) {
+        case "movies" -> config.movies = Long.parseLong(value);
+        case "actors" -> config.actors = Long.parseLong(value);
+        case "ratings" -> config.ratings = Long.parseLong(value);
+        case "tags" -> config.tags = Long.parseLong(value);
+        case "reviews" -> config.reviews = Long.parseLong(value);
+        case "users" -> config.users = Integer.parseInt(value);
+        case "seed" -> config.seed = Long.parseLong(value);
+        case "threads" -> config.threads = Integer.parseInt(value);
+        case "batch" -> config.batch = Integer.parseInt(value);
+        default -> throw new IllegalArgumentException("Unknown option --" + name);
+      }
+    }
+    if (config.mongoURL == null || config.mongoDatabaseName == null) {
+      throw new IllegalArgumentException("MONGO_MOVIE_URL and MONGO_MOVIE_DATABASE_NAME must be set");
+    }
+    if (config.movies < 1 || config.actors < 1 || config.users < 1 || config.threads < 1 || config.batch < 1) {
+      throw new IllegalArgumentException("movies, actors, users, threads and batch must be positive");
+    }
+    return config;
+  }
+
+  @Override
+  public String toString() {
+    return "movies=" + movies + " actors=" + actors + " ratings=" + ratings + " tags=" + tags + " reviews=" + reviews
+            + " users=" + users + " seed=" + seed + " threads=" + threads + " batch=" + batch;
+  }
+}
@@ -0,0 +1,126 @@
+package edu.oswego.cs.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Word lists used to build titles, names, tag names, rating categories and review text. Tag names and rating categories
+ * start with the ones users actually create and are padded with generated phrases so the Zipf tail is long enough.
+ */
+final class TextSource {
+
+  private static final String[] WORDS = {
+    "the", "a", "of", "and", "to", "in", "movie", "film", "story", "character", "scene", "ending", "plot", "music",
+    "great", "terrible", "amazing", "boring", "funny", "dark", "slow", "fast", "beautiful", "strange", "classic",
+    "night", "day", "city", "house", "war", "love", "time", "world", "dream", "shadow", "river", "fire", "ice", "star",
+    "king", "queen", "ghost", "machine", "heart", "road", "island", "secret", "last", "first", "lost", "golden",
+    "silent", "broken", "wild", "little", "big", "red", "blue", "black", "white", "summer", "winter", "return", "rise",
+    "fall", "game", "escape", "journey", "promise", "stranger", "family", "friend", "hero", "villain", "power", "truth",
+    "was", "is", "really", "very", "never", "always", "watched", "again", "twice", "acting", "directing", "camera",
+    "dialogue", "twist", "soundtrack", "effects", "cast", "would", "recommend", "worth", "it", "not", "but", "so"
+  };
+
+  private static final String[] FIRST_NAMES = {
+    "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "David", "Elizabeth", "William",
+    "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Keith", "Karen", "Binura", "Nancy", "Quan",
+    "Lisa", "Daniel", "Betty", "Matthew", "Margaret", "Anthony", "Sandra", "Mark", "Ashley", "Steven", "Emily"
+  };
+
+  private static final String[] LAST_NAMES = {
+    "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez",
+    "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez",
+    "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen"
+  };
+
+  private static final String[] SEED_TAGS = {
+    "Action", "Drama", "Comedy", "Romance", "Family", "Animation", "Adventure", "Fantasy", "Science Fiction", "Horror",
+    "Thriller", "Mystery", "Crime", "Biography", "Musical", "Documentary", "War", "Western", "History", "Sports",
+    "Reality", "Heist", "Superhero", "Coming of Age", "Dystopian"
+  };
+
+  private static final String[] SEED_RATING_CATEGORIES = {
+    "Is it worth it?", "Would watch again", "Stickiness", "A cute film", "Best Musical", "Good animated movies",
+    "Best Fight Scence Ever", "Philosophy", "Violence level ?", "How Harrison Ford is it"
+  };
+
+  private static final String[] ADJECTIVES = {
+    "Slow", "Cozy", "Epic", "Quiet", "Loud", "Twisty", "Gritty", "Campy", "Bleak", "Cheesy", "Moody", "Gory", "Witty",
+    "Feel Good", "Mind Bending", "Tearjerker", "Cult", "Underrated", "Overrated", "Nostalgic"
+  };
+
+  private static final String[] NOUNS = {
+    "Burn", "Classic", "Romance", "Thriller", "Comedy", "Soundtrack", "Villain", "Ending", "Cinematography", "Plot",
+    "Heist", "Space Opera", "Road Trip", "Courtroom", "Monster", "Robot", "Time Travel", "Revenge", "Survival", "Spy"
+  };
+
+  final List<String> tagNames;
+  final List<String> ratingCategories;
+
+  TextSource(int tagVocabulary, int ratingVocabulary) {
+    tagNames = vocabulary(SEED_TAGS, tagVocabulary);
+    ratingCategories = new ArrayList<>(List.of(SEED_RATING_CATEGORIES));
+    for (int i = 0; ratingCategories.size() < ratingVocabulary; i++) {
+      ratingCategories.add("How " + WORDS[14 + i % 11] + " was the " + NOUNS[(i / 11) % NOUNS.length].toLowerCase()
+              + (i >= 11 * NOUNS.length ? " " + (i / (11 * NOUNS.length)) : ""));
+    }
+  }
+
+  /**
+   * Creates a vocabulary that starts with the seed words and continues with "Adjective Noun" phrases, numbered once
+   * every combination has been used.
+   */
+  private static List<String> vocabulary(String[] seed, int size) {
+    var names = new ArrayList<>(List.of(seed));
+    for (int i = 0; names.size() < size; i++) {
+      int combination = i % (ADJECTIVES.length * NOUNS.length);
+      String name = ADJECTIVES[combination % ADJECTIVES.length] + " " + NOUNS[combination / ADJECTIVES.length];
+      int round = i / (ADJECTIVES.length * NOUNS.length);
+      names.add(round == 0 ? name : name + " " + (round + 1));
+    }
+    return names;
+  }
+
+  static String word(SplittableRandom random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+
+  static String personName(SplittableRandom random) {
+    return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+  }
+
+  static String title(SplittableRandom random, long index) {
+    int words = 1 + random.nextInt(4);
+    var title = new StringBuilder();
+    for (int i = 0; i < words; i++) {
+      String word = WORDS[6 + random.nextInt(WORDS.length - 6)];
+      if (i > 0) title.append(' ');
+      title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+    }
+    // keep titles unique so lookups by title behave like they do on real data
+    return title.append(' ').append(index + 1).toString();
+  }
+
+  /**
+   * Builds free text of roughly the given number of words split into sentences.
+   */
+  static String sentences(SplittableRandom random, int words) {
+    var text = new StringBuilder(words * 7);
+    boolean capitalize = true;
+    for (int i = 0; i < words; i++) {
+      String word = word(random);
+      if (i > 0) text.append(' ');
+      if (capitalize) {
+        text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        capitalize = false;
+      } else {
+        text.append(word);
+      }
+      if (random.nextInt(12) == 0 || i == words - 1) {
+        text.append('.');
+        capitalize = true;
+      }
+    }
+    return text.toString();
+  }
+}
@@ -0,0 +1,29 @@
+package edu.oswego.cs.mongo;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Reports the declared indexes on the readiness endpoint. Queries still work without an index, only slower, so the
+ * check is always up and carries the state of each declared index and the indexes found on each collection as data.
+ * The indexes are the MongoIndexes the service produces.
+ */
+@Readiness
+@ApplicationScoped
+public class IndexReadinessCheck implements HealthCheck {
+
+  @Inject
+  MongoIndexes indexes;
+
+  @Override
+  public HealthCheckResponse call() {
+    HealthCheckResponseBuilder response = HealthCheckResponse.named("mongo-indexes").up();
+    indexes.getStates().forEach((index, state) -> response.withData(index, state.name()));
+    indexes.getExistingIndexes().forEach((collection, names) -> response.withData("existing." + collection, names));
+    return response.build();
+  }
+}
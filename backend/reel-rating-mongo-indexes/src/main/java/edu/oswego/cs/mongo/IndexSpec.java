@@ -0,0 +1,32 @@
+package edu.oswego.cs.mongo;
+
+import com.mongodb.client.model.Indexes;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One declared index. The signature lists each key as <code>field:direction</code>, or <code>field:text</code> for
+ * text indexes, and is what existing indexes are compared against.
+ */
+public record IndexSpec(String collection, String name, Bson keys, List<String> signature) {
+
+  public static IndexSpec ascending(String collection, String... fields) {
+    List<String> signature = new ArrayList<>();
+    for (String field : fields) signature.add(field + ":1");
+    return new IndexSpec(collection, String.join("_1_", fields) + "_1", Indexes.ascending(fields), signature);
+  }
+
+  public static IndexSpec descending(String collection, String field) {
+    return new IndexSpec(collection, field + "_-1", Indexes.descending(field), List.of(field + ":-1"));
+  }
+
+  public static IndexSpec text(String collection, String field) {
+    return new IndexSpec(collection, field + "_text", Indexes.text(field), List.of(field + ":text"));
+  }
+
+  String key() {
+    return collection + "." + name;
+  }
+}
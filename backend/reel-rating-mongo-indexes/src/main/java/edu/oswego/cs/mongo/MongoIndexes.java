@@ -0,0 +1,101 @@
+package edu.oswego.cs.mongo;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Makes sure a list of declared indexes exists. An index that already exists with different keys, or whose keys
+ * already exist under a different name, is reported as drift and left alone rather than dropped. Indexes on
+ * collections several services query are declared identically in each of them, so whichever service starts first
+ * builds them.
+ */
+public class MongoIndexes {
+
+  private static final Logger LOGGER = Logger.getLogger(MongoIndexes.class.getName());
+
+  public enum IndexState { PENDING, PRESENT, CREATED, DRIFT, FAILED }
+
+  private final List<IndexSpec> indexes;
+  private final Map<String, IndexState> states = new ConcurrentHashMap<>();
+  private final Map<String, String> existing = new ConcurrentHashMap<>();
+
+  public MongoIndexes(List<IndexSpec> indexes) {
+    this.indexes = List.copyOf(indexes);
+    indexes.forEach(spec -> states.put(spec.key(), IndexState.PENDING));
+  }
+
+  /**
+   * Creates the missing indexes one after another and then records the indexes found on each collection. This can
+   * take a while on large collections, so services run it on a background thread.
+   */
+  public void ensure(MongoDatabase database) {
+    for (IndexSpec spec : indexes) {
+      states.put(spec.key(), ensureIndex(database, spec));
+    }
+    for (String collection : indexes.stream().map(IndexSpec::collection).distinct().toList()) {
+      List<String> names = new ArrayList<>();
+      database.getCollection(collection).listIndexes().forEach(index -> names.add(index.getString("name")));
+      existing.put(collection, String.join(",", names));
+    }
+  }
+
+  private IndexState ensureIndex(MongoDatabase database, IndexSpec spec) {
+    try {
+      var collection = database.getCollection(spec.collection());
+      for (Document index : collection.listIndexes()) {
+        boolean sameName = spec.name().equals(index.getString("name"));
+        boolean sameKeys = spec.signature().equals(signatureOf(index));
+        if (sameName && sameKeys) return IndexState.PRESENT;
+        if (sameName || sameKeys) {
+          LOGGER.warning("Index " + spec.key() + " does not match the declared spec, found " + index.toJson());
+          return IndexState.DRIFT;
+        }
+      }
+      collection.createIndex(spec.keys(), new IndexOptions().name(spec.name()).background(true));
+      LOGGER.info("Created index " + spec.key());
+      return IndexState.CREATED;
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Could not create index " + spec.key(), e);
+      return IndexState.FAILED;
+    }
+  }
+
+  /**
+   * Builds the signature of an index returned by listIndexes. Text indexes store their fields as weights under an
+   * internal key, so the weighted fields are used instead.
+   */
+  private static List<String> signatureOf(Document index) {
+    Document keys = index.get("key", Document.class);
+    List<String> signature = new ArrayList<>();
+    if (keys.containsKey("_fts")) {
+      index.get("weights", Document.class).keySet().stream().sorted().forEach(field -> signature.add(field + ":text"));
+      return signature;
+    }
+    keys.forEach((field, direction) -> signature.add(field + ":"
+            + (direction instanceof Number number ? Integer.toString(number.intValue()) : direction)));
+    return signature;
+  }
+
+  /**
+   * @return the state of every declared index keyed by collection and index name
+   */
+  public Map<String, IndexState> getStates() {
+    return new TreeMap<>(states);
+  }
+
+  /**
+   * @return comma separated names of the indexes found on each collection once ensure has finished
+   */
+  public Map<String, String> getExistingIndexes() {
+    return new TreeMap<>(existing);
+  }
+}
@@ -0,0 +1,90 @@
+package edu.oswego.cs.rest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ContextService;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs blocking work, such as DatabaseController reads and getUsername, away from the request thread. With
+ * threads.virtual.enabled every task gets a virtual thread of its own, so requests waiting on Mongo or the auth
+ * service do not use up a fixed pool of platform threads; otherwise tasks go to the server's managed executor. Tasks
+ * run with the application context of the thread that submitted them in both modes.
+ *
+ * Virtual threads that block inside a synchronized block pin their carrier thread. jvm.options turns on
+ * jdk.tracePinnedThreads, so every place this happens is logged with a stack trace.
+ */
+@ApplicationScoped
+public class BlockingExecutor {
+
+  @Inject
+  @ConfigProperty(name = "threads.virtual.enabled", defaultValue = "false")
+  boolean virtualThreads;
+
+  @Resource
+  private ManagedExecutorService managedExecutor;
+
+  @Resource
+  private ContextService contextService;
+
+  private ExecutorService virtualExecutor;
+
+  @PostConstruct
+  void start() {
+    if (virtualThreads) {
+      virtualExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("blocking-", 0).factory());
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    if (virtualExecutor != null) virtualExecutor.shutdown();
+  }
+
+  /**
+   * @return true if tasks run on virtual threads
+   */
+  public boolean isVirtual() {
+    return virtualExecutor != null;
+  }
+
+  /**
+   * Runs the task and completes the future with its result. A checked exception thrown by the task completes the
+   * future exceptionally with that exception as the cause.
+   */
+  public <T> CompletableFuture<T> supply(Callable<T> task) {
+    Callable<T> contextual = contextService.contextualCallable(task);
+    if (virtualExecutor == null) return managedExecutor.supplyAsync(() -> call(contextual));
+    return CompletableFuture.supplyAsync(() -> call(contextual), virtualExecutor);
+  }
+
+  /**
+   * Runs the task and returns a plain Future for it. Unlike the CompletableFuture of supply, cancelling it with
+   * <code>cancel(true)</code> interrupts the task if it is already running.
+   */
+  public <T> Future<T> submit(Callable<T> task) {
+    Callable<T> contextual = contextService.contextualCallable(task);
+    return virtualExecutor == null ? managedExecutor.submit(contextual) : virtualExecutor.submit(contextual);
+  }
+
+  private static <T> T call(Callable<T> task) {
+    try {
+      return task.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CompletionException(e);
+    }
+  }
+}
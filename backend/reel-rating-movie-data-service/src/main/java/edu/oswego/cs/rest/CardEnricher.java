@@ -0,0 +1,148 @@
+package edu.oswego.cs.rest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fills in the extra details of the movie cards on a result page, such as the most popular rating and three tag names,
+ * for every card at once instead of one movie after the other. Lookups run on the BlockingExecutor, at most
+ * enrichment.maxConcurrency of them at a time across all requests. A page waits for permits and lookups until
+ * enrichment.deadlineMillis has passed; lookups still running then are cancelled, and cards whose lookup got no
+ * permit, was late or failed are returned without the details.
+ */
+@ApplicationScoped
+public class CardEnricher {
+
+  private static final Logger LOGGER = Logger.getLogger(CardEnricher.class.getName());
+
+  @Inject
+  BlockingExecutor executor;
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  @ConfigProperty(name = "enrichment.maxConcurrency", defaultValue = "32")
+  int maxConcurrency;
+
+  @Inject
+  @ConfigProperty(name = "enrichment.deadlineMillis", defaultValue = "1500")
+  long deadlineMillis;
+
+  private Semaphore permits;
+  private Counter partialCards;
+
+  @PostConstruct
+  void init() {
+    permits = new Semaphore(maxConcurrency, true);
+    partialCards = metrics.counter("enrichment.partialCards");
+  }
+
+  /**
+   * Looks up the details of every card concurrently and copies them onto the cards that finished in time.
+   *
+   * @param cards cards of the result page, left as they are if their lookup does not finish
+   * @param lookup blocking read of the details of one card, must not modify the card
+   * @param apply copies the details onto the card, runs on the calling thread
+   */
+  public <C, D> void enrich(List<C> cards, Function<C, D> lookup, BiConsumer<C, D> apply) {
+    if (cards.isEmpty()) return;
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    List<Lookup<D>> lookups = new ArrayList<>(cards.size());
+    try {
+      // a permit is taken before each lookup is submitted, so waiting for one counts against the deadline too
+      for (C card : cards) {
+        if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+          LOGGER.fine("No enrichment permit within " + deadlineMillis + "ms, skipping the remaining cards");
+          break;
+        }
+        Lookup<D> detail = new Lookup<>(() -> lookup.apply(card));
+        try {
+          detail.future = executor.submit(detail);
+        } catch (RejectedExecutionException e) {
+          permits.release();
+          LOGGER.log(Level.WARNING, "Could not start card lookup", e);
+          break;
+        }
+        lookups.add(detail);
+      }
+      for (Lookup<D> detail : lookups) {
+        try {
+          detail.future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+          LOGGER.log(Level.WARNING, "Could not read card details", e.getCause());
+        }
+      }
+    } catch (TimeoutException e) {
+      LOGGER.fine("Card details not ready after " + deadlineMillis + "ms, returning partial cards");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      for (Lookup<D> detail : lookups) detail.cancel();
+    }
+    // the cards are only modified here, on the calling thread
+    for (int i = 0; i < cards.size(); i++) {
+      Future<D> detail = i < lookups.size() ? lookups.get(i).future : null;
+      if (detail != null && detail.state() == Future.State.SUCCESS) {
+        apply.accept(cards.get(i), detail.resultNow());
+      } else {
+        partialCards.inc();
+      }
+    }
+  }
+
+  private static final int WAITING = 0;
+  private static final int STARTED = 1;
+  private static final int CANCELLED = 2;
+
+  /**
+   * One card lookup and the permit it holds. The permit is given back once: by the lookup when it ends, or by
+   * cancel if the lookup was cancelled before it started.
+   */
+  private final class Lookup<D> implements Callable<D> {
+    private final Callable<D> read;
+    private final AtomicInteger state = new AtomicInteger(WAITING);
+    private Future<D> future;
+
+    Lookup(Callable<D> read) {
+      this.read = read;
+    }
+
+    @Override
+    public D call() throws Exception {
+      if (!state.compareAndSet(WAITING, STARTED)) return null;
+      try {
+        return read.call();
+      } finally {
+        permits.release();
+      }
+    }
+
+    /**
+     * Interrupts the lookup if it is still running, does nothing if it is done.
+     */
+    void cancel() {
+      future.cancel(true);
+      if (state.compareAndSet(WAITING, CANCELLED)) permits.release();
+    }
+  }
+}
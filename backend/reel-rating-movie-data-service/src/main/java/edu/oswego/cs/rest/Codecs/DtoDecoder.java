@@ -0,0 +1,91 @@
+package edu.oswego.cs.rest.Codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.codecs.Decoder;
+import org.bson.codecs.DecoderContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * Base for the decoders that read documents straight from the BSON reader into a JsonClasses object, without building
+ * an intermediate Document. Fields the DTO does not have are skipped. The DTOs are only ever read this way and
+ * documents are written as Document, so the decoders are not codecs and stay out of the codec registry: reads ask
+ * for RawBsonDocument, which keeps the bytes as they came from the server, and decode them with
+ * <code>RawBsonDocument.decode</code>.
+ *
+ * @param <T> the DTO the decoder decodes into
+ */
+public abstract class DtoDecoder<T> implements Decoder<T> {
+
+  /**
+   * @return a new, empty DTO to decode into
+   */
+  protected abstract T newInstance();
+
+  /**
+   * Reads the value of one field into the DTO.
+   *
+   * @return false if the DTO has no such field, in which case the value is skipped
+   */
+  protected abstract boolean readField(T dto, String name, BsonReader reader);
+
+  @Override
+  public T decode(BsonReader reader, DecoderContext decoderContext) {
+    T dto = newInstance();
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      if (reader.getCurrentBsonType() == BsonType.NULL) {
+        reader.readNull();
+      } else if (!readField(dto, name, reader)) {
+        reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+    return dto;
+  }
+
+  /**
+   * Reads the current value as a string. ObjectIds become their hex string and dates are formatted the way
+   * <code>document.get(field).toString()</code> formatted them, so the API output does not change.
+   */
+  protected static String readString(BsonReader reader) {
+    return switch (reader.getCurrentBsonType()) {
+      case STRING -> reader.readString();
+      case OBJECT_ID -> reader.readObjectId().toHexString();
+      case DATE_TIME -> new Date(reader.readDateTime()).toString();
+      case INT32 -> Integer.toString(reader.readInt32());
+      case INT64 -> Long.toString(reader.readInt64());
+      case DOUBLE -> Double.toString(reader.readDouble());
+      case BOOLEAN -> Boolean.toString(reader.readBoolean());
+      default -> {
+        reader.skipValue();
+        yield null;
+      }
+    };
+  }
+
+  /**
+   * Reads the current value as a list of strings. A value that is not an array is skipped.
+   */
+  protected static ArrayList<String> readStringList(BsonReader reader) {
+    if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+      reader.skipValue();
+      return null;
+    }
+    ArrayList<String> list = new ArrayList<>();
+    reader.readStartArray();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      list.add(reader.getCurrentBsonType() == BsonType.NULL ? readNull(reader) : readString(reader));
+    }
+    reader.readEndArray();
+    return list;
+  }
+
+  private static String readNull(BsonReader reader) {
+    reader.readNull();
+    return null;
+  }
+}
@@ -0,0 +1,49 @@
+package edu.oswego.cs.rest.Codecs;
+
+import edu.oswego.cs.rest.ReleaseDates;
+import edu.oswego.cs.rest.JsonClasses.Movie;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+
+import java.util.Date;
+
+/**
+ * Decodes a movie document into a Movie. The plotSummary field becomes summary and release dates are formatted
+ * with ReleaseDates, down to their releaseDatePrecision.
+ */
+public class MovieDecoder extends DtoDecoder<Movie> {
+
+  @Override
+  protected Movie newInstance() {
+    return new Movie();
+  }
+
+  @Override
+  protected boolean readField(Movie m, String name, BsonReader reader) {
+    switch (name) {
+      case "_id" -> m.setId(readString(reader));
+      case "title" -> m.setTitle(readString(reader));
+      case "director" -> m.setDirector(readString(reader));
+      case "releaseDate" -> m.setReleaseDate(readReleaseDate(reader));
+      // written right after releaseDate, so the date is already there to cut down
+      case ReleaseDates.PRECISION_FIELD -> {
+        String precision = readString(reader);
+        if (m.getReleaseDate() != null) m.setReleaseDate(ReleaseDates.truncate(m.getReleaseDate(), precision));
+      }
+      case "runtime" -> m.setRuntime(readString(reader));
+      case "writers" -> m.setWriters(readString(reader));
+      case "plotSummary" -> m.setSummary(readString(reader));
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String readReleaseDate(BsonReader reader) {
+    if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+      return ReleaseDates.format(new Date(reader.readDateTime()), ReleaseDates.DAY_PRECISION);
+    }
+    return readString(reader);
+  }
+}
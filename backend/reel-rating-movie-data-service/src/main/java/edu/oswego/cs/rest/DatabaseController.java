@@ -1,22 +1,32 @@
 package edu.oswego.cs.rest;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 import static com.mongodb.client.model.Sorts.descending;
 
+import edu.oswego.cs.rest.Codecs.MovieDecoder;
+import edu.oswego.cs.rest.Codecs.TagDecoder;
 import edu.oswego.cs.rest.JsonClasses.*;
 import org.bson.BsonDateTime;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.MongoIterable;
@@ -24,18 +34,53 @@ import com.mongodb.client.gridfs.GridFSBucket;
 import com.mongodb.client.gridfs.GridFSBuckets;
 import com.mongodb.client.gridfs.GridFSDownloadStream;
 import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
 
+@ApplicationScoped
 public class DatabaseController {
-  private static String mongoDatabaseName = System.getenv("MONGO_MOVIE_DATABASE_NAME");
-  private static String mongoURL = System.getenv("MONGO_MOVIE_URL");
-  private static MongoClient mongoClient = MongoClients.create(mongoURL);
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  // how long a per-movie aggregate is reused by the requests that follow it
+  @Inject
+  @ConfigProperty(name = "singleflight.ttlMillis", defaultValue = "1000")
+  long singleFlightTtlMillis;
+
+  // most popular rating of a movie, shared by concurrent requests for the same movie
+  private SingleFlight<String, Rating> mostPopularRatings;
+
+  // collection handles, looked up once
+  private MongoCollection<Document> tagCollection;
+  private MongoCollection<Document> movieCollection;
+  private MongoCollection<Document> actorCollection;
+  private MongoCollection<Document> ratingCollection;
+  private MongoCollection<Document> reviewCollection;
+  private MongoCollection<Document> metadataCollection;
+
+  @PostConstruct
+  void init() {
+    tagCollection = movieDatabase.getCollection("tags");
+    movieCollection = movieDatabase.getCollection("movies");
+    actorCollection = movieDatabase.getCollection("actors");
+    ratingCollection = movieDatabase.getCollection("ratings");
+    reviewCollection = movieDatabase.getCollection("reviews");
+    metadataCollection = movieDatabase.getCollection("metadata");
+    mostPopularRatings = new SingleFlight<>("mostPopularRating", singleFlightTtlMillis, metrics);
+  }
 
   public MongoDatabase getMovieDatabase() {
-    return mongoClient.getDatabase(mongoDatabaseName);
+    return movieDatabase;
   }
 
   /*
@@ -43,24 +88,64 @@ public class DatabaseController {
    * be queried and updated by the other CRUD operations.
    */
   public MongoCollection<Document> getTagCollection() {
-    return getMovieDatabase().getCollection("tags");
+    return tagCollection;
   }
 
   public MongoCollection<Document> getMovieCollection() {
-    return getMovieDatabase().getCollection("movies");
+    return movieCollection;
   }
 
   public MongoCollection<Document> getActorCollection() {
-    return getMovieDatabase().getCollection("actors");
+    return actorCollection;
   }
 
   public MongoCollection<Document> getRatingCollection() {
-    return getMovieDatabase().getCollection("ratings");
+    return ratingCollection;
   }
 
 
   public MongoCollection<Document> getReviewCollection() {
-    return getMovieDatabase().getCollection("reviews");
+    return reviewCollection;
+  }
+
+  public MongoCollection<Document> getMetadataCollection() {
+    return metadataCollection;
+  }
+
+  /*
+   * Seed marker methods
+   *
+   * The seed marker is a single document in the metadata collection that records which version of the seed data has
+   * been written and how many of its movies are done. PopulationData uses it to skip or resume seeding on startup.
+   *
+   * getSeedMarker
+   * saveSeedMarker
+   */
+
+  // _id of the marker document within the metadata collection
+  private static final String SEED_MARKER_ID = "movieSeed";
+
+  /**
+   * Returns the seed marker document, or null if the database has never been seeded with a marker.
+   * @return Document with the version, moviesSeeded and complete fields
+   */
+  public Document getSeedMarker() {
+    return getMetadataCollection().find(Filters.eq("_id", SEED_MARKER_ID)).first();
+  }
+
+  /**
+   * Creates or replaces the seed marker document.
+   * @param version seed data version being written
+   * @param moviesSeeded number of seed movies that have been fully created
+   * @param complete true once every seed movie of the version exists
+   */
+  public void saveSeedMarker(int version, int moviesSeeded, boolean complete) {
+    Document marker = new Document("_id", SEED_MARKER_ID)
+            .append("version", version)
+            .append("moviesSeeded", moviesSeeded)
+            .append("complete", complete)
+            .append("dateTimeUpdated", new BsonDateTime(System.currentTimeMillis()));
+    getMetadataCollection().replaceOne(Filters.eq("_id", SEED_MARKER_ID), marker, new ReplaceOptions().upsert(true));
   }
 
   /*
@@ -85,7 +170,8 @@ public class DatabaseController {
   }
 
   /**
-   * Stores pre-selected stock images in the database to be displayed for movies
+   * Stores pre-selected stock images in the database to be displayed for movies. Images that are already in the
+   * bucket are skipped so repeated calls do not upload duplicates.
    */
   public void storeStockImages() {
     GridFSBucket gridFSBucket = getStockImageBucket();
@@ -93,6 +179,8 @@ public class DatabaseController {
       // create a name to store the image
       String movieFileName = "stockImage" + i + ".webp";
       String movieImagePath = "images/" + movieFileName;
+      // skip images uploaded by an earlier start up
+      if (gridFSBucket.find(Filters.eq("filename", movieFileName)).first() != null) continue;
       // attempt to grab and upload the image
       try {
         File file = new File(this.getClass().getClassLoader().getResource(movieImagePath).getFile());
@@ -159,6 +247,13 @@ public class DatabaseController {
    * createReview
    * createActor
    * createMovie
+   *
+   * Seeding uses the IfAbsent variants, which look the record up by its natural key first so that a seed step
+   * interrupted part way through can be run again without duplicating what it had already written.
+   *
+   * createMovieIfAbsent
+   * createReviewIfAbsent
+   * createActorIfAbsent
    */
 
   /**
@@ -204,17 +299,18 @@ public class DatabaseController {
               .append("state", "upvote");
       // add to the database
       tagCollection.insertOne(newTag);
-
-      Bson tagMovieFilter = Filters.eq("tagNames", tagName);
-      Bson movieIdFilter = Filters.eq("_id", movieId);
-      Document movieWithTag = movieCollection.find(Filters.and(tagMovieFilter, movieIdFilter)).first();
-      // check to see if movie category needs to be pushed
-      if (movieWithTag == null) {
-        Bson movieRatingCategoryUpdateOperation = Updates.push("tagNames", tagName);
-        movieCollection.updateOne(movie, movieRatingCategoryUpdateOperation);
-      }
     }
 
+    // also checked for an existing tag, in case an interrupted seed inserted it but never got to the movie
+    Bson tagMovieFilter = Filters.eq("tagNames", tagName);
+    Bson movieIdFilter = Filters.eq("_id", movieId);
+    Document movieWithTag = movieCollection.find(Filters.and(tagMovieFilter, movieIdFilter)).first();
+    // check to see if movie category needs to be pushed
+    if (movieWithTag == null) {
+      Bson movieRatingCategoryUpdateOperation = Updates.combine(Updates.push("tagNames", tagName),
+              Updates.inc("version", 1));
+      movieCollection.updateOne(movie, movieRatingCategoryUpdateOperation);
+    }
   }
 
   /**
@@ -260,21 +356,25 @@ public class DatabaseController {
                   .append("privacy", privacy)
                   .append("subtype", subtype);
       ratingCollection.insertOne(newRating);
+    }
+    if(rating != null){
+      Bson updateOperation = Updates.combine(Updates.set("userRating", userRating), Updates.inc("version", 1));
+      ratingCollection.updateOne(filter, updateOperation);
+    }
 
+    // also checked for an existing rating, in case an interrupted seed inserted it but never got to the movie
+    if (movie != null) {
       Bson ratingCategoryMovieFilter = Filters.eq("ratingCategoryNames", ratingName);
       ObjectId movieId = new ObjectId(movieIdHexString);
       Bson movieIdFilter = Filters.eq("_id", movieId);
       Document movieWithRatingCategory = movieCollection.find(Filters.and(ratingCategoryMovieFilter, movieIdFilter)).first();
       // check to see if movie category needs to be pushed
       if (movieWithRatingCategory == null) {
-        Bson movieRatingCategoryUpdateOperation = Updates.push("ratingCategoryNames", ratingName);
+        Bson movieRatingCategoryUpdateOperation = Updates.combine(Updates.push("ratingCategoryNames", ratingName),
+                Updates.inc("version", 1));
         movieCollection.updateOne(movie, movieRatingCategoryUpdateOperation);
       }
     }
-    if(rating != null){
-      Bson updateOperation = Updates.set("userRating", userRating);
-      ratingCollection.updateOne(filter, updateOperation);
-    }
   }
 
   /**
@@ -333,7 +433,7 @@ public class DatabaseController {
 
       String actorId = newActor.getObjectId("_id").toHexString();
       // add actor to movie cast
-      Bson movieUpdateOperation = Updates.push("principalCast", actorId);
+      Bson movieUpdateOperation = Updates.combine(Updates.push("principalCast", actorId), Updates.inc("version", 1));
       movieCollection.updateOne(movie, movieUpdateOperation);
     }
   }
@@ -343,7 +443,7 @@ public class DatabaseController {
    *
    * @param movieTitle Title of movie. For example "Star Wars: Attack of the Clones" or "The Bee Movie"
    * @param director Director of the movie.
-   * @param releaseDate Release date of the movie
+   * @param releaseDate Release date of the movie, see ReleaseDates.parse for the accepted forms
    * @param runtime Movies runtime (in minutes?)
    * @param writers List of writers who worked on the movie
    * @param plotSummary Short description of the movie or its plot
@@ -354,15 +454,68 @@ public class DatabaseController {
     MongoCollection<Document> movieCollection = getMovieCollection();
 
     Document newMovie = new Document().append("title", movieTitle).append("director", director).append("writers", writers)
-            .append("releaseDate", releaseDate).append("runtime", runtime).append("plotSummary", plotSummary)
+            .append("releaseDate", ReleaseDates.parse(releaseDate))
+            .append(ReleaseDates.PRECISION_FIELD, ReleaseDates.precision(releaseDate))
+            .append("runtime", runtime).append("plotSummary", plotSummary)
             .append("movieImageId", getRandomImageId());
     movieCollection.insertOne(newMovie);
   }
 
+  /**
+   * Creates a movie unless one with the title already exists, see createMovie.
+   */
+  public void createMovieIfAbsent(String movieTitle, String director, String releaseDate,
+                                  String runtime, String writers, String plotSummary){
+    Bson movieUpdateOperation = Updates.combine(Updates.setOnInsert("director", director),
+            Updates.setOnInsert("writers", writers), Updates.setOnInsert("releaseDate", ReleaseDates.parse(releaseDate)),
+            Updates.setOnInsert(ReleaseDates.PRECISION_FIELD, ReleaseDates.precision(releaseDate)),
+            Updates.setOnInsert("runtime", runtime), Updates.setOnInsert("plotSummary", plotSummary),
+            Updates.setOnInsert("movieImageId", getRandomImageId()));
+    getMovieCollection().updateOne(Filters.eq("title", movieTitle), movieUpdateOperation,
+            new UpdateOptions().upsert(true));
+  }
+
+  /**
+   * Creates a review unless the user already wrote the same review of the movie, see createReview.
+   */
+  public void createReviewIfAbsent(String movieIdString, String reviewDescription, String username, String privacy){
+    if (getMovieDocumentWithHexId(movieIdString) == null) return;
+    Bson reviewFilter = Filters.and(Filters.eq("movieId", movieIdString),
+            Filters.eq("reviewDescription", reviewDescription), Filters.eq("username", username.toLowerCase()));
+    Bson reviewUpdateOperation = Updates.combine(
+            Updates.setOnInsert("dateTimeCreated", new BsonDateTime(System.currentTimeMillis())),
+            Updates.setOnInsert("privacy", privacy));
+    getReviewCollection().updateOne(reviewFilter, reviewUpdateOperation, new UpdateOptions().upsert(true));
+  }
+
+  /**
+   * Adds an actor to the cast of a movie unless an actor with the name and date of birth already appears in it, see
+   * createActor. The actor is inserted together with the movie and added to the cast with $addToSet, so running
+   * this again after it was interrupted in between completes the link instead of inserting a second actor.
+   */
+  public void createActorIfAbsent(String actorName, String dob, String movieId){
+    MongoCollection<Document> actorCollection = getActorCollection();
+    Document movie = getMovieDocumentWithHexId(movieId);
+    if (movie == null) return;
+
+    Document actor = actorCollection.find(Filters.and(Filters.eq("name", actorName), Filters.eq("dob", dob),
+            Filters.eq("movies", movieId))).first();
+    if (actor == null) {
+      actor = new Document("name", actorName).append("dob", dob).append("movies", new ArrayList<>(List.of(movieId)));
+      actorCollection.insertOne(actor);
+    }
+    String actorId = actor.getObjectId("_id").toHexString();
+    // only counts as an update of the movie if the actor was not in its cast yet
+    getMovieCollection().updateOne(Filters.and(Filters.eq("_id", movie.getObjectId("_id")),
+            Filters.ne("principalCast", actorId)),
+            Updates.combine(Updates.addToSet("principalCast", actorId), Updates.inc("version", 1)));
+  }
+
   /*
    * Get functions
    *
    * getMoviesWithFilter
+   * getMoviePageWithFilter
    * getTagsWithFilter
    *
    * getMoviesWithTag
@@ -381,6 +534,51 @@ public class DatabaseController {
    * getThreeTags
    * getTagsByMovieId
    */
+  /*
+   * Projections
+   *
+   * Reads only ask Mongo for the fields the endpoint returns. Movie endpoints accept a comma separated fields
+   * parameter naming Movie properties (a sparse fieldset); the id is always returned.
+   */
+
+  // Movie property name to the movie document fields it is read from
+  private static final Map<String, List<String>> MOVIE_FIELDS = Map.of(
+          "id", List.of("_id"),
+          "title", List.of("title"),
+          "director", List.of("director"),
+          "releaseDate", List.of("releaseDate", ReleaseDates.PRECISION_FIELD),
+          "runtime", List.of("runtime"),
+          "writers", List.of("writers"),
+          "summary", List.of("plotSummary"));
+
+  // decode the raw documents the reads ask for, see the Codecs package
+  static final MovieDecoder MOVIE_DECODER = new MovieDecoder();
+  private static final TagDecoder TAG_DECODER = new TagDecoder();
+
+  // every field MovieDecoder reads
+  private static final Bson MOVIE_PROJECTION = Projections.include(
+          MOVIE_FIELDS.values().stream().flatMap(List::stream).toList());
+
+  // fields needed for a MoviePreview card
+  static final Bson PREVIEW_PROJECTION = Projections.include("title", "plotSummary");
+
+  /**
+   * Builds the projection for a sparse fieldset request.
+   * @param fields comma separated Movie property names, null or blank for every property
+   * @return projection including only the requested fields
+   * @throws IllegalArgumentException if a field is not a Movie property
+   */
+  public static Bson movieProjection(String fields) {
+    if (fields == null || fields.isBlank()) return MOVIE_PROJECTION;
+    List<String> include = new ArrayList<>();
+    for (String field : fields.split(",")) {
+      List<String> documentFields = MOVIE_FIELDS.get(field.trim());
+      if (documentFields == null) throw new IllegalArgumentException("Unknown movie field " + field.trim());
+      include.addAll(documentFields);
+    }
+    return Projections.include(include);
+  }
+
   /**
    * <p>Get with filter operations allow for mutable searches within the database. These functions are called internally
    * by the <code>getXWithY</code> where X is a database entity and Y is a another database entity or field. </p>
@@ -388,23 +586,99 @@ public class DatabaseController {
    * <p>For example the <code>getMoviesWithFilter()</code> method is used by the <code>getMoviesWithTag()</code>
    * method</p> to return all the movies that have the specified tag.
    */
-    private static ArrayList<Movie> getMoviesWithFilter(MongoCollection<Document> moviesCollection, Bson filter) {
-    var movies = moviesCollection.find(filter).map(document -> {
-      var m = new Movie();
-      m.setDirector(document.getString("director"));
-      m.setRuntime(document.getString("runtime"));
-      m.setSummary(document.getString("plotSummary"));
-      m.setTitle(document.getString("title"));
-      m.setWriters(document.getString("writers"));
-      m.setReleaseDate(document.getString("releaseDate"));
-      m.setId(document.getObjectId("_id").toHexString());
-      return m;
-    });
+  private static ArrayList<Movie> getMoviesWithFilter(MongoCollection<Document> moviesCollection, Bson filter,
+                                                      Bson projection) {
+    var movies = moviesCollection.withDocumentClass(RawBsonDocument.class).find(filter).projection(projection);
     var list = new ArrayList<Movie>();
-    movies.forEach(list::add);
+    movies.forEach(raw -> list.add(raw.decode(MOVIE_DECODER)));
     return list;
   }
 
+  /**
+   * Returns one page of the movies matching the filter, ordered by <code>_id</code>. One extra document is read past
+   * the limit to tell whether another page exists without a separate count query.
+   *
+   * @param moviesCollection MongoDB collection of movies
+   * @param filter filter the movies must match
+   * @param limit maximum number of movies on the page
+   * @param after <code>_id</code> the page starts after, null for the first page
+   * @param projection fields to read, see movieProjection
+   * @return MoviePage with the movies and the cursor of the next page
+   */
+  private static MoviePage getMoviePageWithFilter(MongoCollection<Document> moviesCollection, Bson filter, int limit,
+                                                  ObjectId after, Bson projection) {
+    Bson pageFilter = after == null ? filter : Filters.and(filter, Filters.gt("_id", after));
+    var list = new ArrayList<Movie>(limit + 1);
+    moviesCollection.withDocumentClass(RawBsonDocument.class).find(pageFilter).projection(projection)
+            .sort(Sorts.ascending("_id")).limit(limit + 1).forEach(raw -> list.add(raw.decode(MOVIE_DECODER)));
+    return toMoviePage(list, limit);
+  }
+
+  // largest $in list sent in one query by getMoviesWithHexIds
+  private static final int ID_BATCH_SIZE = 500;
+
+  /**
+   * Loads many movies by id with one <code>$in</code> query per batch of ids instead of one query per id. The
+   * movies come back in the order of the ids given; ids that are not valid ObjectIds or whose movie no longer
+   * exists are skipped, as are repeated ids.
+   *
+   * @param moviesCollection MongoDB collection of movies
+   * @param hexIds MongoDB hex ids of the movies to load
+   * @param projection fields to read
+   * @param convert turns each raw movie document into the result, e.g. decoding it with MOVIE_DECODER
+   * @return the movies that were found, in the order of hexIds
+   */
+  private static <T> List<T> getMoviesWithHexIds(MongoCollection<Document> moviesCollection, List<String> hexIds,
+                                                 Bson projection, Function<RawBsonDocument, T> convert) {
+    List<ObjectId> ids = new ArrayList<>(hexIds.size());
+    Set<String> seen = new HashSet<>();
+    for (String hexId : hexIds) {
+      if (hexId != null && ObjectId.isValid(hexId) && seen.add(hexId)) ids.add(new ObjectId(hexId));
+    }
+    Map<String, T> found = new HashMap<>(ids.size() * 2);
+    for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+      List<ObjectId> batch = ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size()));
+      moviesCollection.withDocumentClass(RawBsonDocument.class).find(Filters.in("_id", batch)).projection(projection)
+              .forEach(raw -> found.put(rawId(raw), convert.apply(raw)));
+    }
+    List<T> movies = new ArrayList<>(found.size());
+    for (ObjectId id : ids) {
+      T movie = found.get(id.toHexString());
+      if (movie != null) movies.add(movie);
+    }
+    return movies;
+  }
+
+  /**
+   * Trims a list read with one document past the limit down to a page and sets the next cursor if anything was cut.
+   */
+  static MoviePage toMoviePage(List<Movie> movies, int limit) {
+    if (movies.size() <= limit) return new MoviePage(movies, null);
+    List<Movie> page = new ArrayList<>(movies.subList(0, limit));
+    return new MoviePage(page, PageCursor.encode(new ObjectId(page.get(limit - 1).getId())));
+  }
+
+  /**
+   * Builds a MoviePreview from a raw projection of title and plotSummary. RawBsonDocument keeps the bytes it was read
+   * from and only decodes the fields asked for.
+   */
+  static MoviePreview toMoviePreview(RawBsonDocument document) {
+    var m = new MoviePreview();
+    m.setId(rawId(document));
+    m.setTitle(rawString(document, "title"));
+    m.setSummary(rawString(document, "plotSummary"));
+    return m;
+  }
+
+  static String rawId(RawBsonDocument document) {
+    return document.getObjectId("_id").getValue().toHexString();
+  }
+
+  private static String rawString(RawBsonDocument document, String key) {
+    BsonValue value = document.get(key);
+    return value != null && value.isString() ? value.asString().getValue() : null;
+  }
+
   /**
    * <p>Get tags with filter operations allow for mutable searches within the database. These functions are called
    * internally by the <code>getXWithY</code> where X is a database entity and Y is a another database entity or field. </p>
@@ -413,84 +687,93 @@ public class DatabaseController {
    * method</p> to return all the movies that have the specified tag.
    */
   private static ArrayList<Tag> getTagsWithFilter(MongoCollection<Document> tagCollection, Bson filter) {
-    var ratings = tagCollection.find(filter).map(document -> {
-      var tag = new Tag();
-      tag.setTagName(document.getString("tagName"));
-      tag.setMovieTitle(document.getString("movieTitle"));
-      tag.setMovieId(document.getString("movieId"));
-      tag.setUsername(document.getString("username"));
-      tag.setPrivacy(document.getString("privacy"));
-      tag.setDateTimeCreated(document.get("dateTimeCreated").toString());
-      return tag;
-    });
+    var tags = tagCollection.withDocumentClass(RawBsonDocument.class).find(filter);
     var list = new ArrayList<Tag>();
-    ratings.forEach(list::add);
+    tags.forEach(raw -> list.add(raw.decode(TAG_DECODER)));
     return list;
   }
 
   /**
    * get[DatabaseEntity]With[Parameter] methods are used to retrieve database entities by using another entity or a
-   * given parameter. These make use of the get[DatabaseEntity]WithFilter methods.
+   * given parameter. These make use of the get[DatabaseEntity]WithFilter methods. List results are returned a page at
+   * a time, see PageCursor.
    *
    */
-  public List<Movie> getMoviesWithTag(String tag) {
+  public MoviePage getMoviesWithTag(String tag, int limit, ObjectId after, Bson projection) {
     var moviesCollection = getMovieCollection();
     var filter = Filters.eq("tagNames", tag);
-    return getMoviesWithFilter(moviesCollection, filter);
+    return getMoviePageWithFilter(moviesCollection, filter, limit, after, projection);
   }
 
-  public List<Movie> getMoviesWithRatingCategory(String ratingCategory) {
+  public MoviePage getMoviesWithRatingCategory(String ratingCategory, int limit, ObjectId after, Bson projection) {
     var moviesCollection = getMovieCollection();
     var filter = Filters.eq("ratingCategoryNames", ratingCategory);
-    return getMoviesWithFilter(moviesCollection, filter);
+    return getMoviePageWithFilter(moviesCollection, filter, limit, after, projection);
   }
 
-  public List<Movie> getMoviesWithRatingCategory(String ratingName, String upperbound) {
-    var ratingNameFilter = Filters.eq("ratingName", ratingName);
-    var upperboundFilter = Filters.eq("upperbound", upperbound);
-    var filter = Filters.and(ratingNameFilter, upperboundFilter);
+  /**
+   * Returns a page of the movies rated in the category on the given scale. The distinct movie ids past the cursor are
+   * found, sorted and cut to the page in one aggregation on the ratingName, upperbound, movieId index of the ratings.
+   */
+  public MoviePage getMoviesWithRatingCategory(String ratingName, String upperbound, int limit, ObjectId after,
+                                               Bson projection) {
     var ratings = getRatingCollection();
     var movieCollection = getMovieCollection();
-    MongoIterable<Movie> movieIterable = ratings.distinct("movieId",filter, String.class)
-    .map(movieId -> {
-      ObjectId movieIdObject = new ObjectId(movieId);
-      Document document = movieCollection.find(Filters.eq("_id", movieIdObject)).first();
-      var m = new Movie();
-      m.setDirector(document.getString("director"));
-      m.setRuntime(document.getString("runtime"));
-      m.setSummary(document.getString("plotSummary"));
-      m.setTitle(document.getString("title"));
-      m.setWriters(document.getString("writers"));
-      m.setReleaseDate(document.getString("releaseDate"));
-      m.setId(document.getObjectId("_id").toHexString());
-      return m;
-    });
-    List<Movie> movies = new ArrayList<>();
-    movieIterable.forEach(movies::add);
-    return movies;
+    // hex ids have a fixed length so they sort in the same order as the ObjectIds they represent
+    String afterHex = after == null ? "" : after.toHexString();
+    // ratings can outlive their movie, so keep reading ids until the page is full or the ids run out
+    List<Movie> movies = new ArrayList<>(limit + 1);
+    while (movies.size() <= limit) {
+      var filter = Filters.and(Filters.eq("ratingName", ratingName), Filters.eq("upperbound", upperbound),
+              Filters.gt("movieId", afterHex));
+      List<String> movieIds = new ArrayList<>();
+      ratings.aggregate(List.of(
+              Aggregates.match(filter),
+              Aggregates.sort(Sorts.ascending("movieId")),
+              Aggregates.group("$movieId"),
+              Aggregates.sort(Sorts.ascending("_id")),
+              Aggregates.limit(limit + 1 - movies.size())
+      )).forEach(group -> movieIds.add(group.getString("_id")));
+      if (movieIds.isEmpty()) break;
+      movies.addAll(getMoviesWithHexIds(movieCollection, movieIds, projection, raw -> raw.decode(MOVIE_DECODER)));
+      afterHex = movieIds.get(movieIds.size() - 1);
+    }
+    return toMoviePage(movies, limit);
   }
 
-  public List<Movie> getMoviesWithActor(String actorId) {
+  public MoviePage getMoviesWithActor(String actorId, int limit, ObjectId after, Bson projection) {
     var moviesCollection = getMovieCollection();
     var filter = Filters.eq("principalCast", actorId);
-    return getMoviesWithFilter(moviesCollection, filter);
+    return getMoviePageWithFilter(moviesCollection, filter, limit, after, projection);
   }
 
-  public List<Movie> getMoviesWithTitle(String title) {
+  /**
+   * Returns a page of the movies released in [from, to). The range is matched on the releaseDate index.
+   */
+  public MoviePage getMoviesReleasedBetween(Date from, Date to, int limit, ObjectId after, Bson projection) {
+    var moviesCollection = getMovieCollection();
+    var filter = Filters.and(Filters.gte("releaseDate", from), Filters.lt("releaseDate", to));
+    return getMoviePageWithFilter(moviesCollection, filter, limit, after, projection);
+  }
+
+  public MoviePage getMoviesWithTitle(String title, int limit, ObjectId after, Bson projection) {
     var moviesCollection = getMovieCollection();
     var filter = Filters.eq("title", title);
-    return getMoviesWithFilter(moviesCollection, filter);
+    return getMoviePageWithFilter(moviesCollection, filter, limit, after, projection);
   }
 
-  public Optional<Movie> getMovieWithMovieId(String hexID) {
+  public Optional<Movie> getMovieWithMovieId(String hexID, Bson projection) {
     var moviesCollection = getMovieCollection();
     ObjectId movieId = new ObjectId(hexID);
     var filter = Filters.eq("_id", movieId);
-    return getMoviesWithFilter(moviesCollection, filter).stream().findFirst();
+    return getMoviesWithFilter(moviesCollection, filter, projection).stream().findFirst();
   }
 
   public Optional<Movie> getMovieWithTitle(String title){
-    return getMoviesWithTitle(title).stream().findFirst();
+    var moviesCollection = getMovieCollection();
+    var filter = Filters.eq("title", title);
+    return Optional.ofNullable(moviesCollection.withDocumentClass(RawBsonDocument.class).find(filter)
+            .projection(MOVIE_PROJECTION).first()).map(raw -> raw.decode(MOVIE_DECODER));
   }
 
   /**
@@ -503,29 +786,117 @@ public class DatabaseController {
     ObjectId movieId = new ObjectId(hexID);
     return movieCollection.find(Filters.eq("_id", movieId)).first();
   }
+
   /**
-   * returns to numMovies most recent movies based on the year of their release. This is done by sorting the
-   * ordering the collection by date and returning the first numMovies.
+   * Returns the version of a movie, which every update of the movie document increments. Movies that were never
+   * updated have no version field and are version 0. Only the version is read, so this is much cheaper than reading
+   * the movie.
+   * @param hexID String representation of the hex id.
+   * @return version of the movie, null if the id is not valid or not found
+   */
+  public Long getMovieVersion(String hexID) {
+    if (!ObjectId.isValid(hexID)) return null;
+    Document movie = getMovieCollection().find(Filters.eq("_id", new ObjectId(hexID)))
+            .projection(Projections.include("version")).first();
+    if (movie == null) return null;
+    Number version = movie.get("version", Number.class);
+    return version == null ? 0L : version.longValue();
+  }
+
+  /**
+   * Counts the movies released in each decade, newest decade first. Movies without a release date, or whose release
+   * date is still an unmigrated string, are not counted.
+   */
+  public List<DecadeCount> getReleaseDecades() {
+    MongoCollection<Document> movieCollection = getMovieCollection();
+    Document year = new Document("$year", "$releaseDate");
+    Document decade = new Document("$subtract", Arrays.asList(year, new Document("$mod", Arrays.asList(year, 10))));
+    List<DecadeCount> decades = new ArrayList<>();
+    movieCollection.aggregate(
+      Arrays.asList(
+        Aggregates.match(Filters.type("releaseDate", BsonType.DATE_TIME)),
+        Aggregates.group(decade, Accumulators.sum("count", 1)),
+        Aggregates.sort(Sorts.descending("_id"))
+      )
+    ).forEach(doc -> decades.add(new DecadeCount(doc.getInteger("_id"), doc.getInteger("count"))));
+    return decades;
+  }
+
+  /*
+   * Release date migration
+   *
+   * Release dates used to be stored as free-form strings, which sorted lexicographically. They are now BSON dates.
+   */
+  private static final int MIGRATION_BATCH_SIZE = 500;
+
+  /**
+   * Rewrites release dates still stored as strings into BSON dates and their precision. Only string values are read
+   * and each update only applies if the value is unchanged, so running it again, or alongside a service inserting
+   * movies, is safe. Strings without a recognizable year are left alone.
+   *
+   * Dates converted before the precision was recorded get one as well: January 1st is taken to be a bare year, as
+   * the strings they came from almost always were, and any other day a day.
+   *
+   * @return the number of movies converted, the number of strings that could not be read and the number of dates
+   * given a precision
+   */
+  public int[] migrateReleaseDates() {
+    MongoCollection<Document> movieCollection = getMovieCollection();
+    int converted = 0;
+    int unreadable = 0;
+    List<UpdateOneModel<Document>> batch = new ArrayList<>();
+    for (Document doc : movieCollection.find(Filters.type("releaseDate", BsonType.STRING))
+            .projection(Projections.include("releaseDate"))) {
+      String releaseDate = doc.getString("releaseDate");
+      Date parsed = ReleaseDates.parse(releaseDate);
+      if (parsed == null) {
+        unreadable++;
+        continue;
+      }
+      batch.add(new UpdateOneModel<>(
+              Filters.and(Filters.eq("_id", doc.getObjectId("_id")), Filters.eq("releaseDate", releaseDate)),
+              Updates.combine(Updates.set("releaseDate", parsed),
+                      Updates.set(ReleaseDates.PRECISION_FIELD, ReleaseDates.precision(releaseDate)),
+                      Updates.inc("version", 1))));
+      if (batch.size() == MIGRATION_BATCH_SIZE) {
+        converted += movieCollection.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      converted += movieCollection.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+    }
+
+    Document releaseDay = new Document("$and", Arrays.asList(
+            new Document("$eq", Arrays.asList(new Document("$month", "$releaseDate"), 1)),
+            new Document("$eq", Arrays.asList(new Document("$dayOfMonth", "$releaseDate"), 1))));
+    Document precision = new Document("$cond", Arrays.asList(releaseDay, ReleaseDates.YEAR_PRECISION,
+            ReleaseDates.DAY_PRECISION));
+    Document version = new Document("$add", Arrays.asList(new Document("$ifNull", Arrays.asList("$version", 0)), 1));
+    Bson withoutPrecision = Filters.and(Filters.type("releaseDate", BsonType.DATE_TIME),
+            Filters.exists(ReleaseDates.PRECISION_FIELD, false));
+    long withPrecision = movieCollection.updateMany(withoutPrecision,
+            List.of(Updates.set(ReleaseDates.PRECISION_FIELD, precision), Updates.set("version", version)))
+            .getModifiedCount();
+    return new int[] { converted, unreadable, (int) withPrecision };
+  }
+
+  /**
+   * returns to numMovies most recent movies based on their release date. The sort walks the releaseDate index, so
+   * only the first numMovies entries are read.
    */
-  public List<Movie> getRecentReleaseMovies(int numMovies) {
-    // ArrayList to store Movie objects and eventually return
-    List<Movie> recentReleaseMovies = new ArrayList<>();
+  public List<MoviePreview> getRecentReleaseMovies(int numMovies) {
+    // ArrayList to store MoviePreview objects and eventually return
+    List<MoviePreview> recentReleaseMovies = new ArrayList<>();
     // get the movie collection
     MongoCollection<Document> movieCollection = getMovieCollection();
-    // sort the entire collection
-    MongoIterable<Document> sortedList = movieCollection.find().sort(descending("releaseDate")).limit(numMovies);
-
-    // for each of the documents make a new movie and add to the ArrayList to return
-    for ( Document d : sortedList) {
-      // create the new movie object
-      Movie m = new Movie();
-      // set the needed information from movie
-      m.setId(d.getObjectId("_id").toHexString());
-      m.setTitle(d.getString("title"));
-      m.setSummary(d.getString("plotSummary"));
-
-      // add the movie to the list to return
-      recentReleaseMovies.add(m);
+    // newest release dates first
+    MongoIterable<RawBsonDocument> sortedList = movieCollection.withDocumentClass(RawBsonDocument.class).find()
+            .projection(PREVIEW_PROJECTION).sort(descending("releaseDate")).limit(numMovies);
+
+    // for each of the documents make a new movie preview and add to the ArrayList to return
+    for (RawBsonDocument d : sortedList) {
+      recentReleaseMovies.add(toMoviePreview(d));
     }
 
     return recentReleaseMovies;
@@ -537,29 +908,19 @@ public class DatabaseController {
    * @param numMovies the specified number of movies to be returned
    * @return A list of movies in descending order of most reviewed.
    */
-  public List<Movie> getMoviesWithMostReviews(int numMovies) {
+  public List<MoviePreview> getMoviesWithMostReviews(int numMovies) {
     MongoCollection<Document> reviews = getReviewCollection();
     MongoCollection<Document> movieCollection = getMovieCollection();
-    MongoIterable<Movie> reviewsAggregated = reviews.aggregate(
+    List<String> movieIds = new ArrayList<>(numMovies);
+    reviews.aggregate(
       Arrays.asList(
         Aggregates.group("$movieId", Accumulators.sum("count", 1)),
         Aggregates.sort(Sorts.descending("count")),
         Aggregates.limit(numMovies)
       )
-    ).map(doc -> {
-      Movie movie = new Movie();
-      movie.setId(doc.getString("_id"));
-      ObjectId id = new ObjectId(movie.getId());
-      // get the movie that matches the movie id
-      Document movieDoc = movieCollection.find(Filters.eq("_id", id)).first();
-      // set the needed information from movie
-      movie.setTitle(movieDoc.getString("title"));
-      movie.setSummary(movieDoc.getString("plotSummary"));
-      return movie;
-    });
-    List<Movie> movies = new ArrayList<>();
-    reviewsAggregated.forEach(movies::add);
-    return movies;
+    ).forEach(doc -> movieIds.add(doc.getString("_id")));
+    // get the movies that match the movie ids, most reviewed first
+    return getMoviesWithHexIds(movieCollection, movieIds, PREVIEW_PROJECTION, DatabaseController::toMoviePreview);
   }
 
   /**
@@ -569,6 +930,10 @@ public class DatabaseController {
    * @return a Rating object with the most popular rating name and upperbound and its average.
    */
   public Rating getMostPopularAggregatedRatingForMovie(String movieId) {
+    return mostPopularRatings.get(movieId, () -> aggregateMostPopularRatingForMovie(movieId));
+  }
+
+  private Rating aggregateMostPopularRatingForMovie(String movieId) {
     MongoCollection<Document> ratingCollection = getRatingCollection();
     // get the most popular rating category name for the movie
     Document ratingNameDoc = ratingCollection.aggregate(
@@ -599,7 +964,7 @@ public class DatabaseController {
     int userRatingSum = 0;
     // using the most popular name and most popular upperbound go through and collect the sum of all the user ratings
     // gets the most popular upperbound for the category
-    for (Document doc : ratingCollection.find(Filters.and(Filters.eq("movieId", movieId), Filters.eq("ratingName", mostPopularCategoryName), Filters.eq("upperbound", mostPopularCategoryUpperbound)))) {
+    for (Document doc : ratingCollection.find(Filters.and(Filters.eq("movieId", movieId), Filters.eq("ratingName", mostPopularCategoryName), Filters.eq("upperbound", mostPopularCategoryUpperbound))).projection(Projections.include("userRating"))) {
       userRatingSum = userRatingSum + Integer.parseInt(doc.getString("userRating"));
     }
     int count = ratingScaleDoc.getInteger("count");
@@ -624,8 +989,15 @@ public class DatabaseController {
    * @return a list of tags length three
    */
   public List<Tag> getThreeTags(String movieId) {
-    List<Tag> tags = getTagsByMovieId(movieId);
-    return tags.subList(0, tags.size() < 3 ? tags.size() : 3);
+    // only the names are shown on the preview so only the names are read
+    var tags = new ArrayList<Tag>(3);
+    getTagCollection().find(Filters.eq("movieId", movieId)).projection(Projections.include("tagName")).limit(3)
+            .forEach(document -> {
+              var tag = new Tag();
+              tag.setTagName(document.getString("tagName"));
+              tags.add(tag);
+            });
+    return tags;
   }
 
   /**
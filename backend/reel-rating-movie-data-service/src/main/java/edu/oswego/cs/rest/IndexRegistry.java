@@ -0,0 +1,61 @@
+package edu.oswego.cs.rest;
+
+import edu.oswego.cs.mongo.IndexSpec;
+import edu.oswego.cs.mongo.MongoIndexes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+/**
+ * Indexes behind the movie list filters and the tag, rating and review lookups in DatabaseController.
+ */
+@Startup
+@Singleton
+public class IndexRegistry {
+
+  static final List<IndexSpec> INDEXES = List.of(
+          IndexSpec.ascending("movies", "tagNames", "_id"),
+          IndexSpec.ascending("movies", "ratingCategoryNames", "_id"),
+          IndexSpec.ascending("movies", "principalCast", "_id"),
+          IndexSpec.ascending("movies", "title", "_id"),
+          IndexSpec.descending("movies", "releaseDate"),
+          IndexSpec.ascending("ratings", "movieId", "ratingName", "upperbound"),
+          IndexSpec.ascending("ratings", "ratingName", "upperbound", "movieId"),
+          IndexSpec.ascending("ratings", "username", "movieId"),
+          IndexSpec.ascending("tags", "movieId"),
+          IndexSpec.ascending("tags", "tagName"),
+          IndexSpec.ascending("tags", "username", "movieId", "tagName"),
+          IndexSpec.ascending("tags", "movieTitle", "username", "tagName"),
+          IndexSpec.ascending("reviews", "movieId")
+  );
+
+  @Resource
+  private ManagedExecutorService executor;
+
+  @Inject
+  DatabaseController databaseController;
+
+  private final MongoIndexes indexes = new MongoIndexes(INDEXES);
+
+  @PostConstruct
+  public void ensureIndexes() {
+    executor.submit(() -> indexes.ensure(databaseController.getMovieDatabase()));
+  }
+
+  /**
+   * @return the declared indexes and their state, reported by IndexReadinessCheck
+   */
+  @Produces
+  @Lock(LockType.READ)
+  public MongoIndexes getIndexes() {
+    return indexes;
+  }
+}
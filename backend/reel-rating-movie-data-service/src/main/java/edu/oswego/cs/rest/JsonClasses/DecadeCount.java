@@ -0,0 +1,22 @@
+package edu.oswego.cs.rest.JsonClasses;
+
+public class DecadeCount {
+  private int decade;
+  private long count;
+
+  // constructor
+  public DecadeCount() {}
+
+  public DecadeCount(int decade, long count) {
+    this.decade = decade;
+    this.count = count;
+  }
+
+  // getters and setters
+  // first year of the decade, for example 1990
+  public int getDecade() { return decade; }
+  public void setDecade(int decade) { this.decade = decade; }
+
+  public long getCount() { return count; }
+  public void setCount(long count) { this.count = count; }
+}
@@ -0,0 +1,24 @@
+package edu.oswego.cs.rest.JsonClasses;
+
+import java.util.List;
+
+public class MoviePage {
+  private List<Movie> movies;
+  private String nextCursor;
+
+  // constructor
+  public MoviePage() {}
+
+  public MoviePage(List<Movie> movies, String nextCursor) {
+    this.movies = movies;
+    this.nextCursor = nextCursor;
+  }
+
+  // getters and setters
+  public List<Movie> getMovies() { return movies; }
+  public void setMovies(List<Movie> movies) { this.movies = movies; }
+
+  // opaque cursor to pass as "after" to get the next page, null on the last page
+  public String getNextCursor() { return nextCursor; }
+  public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
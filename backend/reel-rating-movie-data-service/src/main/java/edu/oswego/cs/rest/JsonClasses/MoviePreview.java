@@ -0,0 +1,42 @@
+package edu.oswego.cs.rest.JsonClasses;
+
+import java.util.ArrayList;
+
+/**
+ * The fields needed to draw a movie card on the home page. List-heavy endpoints return this instead of Movie so the
+ * full movie document is never read or serialized for them.
+ */
+public class MoviePreview {
+  private String id;
+  private String title;
+  private String summary;
+  private String mostPopularRatingCategory;
+  private String mostPopRatingAvg;
+  private String mostPopRatingUpperbound;
+  private ArrayList<String> attachedTags;
+
+  // constructor
+  public MoviePreview() {}
+
+  // getters and setters
+  public String getId() { return id; }
+  public void setId(String id) { this.id = id; }
+
+  public String getTitle() { return title; }
+  public void setTitle(String title) { this.title = title; }
+
+  public String getSummary() { return summary; }
+  public void setSummary(String summary) { this.summary = summary; }
+
+  public String getMostPopularRatingCategory() { return mostPopularRatingCategory; }
+  public void setMostPopularRatingCategory(String mostPopularRatingCategory){ this.mostPopularRatingCategory = mostPopularRatingCategory; }
+
+  public String getMostPopRatingAvg() { return mostPopRatingAvg; }
+  public void setMostPopRatingAvg(String mostPopRatingAvg) { this.mostPopRatingAvg = mostPopRatingAvg; }
+
+  public String getMostPopRatingUpperBound() { return mostPopRatingUpperbound; }
+  public void setMostPopRatingUpperBound(String mostPopRatingUpperBound) { this.mostPopRatingUpperbound = mostPopRatingUpperBound; }
+
+  public ArrayList<String> getAttachedTags() { return attachedTags; }
+  public void setAttachedTags(ArrayList<String> attachedTags) { this.attachedTags = attachedTags; }
+}
@@ -4,31 +4,68 @@ import edu.oswego.cs.rest.JsonClasses.Tag;
 import edu.oswego.cs.rest.JsonClasses.Movie;
 import edu.oswego.cs.rest.JsonClasses.Rating;
 import edu.oswego.cs.rest.JsonClasses.JSession;
+import edu.oswego.cs.rest.JsonClasses.MoviePreview;
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.ibm.websphere.security.jwt.JwtConsumer;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @Path("/")
 @RequestScoped
 public class MovieDataService {
+
+  @Inject
+  DatabaseController dbc;
+
+  @Inject
+  ReactiveDatabaseController reactiveDbc;
+
+  // read endpoints answer without holding a request thread while the session is checked and Mongo is queried
+  @Inject
+  @ConfigProperty(name = "mongo.reactive.enabled", defaultValue = "false")
+  boolean reactiveReads;
+
+  @Inject
+  BlockingExecutor blockingExecutor;
+
+  // seconds a browser may reuse a GET response without asking, 0 to have it revalidate every time
+  @Inject
+  @ConfigProperty(name = "http.cache.maxAgeSeconds", defaultValue = "0")
+  int cacheMaxAgeSeconds;
+
+  @Inject
+  CardEnricher cardEnricher;
   
   String AuthServiceUrl = System.getenv("AUTH_SERVICE_URL");
 
@@ -56,6 +93,96 @@ public class MovieDataService {
     return username;
   }
 
+  /**
+   * Non-blocking version of getUsername. The request to the auth service is sent with the reactive client API, so
+   * no thread waits for the reply.
+   *
+   * @param sessionId
+   * @return stage completing with the username, or null if the session does not belong to a user
+   */
+  public CompletionStage<String> getUsernameAsync(String sessionId) {
+    Client authClient = ClientBuilder.newClient();
+    WebTarget target = authClient.target(AuthServiceUrl + "/reel-rating-auth-service/jwt/generate/" + sessionId);
+    return target.request().rx().get().thenApply(response -> {
+      String value = response.readEntity(String.class);
+      if (value == null || value.isEmpty()) {
+        return null;
+      }
+      try {
+        JwtConsumer jwtConsumer = JwtConsumer.create("reel_rating_token");
+        return jwtConsumer.createJwt(value).getClaims().getAllClaims().get("upn").toString();
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }).whenComplete((username, e) -> authClient.close());
+  }
+
+  /**
+   * Runs a read endpoint in one of three modes. With mongo.reactive.enabled the session check and the query are both
+   * non-blocking and the request thread is handed back until the result is ready. With threads.virtual.enabled the
+   * blocking session check and read run together on a virtual thread, which is cheap to park while they wait.
+   * Otherwise the blocking read runs on the request thread. In every mode a session that does not belong to a user is
+   * answered with 401.
+   *
+   * @param sessionId session of the requester
+   * @param blockingRead read through DatabaseController
+   * @param reactiveRead the same read through ReactiveDatabaseController
+   * @return stage completing with the response
+   */
+  private <T> CompletionStage<Response> read(String sessionId, Callable<T> blockingRead,
+                                             Supplier<CompletionStage<T>> reactiveRead) throws Exception {
+    if (reactiveReads) {
+      return getUsernameAsync(sessionId).thenCompose(requesterUsername -> requesterUsername == null
+              ? CompletableFuture.completedFuture(Response.status(Response.Status.UNAUTHORIZED).build())
+              : reactiveRead.get().thenApply(result -> Response.ok(result).build()));
+    }
+    if (blockingExecutor.isVirtual()) {
+      return blockingExecutor.supply(() -> blockingRead(sessionId, blockingRead));
+    }
+    return CompletableFuture.completedFuture(blockingRead(sessionId, blockingRead));
+  }
+
+  private <T> Response blockingRead(String sessionId, Callable<T> read) throws Exception {
+    if (getUsername(sessionId) == null) {
+      return Response.status(Response.Status.UNAUTHORIZED).build();
+    }
+    return Response.ok(read.call()).build();
+  }
+
+  /**
+   * Runs a GET read endpoint. The session comes from the JSESSIONID header instead of a body, so browsers can cache
+   * the response. After the session check only the version of the data is read; if the client's If-None-Match still
+   * matches it, 304 is sent without running the read. The version is read before the data, so a write in between
+   * at worst sends new data under the old tag and the next request fetches it again. Runs on a virtual thread with
+   * threads.virtual.enabled, otherwise on the request thread.
+   *
+   * @param sessionId session of the requester
+   * @param ifNoneMatch tags of the copies the client has, may be null
+   * @param version reads the tag of the data for the requester's username, null if there is no data (404)
+   * @param read reads the data for the requester's username
+   * @return stage completing with the response
+   */
+  private <T> CompletionStage<Response> conditionalRead(String sessionId, String ifNoneMatch,
+                                                        Function<String, EntityTag> version,
+                                                        Function<String, T> read) throws Exception {
+    Callable<Response> respond = () -> {
+      String requesterUsername = sessionId == null ? null : getUsername(sessionId);
+      if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
+      EntityTag tag = version.apply(requesterUsername);
+      if (tag == null) { return Response.status(Response.Status.NOT_FOUND).build(); }
+      Response.ResponseBuilder response = EntityTags.matches(ifNoneMatch, tag)
+              ? Response.notModified(tag)
+              : Response.ok(read.apply(requesterUsername)).tag(tag);
+      return response.cacheControl(EntityTags.cacheControl(cacheMaxAgeSeconds))
+              .header(HttpHeaders.VARY, "JSESSIONID")
+              .build();
+    };
+    if (blockingExecutor.isVirtual()) {
+      return blockingExecutor.supply(respond);
+    }
+    return CompletableFuture.completedFuture(respond.call());
+  }
+
   /*
    * Movie Create Endpoints
    *
@@ -69,62 +196,96 @@ public class MovieDataService {
     String sessionId = movie.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController db = new DatabaseController();
-    db.createMovie(movie.getTitle(), movie.getDirector(), movie.getReleaseDate(), movie.getRuntime(), movie.getWriters(), movie.getSummary());
+    if (movie.getReleaseDate() != null && ReleaseDates.parse(movie.getReleaseDate()) == null) {
+      return Response.status(Status.BAD_REQUEST).build();
+    }
+    dbc.createMovie(movie.getTitle(), movie.getDirector(), movie.getReleaseDate(), movie.getRuntime(), movie.getWriters(), movie.getSummary());
     return Response.ok().build();
   }
 
   /*
    * Movie Get Endpoints
    *
+   * Endpoints returning a list of movies return a MoviePage. They take an optional limit (default 50, at most 200) and
+   * the nextCursor of the previous page as after. Endpoints returning Movie objects take an optional comma separated
+   * fields list, for example fields=title,releaseDate, to return only those properties.
+   *
+   * Endpoints returning a CompletionStage go through read, see there for the reactive and virtual thread modes. GET
+   * endpoints take the session in a JSESSIONID header and answer with ETags, see conditionalRead.
+   *
    * getMoviesWithTitle
    * getMovieWithMovieId
    * getMoviesWithTagName
    * getMoviesWithRatingCategoryName
    * getMoviesWithActor
    * getMoviesWithRatingCategory
+   * getMoviesReleasedBetween
    *
    * getMoviesWithMostReviews
    * getRecentReleaseMovies
+   * getReleaseDecades
    *
    */
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/getMoviesWithTitle/{title}")
-  public Response getMoviesWithTitle(@Context HttpServletRequest request, @PathParam("title") String title, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Movie> movies = dbc.getMoviesWithTitle(title);
-    return Response.ok(movies).build();
+  public CompletionStage<Response> getMoviesWithTitle(@Context HttpServletRequest request, @PathParam("title") String title, @QueryParam("limit") Integer limit, @QueryParam("after") String after, @QueryParam("fields") String fields, JSession jsession) throws Exception {
+    ObjectId afterId;
+    Bson projection;
+    try {
+      afterId = PageCursor.decode(after);
+      projection = DatabaseController.movieProjection(fields);
+    } catch (IllegalArgumentException e) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    int pageLimit = PageCursor.limit(limit);
+    return read(jsession.getJSESSIONID(),
+            () -> dbc.getMoviesWithTitle(title, pageLimit, afterId, projection),
+            () -> reactiveDbc.getMoviesWithTitle(title, pageLimit, afterId, projection));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/getMovieWithMovieId/{movieId}")
-  public Response getMovieWithMovieId(@Context HttpServletRequest request, @PathParam("movieId") String movieId, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    Optional<Movie> movie = dbc.getMovieWithMovieId(movieId);
-    return Response.ok(movie).build();
+  public CompletionStage<Response> getMovieWithMovieId(@Context HttpServletRequest request, @PathParam("movieId") String movieId, @QueryParam("fields") String fields, JSession jsession) throws Exception {
+    // checked here, a bad id would otherwise fail inside the read and come back as 500
+    if (!ObjectId.isValid(movieId)) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    Bson projection;
+    try { projection = DatabaseController.movieProjection(fields); } catch (IllegalArgumentException e) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    return read(jsession.getJSESSIONID(),
+            () -> dbc.getMovieWithMovieId(movieId, projection),
+            () -> reactiveDbc.getMovieWithMovieId(movieId, projection));
+  }
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/movie/getMovieWithMovieId/{movieId}")
+  public CompletionStage<Response> getMovieWithMovieId(@HeaderParam("JSESSIONID") String sessionId, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch, @PathParam("movieId") String movieId, @QueryParam("fields") String fields) throws Exception {
+    Bson projection;
+    try { projection = DatabaseController.movieProjection(fields); } catch (IllegalArgumentException e) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    return conditionalRead(sessionId, ifNoneMatch,
+            requesterUsername -> {
+              Long version = dbc.getMovieVersion(movieId);
+              return version == null ? null : EntityTags.weak(version);
+            },
+            requesterUsername -> dbc.getMovieWithMovieId(movieId, projection).orElse(null));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/getMoviesWithTagName/{tagName}")
-  public Response getMoviesWithTagName(@Context HttpServletRequest request, @PathParam("tagName") String tagName, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Movie> movies = dbc.getMoviesWithTag(tagName);
-    return Response.ok(movies).build();
+  public CompletionStage<Response> getMoviesWithTagName(@Context HttpServletRequest request, @PathParam("tagName") String tagName, @QueryParam("limit") Integer limit, @QueryParam("after") String after, @QueryParam("fields") String fields, JSession jsession) throws Exception {
+    ObjectId afterId;
+    Bson projection;
+    try {
+      afterId = PageCursor.decode(after);
+      projection = DatabaseController.movieProjection(fields);
+    } catch (IllegalArgumentException e) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    int pageLimit = PageCursor.limit(limit);
+    return read(jsession.getJSESSIONID(),
+            () -> dbc.getMoviesWithTag(tagName, pageLimit, afterId, projection),
+            () -> reactiveDbc.getMoviesWithTag(tagName, pageLimit, afterId, projection));
   }
 
 
@@ -132,105 +293,139 @@ public class MovieDataService {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/getMoviesWithRatingCategoryName/{ratingCategoryName}")
-  public Response getMoviesWithRatingCategoryName(@Context HttpServletRequest request, @PathParam("ratingCategoryName") String ratingCategoryName, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Movie> movies = dbc.getMoviesWithRatingCategory(ratingCategoryName);
-    return Response.ok(movies).build();
+  public CompletionStage<Response> getMoviesWithRatingCategoryName(@Context HttpServletRequest request, @PathParam("ratingCategoryName") String ratingCategoryName, @QueryParam("limit") Integer limit, @QueryParam("after") String after, @QueryParam("fields") String fields, JSession jsession) throws Exception {
+    ObjectId afterId;
+    Bson projection;
+    try {
+      afterId = PageCursor.decode(after);
+      projection = DatabaseController.movieProjection(fields);
+    } catch (IllegalArgumentException e) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    int pageLimit = PageCursor.limit(limit);
+    return read(jsession.getJSESSIONID(),
+            () -> dbc.getMoviesWithRatingCategory(ratingCategoryName, pageLimit, afterId, projection),
+            () -> reactiveDbc.getMoviesWithRatingCategory(ratingCategoryName, pageLimit, afterId, projection));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/getMoviesWithActor/{actorId}")
-  public Response getMoviesWithActor(@Context HttpServletRequest request, @PathParam("actorId") String actorId, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Movie> movies = dbc.getMoviesWithActor(actorId);
-    return Response.ok(movies).build();
+  public CompletionStage<Response> getMoviesWithActor(@Context HttpServletRequest request, @PathParam("actorId") String actorId, @QueryParam("limit") Integer limit, @QueryParam("after") String after, @QueryParam("fields") String fields, JSession jsession) throws Exception {
+    ObjectId afterId;
+    Bson projection;
+    try {
+      afterId = PageCursor.decode(after);
+      projection = DatabaseController.movieProjection(fields);
+    } catch (IllegalArgumentException e) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    int pageLimit = PageCursor.limit(limit);
+    return read(jsession.getJSESSIONID(),
+            () -> dbc.getMoviesWithActor(actorId, pageLimit, afterId, projection),
+            () -> reactiveDbc.getMoviesWithActor(actorId, pageLimit, afterId, projection));
   }
 
+  /**
+   * Returns the movies released from the start of the from period up to the end of the to period, so
+   * <code>/1990/1999</code> is every movie of the 1990s. Both accept yyyy, yyyy-MM or yyyy-MM-dd.
+   */
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
-  @Path("/movie/getMoviesWithMostReviews")
-  public Response getMoviesWithMostReviews(@Context HttpServletRequest request, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    int numMovies = 12;
-    List<Movie> movies = dbc.getMoviesWithMostReviews(numMovies);
-    for ( Movie m : movies ) {
-      // get the most popular rating and average for each movie
-      Rating r = dbc.getMostPopularAggregatedRatingForMovie(m.getId());
+  @Path("/movie/getMoviesReleasedBetween/{from}/{to}")
+  public CompletionStage<Response> getMoviesReleasedBetween(@Context HttpServletRequest request, @PathParam("from") String from, @PathParam("to") String to, @QueryParam("limit") Integer limit, @QueryParam("after") String after, @QueryParam("fields") String fields, JSession jsession) throws Exception {
+    Date fromDate = ReleaseDates.parse(from);
+    Date toDate = ReleaseDates.parseEnd(to);
+    if (fromDate == null || toDate == null) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    ObjectId afterId;
+    Bson projection;
+    try {
+      afterId = PageCursor.decode(after);
+      projection = DatabaseController.movieProjection(fields);
+    } catch (IllegalArgumentException e) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    int pageLimit = PageCursor.limit(limit);
+    return read(jsession.getJSESSIONID(),
+            () -> dbc.getMoviesReleasedBetween(fromDate, toDate, pageLimit, afterId, projection),
+            () -> reactiveDbc.getMoviesReleasedBetween(fromDate, toDate, pageLimit, afterId, projection));
+  }
 
-      // set the appropriate fields for each movie
-      m.setMostPopularRatingCategory(r.getRatingName());
-      m.setMostPopRatingUpperBound(r.getUpperbound());
-      m.setMostPopRatingAvg(r.getUserRating());
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/movie/getReleaseDecades")
+  public CompletionStage<Response> getReleaseDecades(@Context HttpServletRequest request, JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(), dbc::getReleaseDecades, reactiveDbc::getReleaseDecades);
+  }
 
-      // names of three tags from the movie
-      List<Tag> tagList = dbc.getThreeTags(m.getId());
-      ArrayList<String> tagNameList = new ArrayList<>();
-      for (Tag t: tagList ) {
-        tagNameList.add(t.getTagName());
-      }
-      m.setAttachedTags(tagNameList);
-    }
-    return Response.ok(movies).build();
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/movie/getMoviesWithMostReviews")
+  public CompletionStage<Response> getMoviesWithMostReviews(@Context HttpServletRequest request, JSession jsession) throws Exception {
+    int numMovies = 12;
+    return read(jsession.getJSESSIONID(),
+            () -> withCardDetails(dbc.getMoviesWithMostReviews(numMovies)),
+            () -> reactiveDbc.getMoviesWithMostReviews(numMovies).thenCompose(this::withCardDetailsAsync));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/getRecentReleaseMovies")
-  public Response getRecentReleaseMovies(@Context HttpServletRequest request, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
+  public CompletionStage<Response> getRecentReleaseMovies(@Context HttpServletRequest request, JSession jsession) throws Exception {
     int numMovies = 12;
-    // get a List of the #numMovies most recent releases.
-    List<Movie> movies = dbc.getRecentReleaseMovies(numMovies);
-    for ( Movie m : movies ) {
-      // get the most popular rating and average for each movie
-      Rating r = dbc.getMostPopularAggregatedRatingForMovie(m.getId());
-
-      // set the appropriate fields for each movie
-      //Do this if not null, do nothing if null.
-      if (r != null) {
-        m.setMostPopularRatingCategory(r.getRatingName());
-        m.setMostPopRatingUpperBound(r.getUpperbound());
-        m.setMostPopRatingAvg(r.getUserRating());
-      }
+    // the #numMovies most recent releases
+    return read(jsession.getJSESSIONID(),
+            () -> withCardDetails(dbc.getRecentReleaseMovies(numMovies)),
+            () -> reactiveDbc.getRecentReleaseMovies(numMovies).thenCompose(this::withCardDetailsAsync));
+  }
 
-      // names of three tags from the movie
-      List<Tag> tagList = dbc.getThreeTags(m.getId());
-      ArrayList<String> tagNameList = new ArrayList<>();
-      for (Tag t: tagList ) {
-        tagNameList.add(t.getTagName());
-      }
-      m.setAttachedTags(tagNameList);
+  // most popular rating and three tag names of every movie, read for all movies at once
+  private List<MoviePreview> withCardDetails(List<MoviePreview> movies) {
+    cardEnricher.enrich(movies, this::getCardDetails, MovieDataService::setCardDetails);
+    return movies;
+  }
+
+  // the CardEnricher waits for its lookups, so in the reactive mode it runs on the BlockingExecutor, not a driver thread
+  private CompletionStage<List<MoviePreview>> withCardDetailsAsync(List<MoviePreview> movies) {
+    return blockingExecutor.supply(() -> withCardDetails(movies));
+  }
+
+  // details of a movie preview card that are read from other collections
+  private record CardDetails(Rating rating, List<Tag> tags) {}
+
+  private CardDetails getCardDetails(MoviePreview m) {
+    return new CardDetails(dbc.getMostPopularAggregatedRatingForMovie(m.getId()), dbc.getThreeTags(m.getId()));
+  }
+
+  private static void setCardDetails(MoviePreview m, CardDetails details) {
+    // movies without ratings have no rating to show
+    Rating r = details.rating();
+    if (r != null) {
+      m.setMostPopularRatingCategory(r.getRatingName());
+      m.setMostPopRatingUpperBound(r.getUpperbound());
+      m.setMostPopRatingAvg(r.getUserRating());
+    }
+    ArrayList<String> tagNameList = new ArrayList<>();
+    for (Tag t : details.tags()) {
+      tagNameList.add(t.getTagName());
     }
-    return Response.ok(movies).build();
+    m.setAttachedTags(tagNameList);
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/getMoviesWithRatingCategory")
-  public Response getMoviesWithRatingCategory(@Context HttpServletRequest request, Rating rating) throws Exception {
-    String sessionId = rating.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Movie> movies = dbc.getMoviesWithRatingCategory(rating.getRatingName(), rating.getUpperbound());
-    return Response.ok(movies).build();
+  public CompletionStage<Response> getMoviesWithRatingCategory(@Context HttpServletRequest request, @QueryParam("limit") Integer limit, @QueryParam("after") String after, @QueryParam("fields") String fields, Rating rating) throws Exception {
+    ObjectId afterId;
+    Bson projection;
+    try {
+      afterId = PageCursor.decode(after);
+      projection = DatabaseController.movieProjection(fields);
+    } catch (IllegalArgumentException e) { return CompletableFuture.completedFuture(Response.status(Status.BAD_REQUEST).build()); }
+    int pageLimit = PageCursor.limit(limit);
+    return read(rating.getJSESSIONID(),
+            () -> dbc.getMoviesWithRatingCategory(rating.getRatingName(), rating.getUpperbound(), pageLimit, afterId, projection),
+            () -> reactiveDbc.getMoviesWithRatingCategory(rating.getRatingName(), rating.getUpperbound(), pageLimit, afterId, projection));
   }
   /*
    * Image methods
@@ -251,7 +446,6 @@ public class MovieDataService {
   public Response getMovieImage(@Context HttpServletRequest request, @PathParam("movieId") String movieId) throws Exception {
     //String requesterUsername = getUsername(request);
     //if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     String imageId = dbc.getMovieImageId(movieId);
     if (imageId == null) return Response.status(Status.NOT_FOUND).build();
     byte[] image = dbc.getStockImage(imageId);
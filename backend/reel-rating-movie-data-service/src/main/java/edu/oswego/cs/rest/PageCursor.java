@@ -0,0 +1,49 @@
+package edu.oswego.cs.rest;
+
+import org.bson.types.ObjectId;
+
+import java.util.Base64;
+
+/**
+ * Opaque cursors for keyset pagination. A cursor is the url-safe base64 form of the <code>_id</code> of the last
+ * document on a page. Pages are sorted by <code>_id</code>, so the next page is every match with a greater
+ * <code>_id</code>, which an index walk finds without skipping over the earlier pages.
+ */
+public final class PageCursor {
+  // page size used when the client does not send a limit
+  public static final int DEFAULT_LIMIT = 50;
+  // largest page a client may request
+  public static final int MAX_LIMIT = 200;
+
+  private PageCursor() {}
+
+  /**
+   * Clamps a requested page size to 1..MAX_LIMIT, using DEFAULT_LIMIT when none is given.
+   * @param limit page size sent by the client, may be null
+   * @return the page size to use
+   */
+  public static int limit(Integer limit) {
+    if (limit == null) return DEFAULT_LIMIT;
+    return Math.max(1, Math.min(MAX_LIMIT, limit));
+  }
+
+  /**
+   * @param lastId <code>_id</code> of the last document on the page
+   * @return opaque cursor for the page after it
+   */
+  public static String encode(ObjectId lastId) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toByteArray());
+  }
+
+  /**
+   * @param cursor cursor sent by the client, may be null for the first page
+   * @return the <code>_id</code> the next page starts after, or null for the first page
+   * @throws IllegalArgumentException if the cursor was not created by encode
+   */
+  public static ObjectId decode(String cursor) {
+    if (cursor == null || cursor.isEmpty()) return null;
+    byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+    if (bytes.length != 12) throw new IllegalArgumentException("Invalid page cursor");
+    return new ObjectId(bytes);
+  }
+}
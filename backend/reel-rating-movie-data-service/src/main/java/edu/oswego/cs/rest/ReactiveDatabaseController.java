@@ -0,0 +1,208 @@
+package edu.oswego.cs.rest;
+
+import edu.oswego.cs.rest.JsonClasses.DecadeCount;
+import edu.oswego.cs.rest.JsonClasses.Movie;
+import edu.oswego.cs.rest.JsonClasses.MoviePage;
+import edu.oswego.cs.rest.JsonClasses.MoviePreview;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Non-blocking versions of the DatabaseController reads, built on the reactive streams driver. Each method returns as
+ * soon as the query is sent; the stage completes on a driver thread once the documents are read. The queries, filters
+ * and decoders are the same as the blocking reads, so both return the same results.
+ */
+@ApplicationScoped
+public class ReactiveDatabaseController {
+  @Inject
+  MongoDatabase movieDatabase;
+
+  private MongoCollection<RawBsonDocument> movieCollection;
+  private MongoCollection<Document> ratingCollection;
+  private MongoCollection<Document> reviewCollection;
+
+  @PostConstruct
+  void initCollections() {
+    movieCollection = movieDatabase.getCollection("movies", RawBsonDocument.class);
+    ratingCollection = movieDatabase.getCollection("ratings");
+    reviewCollection = movieDatabase.getCollection("reviews");
+  }
+
+  /**
+   * Returns one page of the movies matching the filter, see DatabaseController.getMoviePageWithFilter.
+   */
+  private CompletionStage<MoviePage> getMoviePageWithFilter(Bson filter, int limit, ObjectId after, Bson projection) {
+    Bson pageFilter = after == null ? filter : Filters.and(filter, Filters.gt("_id", after));
+    return Publishers.toList(movieCollection.find(pageFilter).projection(projection)
+                    .sort(Sorts.ascending("_id")).limit(limit + 1))
+            .thenApply(documents -> {
+              List<Movie> movies = new ArrayList<>(documents.size());
+              documents.forEach(raw -> movies.add(raw.decode(DatabaseController.MOVIE_DECODER)));
+              return DatabaseController.toMoviePage(movies, limit);
+            });
+  }
+
+  public CompletionStage<MoviePage> getMoviesWithTag(String tag, int limit, ObjectId after, Bson projection) {
+    return getMoviePageWithFilter(Filters.eq("tagNames", tag), limit, after, projection);
+  }
+
+  public CompletionStage<MoviePage> getMoviesWithRatingCategory(String ratingCategory, int limit, ObjectId after,
+                                                                Bson projection) {
+    return getMoviePageWithFilter(Filters.eq("ratingCategoryNames", ratingCategory), limit, after, projection);
+  }
+
+  /**
+   * Returns a page of the movies rated in the category on the given scale, see
+   * DatabaseController.getMoviesWithRatingCategory(String, String, int, ObjectId, Bson).
+   */
+  public CompletionStage<MoviePage> getMoviesWithRatingCategory(String ratingName, String upperbound, int limit,
+                                                                ObjectId after, Bson projection) {
+    String afterHex = after == null ? "" : after.toHexString();
+    return getRatedMovies(ratingName, upperbound, limit, afterHex, projection, new ArrayList<>(limit + 1))
+            .thenApply(movies -> DatabaseController.toMoviePage(movies, limit));
+  }
+
+  // ratings can outlive their movie, so ids are read again past the last one until the page is full or they run out
+  private CompletionStage<List<Movie>> getRatedMovies(String ratingName, String upperbound, int limit,
+                                                      String afterHex, Bson projection, List<Movie> movies) {
+    var filter = Filters.and(Filters.eq("ratingName", ratingName), Filters.eq("upperbound", upperbound),
+            Filters.gt("movieId", afterHex));
+    var pipeline = List.of(
+            Aggregates.match(filter),
+            Aggregates.sort(Sorts.ascending("movieId")),
+            Aggregates.group("$movieId"),
+            Aggregates.sort(Sorts.ascending("_id")),
+            Aggregates.limit(limit + 1 - movies.size()));
+    return Publishers.toList(ratingCollection.aggregate(pipeline)).thenCompose(groups -> {
+      if (groups.isEmpty()) return CompletableFuture.completedFuture(movies);
+      List<String> movieIds = new ArrayList<>(groups.size());
+      groups.forEach(group -> movieIds.add(group.getString("_id")));
+      return getMoviesWithHexIds(movieIds, projection, raw -> raw.decode(DatabaseController.MOVIE_DECODER))
+              .thenCompose(found -> {
+                movies.addAll(found);
+                if (movies.size() > limit) return CompletableFuture.completedFuture(movies);
+                return getRatedMovies(ratingName, upperbound, limit, movieIds.get(movieIds.size() - 1), projection,
+                        movies);
+              });
+    });
+  }
+
+  public CompletionStage<MoviePage> getMoviesWithActor(String actorId, int limit, ObjectId after, Bson projection) {
+    return getMoviePageWithFilter(Filters.eq("principalCast", actorId), limit, after, projection);
+  }
+
+  public CompletionStage<MoviePage> getMoviesReleasedBetween(Date from, Date to, int limit, ObjectId after,
+                                                             Bson projection) {
+    var filter = Filters.and(Filters.gte("releaseDate", from), Filters.lt("releaseDate", to));
+    return getMoviePageWithFilter(filter, limit, after, projection);
+  }
+
+  public CompletionStage<MoviePage> getMoviesWithTitle(String title, int limit, ObjectId after, Bson projection) {
+    return getMoviePageWithFilter(Filters.eq("title", title), limit, after, projection);
+  }
+
+  public CompletionStage<Optional<Movie>> getMovieWithMovieId(String hexID, Bson projection) {
+    var filter = Filters.eq("_id", new ObjectId(hexID));
+    return Publishers.first(movieCollection.find(filter).projection(projection))
+            .thenApply(raw -> Optional.ofNullable(raw).map(found -> found.decode(DatabaseController.MOVIE_DECODER)));
+  }
+
+  /**
+   * Returns the numMovies most recent movies, see DatabaseController.getRecentReleaseMovies.
+   */
+  public CompletionStage<List<MoviePreview>> getRecentReleaseMovies(int numMovies) {
+    return Publishers.toList(movieCollection.find().projection(DatabaseController.PREVIEW_PROJECTION)
+                    .sort(Sorts.descending("releaseDate")).limit(numMovies))
+            .thenApply(documents -> {
+              List<MoviePreview> movies = new ArrayList<>(documents.size());
+              documents.forEach(raw -> movies.add(DatabaseController.toMoviePreview(raw)));
+              return movies;
+            });
+  }
+
+  /**
+   * Returns the numMovies movies with the most reviews, most reviewed first, see
+   * DatabaseController.getMoviesWithMostReviews.
+   */
+  public CompletionStage<List<MoviePreview>> getMoviesWithMostReviews(int numMovies) {
+    var pipeline = Arrays.asList(
+            Aggregates.group("$movieId", Accumulators.sum("count", 1)),
+            Aggregates.sort(Sorts.descending("count")),
+            Aggregates.limit(numMovies));
+    return Publishers.toList(reviewCollection.aggregate(pipeline)).thenCompose(documents -> {
+      List<String> movieIds = new ArrayList<>(documents.size());
+      documents.forEach(doc -> movieIds.add(doc.getString("_id")));
+      return getMoviesWithHexIds(movieIds, DatabaseController.PREVIEW_PROJECTION,
+              DatabaseController::toMoviePreview);
+    });
+  }
+
+  /**
+   * Loads movies by id with one <code>$in</code> query, see DatabaseController.getMoviesWithHexIds. The callers ask
+   * for at most a page of ids, so the ids are not split into batches.
+   *
+   * @return the movies that were found, in the order of hexIds
+   */
+  private <T> CompletionStage<List<T>> getMoviesWithHexIds(List<String> hexIds, Bson projection,
+                                                           Function<RawBsonDocument, T> convert) {
+    List<ObjectId> ids = new ArrayList<>(hexIds.size());
+    Set<String> seen = new HashSet<>();
+    for (String hexId : hexIds) {
+      if (hexId != null && ObjectId.isValid(hexId) && seen.add(hexId)) ids.add(new ObjectId(hexId));
+    }
+    if (ids.isEmpty()) return CompletableFuture.completedFuture(new ArrayList<>());
+    return Publishers.toList(movieCollection.find(Filters.in("_id", ids)).projection(projection))
+            .thenApply(documents -> {
+              Map<String, T> found = new HashMap<>(documents.size() * 2);
+              documents.forEach(raw -> found.put(DatabaseController.rawId(raw), convert.apply(raw)));
+              List<T> movies = new ArrayList<>(found.size());
+              for (ObjectId id : ids) {
+                T movie = found.get(id.toHexString());
+                if (movie != null) movies.add(movie);
+              }
+              return movies;
+            });
+  }
+
+  /**
+   * Counts the movies released in each decade, newest decade first, see DatabaseController.getReleaseDecades.
+   */
+  public CompletionStage<List<DecadeCount>> getReleaseDecades() {
+    Document year = new Document("$year", "$releaseDate");
+    Document decade = new Document("$subtract", Arrays.asList(year, new Document("$mod", Arrays.asList(year, 10))));
+    var pipeline = Arrays.asList(
+            Aggregates.match(Filters.type("releaseDate", BsonType.DATE_TIME)),
+            Aggregates.group(decade, Accumulators.sum("count", 1)),
+            Aggregates.sort(Sorts.descending("_id")));
+    return Publishers.toList(movieDatabase.getCollection("movies").aggregate(pipeline)).thenApply(documents -> {
+      List<DecadeCount> decades = new ArrayList<>(documents.size());
+      documents.forEach(doc -> decades.add(new DecadeCount(doc.getInteger("_id"), doc.getInteger("count"))));
+      return decades;
+    });
+  }
+}
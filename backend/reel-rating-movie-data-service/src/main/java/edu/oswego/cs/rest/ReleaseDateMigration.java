@@ -0,0 +1,44 @@
+package edu.oswego.cs.rest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Converts release dates written as strings by older versions of the service into BSON dates, and records the
+ * precision of dates converted before it was kept. Runs once per startup
+ * on a managed background thread; once every row is converted the run only does an indexed lookup that finds nothing.
+ */
+@Startup
+@Singleton
+public class ReleaseDateMigration {
+
+  private static final Logger LOGGER = Logger.getLogger(ReleaseDateMigration.class.getName());
+
+  @Resource
+  private ManagedExecutorService executor;
+
+  @Inject
+  DatabaseController databaseController;
+
+  @PostConstruct
+  public void migrate() {
+    executor.submit(() -> {
+      try {
+        int[] result = databaseController.migrateReleaseDates();
+        if (result[0] > 0 || result[1] > 0 || result[2] > 0) {
+          LOGGER.info("Converted " + result[0] + " release dates to dates, " + result[1] + " could not be read, "
+                  + result[2] + " given a precision");
+        }
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Release date migration failed", e);
+      }
+    });
+  }
+}
@@ -0,0 +1,29 @@
+package edu.oswego.cs.rest;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Reports the progress of the startup seed on the readiness endpoint. Seeding never takes the service out of rotation,
+ * the existing data can be read while it runs, so the check is always up and carries the progress as data.
+ */
+@Readiness
+@ApplicationScoped
+public class SeedingReadinessCheck implements HealthCheck {
+
+  @Inject
+  PopulationData populationData;
+
+  @Override
+  public HealthCheckResponse call() {
+    return HealthCheckResponse.named("movie-seed")
+            .up()
+            .withData("state", populationData.getState().name())
+            .withData("moviesSeeded", populationData.getMoviesSeeded())
+            .withData("moviesTotal", populationData.getMoviesTotal())
+            .build();
+  }
+}
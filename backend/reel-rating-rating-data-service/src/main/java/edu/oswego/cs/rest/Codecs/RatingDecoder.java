@@ -0,0 +1,34 @@
+package edu.oswego.cs.rest.Codecs;
+
+import edu.oswego.cs.rest.JsonClasses.Rating;
+import org.bson.BsonReader;
+
+/**
+ * Decodes a rating document into a Rating.
+ */
+public class RatingDecoder extends DtoDecoder<Rating> {
+
+  @Override
+  protected Rating newInstance() {
+    return new Rating();
+  }
+
+  @Override
+  protected boolean readField(Rating r, String name, BsonReader reader) {
+    switch (name) {
+      case "movieTitle" -> r.setMovieTitle(readString(reader));
+      case "username" -> r.setUsername(readString(reader));
+      case "ratingName" -> r.setRatingName(readString(reader));
+      case "userRating" -> r.setUserRating(readString(reader));
+      case "upperbound" -> r.setUpperbound(readString(reader));
+      case "dateTimeCreated" -> r.setDateTimeCreated(readString(reader));
+      case "privacy" -> r.setPrivacy(readString(reader));
+      case "movieId" -> r.setMovieId(readString(reader));
+      case "subtype" -> r.setSubtype(readString(reader));
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+}
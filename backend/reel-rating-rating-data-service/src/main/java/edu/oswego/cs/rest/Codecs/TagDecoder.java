@@ -0,0 +1,32 @@
+package edu.oswego.cs.rest.Codecs;
+
+import edu.oswego.cs.rest.JsonClasses.Tag;
+import org.bson.BsonReader;
+
+/**
+ * Decodes a tag document into a Tag.
+ */
+public class TagDecoder extends DtoDecoder<Tag> {
+
+  @Override
+  protected Tag newInstance() {
+    return new Tag();
+  }
+
+  @Override
+  protected boolean readField(Tag t, String name, BsonReader reader) {
+    switch (name) {
+      case "tagName" -> t.setTagName(readString(reader));
+      case "movieTitle" -> t.setMovieTitle(readString(reader));
+      case "movieId" -> t.setMovieId(readString(reader));
+      case "username" -> t.setUsername(readString(reader));
+      case "privacy" -> t.setPrivacy(readString(reader));
+      case "dateTimeCreated" -> t.setDateTimeCreated(readString(reader));
+      case "state" -> t.setState(readString(reader));
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -1,27 +1,65 @@
 package edu.oswego.cs.rest;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+
 import com.mongodb.client.model.*;
+import edu.oswego.cs.rest.Codecs.RatingDecoder;
+import edu.oswego.cs.rest.Codecs.TagDecoder;
 import edu.oswego.cs.rest.JsonClasses.Rating;
 import edu.oswego.cs.rest.JsonClasses.Tag;
 import org.bson.BsonDateTime;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoIterable;
 
 import java.util.*;
 
+@ApplicationScoped
 public class DatabaseController {
-  private static String mongoDatabaseName = System.getenv("MONGO_MOVIE_DATABASE_NAME");
-  private static String mongoURL = System.getenv("MONGO_MOVIE_URL");
-  private static MongoClient mongoClient = MongoClients.create(mongoURL);
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  // how long a per-movie aggregate is reused by the requests that follow it
+  @Inject
+  @ConfigProperty(name = "singleflight.ttlMillis", defaultValue = "1000")
+  long singleFlightTtlMillis;
+
+  // decode the raw documents the reads ask for, see the Codecs package
+  static final RatingDecoder RATING_DECODER = new RatingDecoder();
+  static final TagDecoder TAG_DECODER = new TagDecoder();
+
+  // collection handles, looked up once
+  private MongoCollection<Document> movieCollection;
+  private MongoCollection<Document> ratingCollection;
+  private MongoCollection<Document> tagCollection;
+
+  // per-movie aggregates shared by concurrent requests for the same movie
+  private SingleFlight<String, Rating> mostPopularRatings;
+  private SingleFlight<String, Map<String, Integer>> tagScores;
+
+  @PostConstruct
+  void init() {
+    movieCollection = movieDatabase.getCollection("movies");
+    ratingCollection = movieDatabase.getCollection("ratings");
+    tagCollection = movieDatabase.getCollection("tags");
+    mostPopularRatings = new SingleFlight<>("mostPopularRating", singleFlightTtlMillis, metrics);
+    tagScores = new SingleFlight<>("tagScores", singleFlightTtlMillis, metrics);
+  }
 
   public MongoDatabase getMovieDatabase() {
-    return mongoClient.getDatabase(mongoDatabaseName);
+    return movieDatabase;
   }
 
   /*
@@ -33,15 +71,15 @@ public class DatabaseController {
    * getTagCollection
    */
   public MongoCollection<Document> getMovieCollection() {
-    return getMovieDatabase().getCollection("movies");
+    return movieCollection;
   }
 
   public MongoCollection<Document> getRatingCollection() {
-    return getMovieDatabase().getCollection("ratings");
+    return ratingCollection;
   }
 
   public MongoCollection<Document> getTagCollection() {
-    return getMovieDatabase().getCollection("tags");
+    return tagCollection;
   }
 
   /*
@@ -99,55 +137,44 @@ public class DatabaseController {
       Document movieWithRatingCategory = movieCollection.find(Filters.and(ratingCategoryMovieFilter, movieIdFilter)).first();
       // check to see if movie category needs to be pushed
       if (movieWithRatingCategory == null) {
-        Bson movieRatingCategoryUpdateOperation = Updates.push("ratingCategoryNames", ratingName);
+        Bson movieRatingCategoryUpdateOperation = Updates.combine(Updates.push("ratingCategoryNames", ratingName),
+                Updates.inc("version", 1));
         movieCollection.updateOne(movie, movieRatingCategoryUpdateOperation);
       }
     }
     if(rating != null){
-      Bson updateOperation = Updates.set("userRating", userRating);
+      Bson updateOperation = Updates.combine(Updates.set("userRating", userRating), Updates.inc("version", 1));
       ratingCollection.updateOne(filter, updateOperation);
     }
+    mostPopularRatings.forget(movieIdHexString);
   }
 
   /*
    * Rating Get methods
    *
-   * getRatingsWithFilter
+   * findRatingsWithFilter
    *
    * getRatingsWithSameNameAndUpperbound
    * getRatingsWithSameName
    * getRatingsWithMovieId
    * getRatingsWithUpperbound
    *
+   * The find methods return the same queries without running them, for JsonArrayOutput.
+   *
    * getMostPopularAggregatedRatingForMovie
    * getAverageRatingWithRatingCategoryList
    * getUniqueRatingCategoriesAndUserRatingWithMovieId
    */
 
   /**
-   * Creates and returns a list of ratings that match the given filter. This is called by many of the
+   * Returns the query for the ratings that match the given filter, without running it. This is called by many of the
    * other get functions.
-   * @param ratingsCollection Mongo collection of all Ratings
    * @param filter Bson filter to perform the find action over the collection
-   * @return ArrayList&ltRating&gt containing all Ratings that match the filter
-   */
-  private static ArrayList<Rating> getRatingsWithFilter(MongoCollection<Document> ratingsCollection, Bson filter) {
-    var ratings = ratingsCollection.find(filter).map(document -> {
-      var ra = new Rating();
-      ra.setUsername(document.getString("username"));
-      ra.setRatingName(document.getString("ratingName"));
-      ra.setUserRating(document.getString("userRating"));
-      ra.setMovieTitle(document.getString("movieTitle"));
-      ra.setDateTimeCreated(document.get("dateTimeCreated").toString());
-      ra.setPrivacy(document.getString("privacy"));
-      ra.setMovieId(document.getString("movieId"));
-      ra.setUpperbound(document.getString("upperbound"));
-      ra.setSubtype(document.getString("subtype"));
-      return ra;
-    });
-    var list = new ArrayList<Rating>();
-    ratings.forEach(list::add);
-    return list;
+   * @return MongoIterable&ltRating&gt over all Ratings that match the filter
+   */
+  private MongoIterable<Rating> findRatingsWithFilter(Bson filter) {
+    return getRatingCollection().withDocumentClass(RawBsonDocument.class).find(filter)
+            .map(raw -> raw.decode(RATING_DECODER));
   }
 
   /**
@@ -157,11 +184,14 @@ public class DatabaseController {
    * @return ArrayList&ltRating&gt containing all Ratings that match both the given ratingName and upperbound.
    */
   public List<Rating> getRatingsWithSameNameAndUpperbound(String ratingName, String upperbound) {
-    var ratings = getRatingCollection();
+    return findRatingsWithSameNameAndUpperbound(ratingName, upperbound).into(new ArrayList<>());
+  }
+
+  public MongoIterable<Rating> findRatingsWithSameNameAndUpperbound(String ratingName, String upperbound) {
     Bson filter = Filters.and(
             Filters.eq("ratingName", ratingName),
             Filters.eq("upperbound", upperbound));
-    return getRatingsWithFilter(ratings, filter);
+    return findRatingsWithFilter(filter);
   }
 
   /**
@@ -170,9 +200,12 @@ public class DatabaseController {
    * @return ArrayList&ltRating&gt containing all Ratings that match both the given ratingName.
    */
   public List<Rating> getRatingsWithSameName(String ratingName) {
-    var ratings = getRatingCollection();
+    return findRatingsWithSameName(ratingName).into(new ArrayList<>());
+  }
+
+  public MongoIterable<Rating> findRatingsWithSameName(String ratingName) {
     var ratingNameFilter = Filters.eq("ratingName", ratingName);
-    return getRatingsWithFilter(ratings, ratingNameFilter);
+    return findRatingsWithFilter(ratingNameFilter);
   }
 
   /**
@@ -181,9 +214,12 @@ public class DatabaseController {
    * @return ArrayList&ltRating&gt containing all Ratings associated with the given hexId
    */
   public List<Rating> getRatingsWithMovieId(String movieId){
-    var ratings = getRatingCollection();
+    return findRatingsWithMovieId(movieId).into(new ArrayList<>());
+  }
+
+  public MongoIterable<Rating> findRatingsWithMovieId(String movieId) {
     var movieIdFilter = Filters.eq("movieId", movieId);
-    return getRatingsWithFilter(ratings, movieIdFilter);
+    return findRatingsWithFilter(movieIdFilter);
   }
 
   /**
@@ -193,9 +229,12 @@ public class DatabaseController {
    */
   // TODO consider for removal along with corresponding endpoint.
   public List<Rating> getRatingsWithUpperbound(String upperbound){
-    var ratings = getRatingCollection();
+    return findRatingsWithUpperbound(upperbound).into(new ArrayList<>());
+  }
+
+  public MongoIterable<Rating> findRatingsWithUpperbound(String upperbound) {
     var upperboundFilter = Filters.eq("upperbound", upperbound);
-    return getRatingsWithFilter(ratings, upperboundFilter);
+    return findRatingsWithFilter(upperboundFilter);
   }
 
   /**
@@ -206,6 +245,10 @@ public class DatabaseController {
    * upperbound, and a userRating of the average of all userRatings for the category and upperbound.
    */
   public Rating getMostPopularAggregatedRatingForMovie(String movieId) {
+    return mostPopularRatings.get(movieId, () -> aggregateMostPopularRatingForMovie(movieId));
+  }
+
+  private Rating aggregateMostPopularRatingForMovie(String movieId) {
     MongoCollection<Document> ratingCollection = getRatingCollection();
     // get the most popular rating category name for the movie
     Document ratingNameDoc = ratingCollection.aggregate(
@@ -383,23 +426,27 @@ public class DatabaseController {
       Document movieWithTag = movieCollection.find(Filters.and(tagMovieFilter, movieIdFilter)).first();
       // check to see if movie category needs to be pushed
       if (movieWithTag == null) {
-        Bson movieRatingCategoryUpdateOperation = Updates.push("tagNames", tagName);
+        Bson movieRatingCategoryUpdateOperation = Updates.combine(Updates.push("tagNames", tagName),
+                Updates.inc("version", 1));
         movieCollection.updateOne(movie, movieRatingCategoryUpdateOperation);
       }
     }
-
+    tagScores.forget(movieIdHexString);
   }
 
   /*
    * Tag Get functions
    *
    * getTagsWithFilter
+   * findTagsWithFilter
    *
    * getTagsByMovieId
    * getTagsWithTagName
    * getTagsWithUsername
    * getTagState
    *
+   * The find methods return the same queries without running them, for JsonArrayOutput.
+   *
    * getTagScoresForMovieModal
    */
 
@@ -411,31 +458,33 @@ public class DatabaseController {
    * @return ArrayList&ltTag&gt containing all Tags that match the filter
    */
   private static ArrayList<Tag> getTagsWithFilter(MongoCollection<Document> tagCollection, Bson filter) {
-    var ratings = tagCollection.find(filter).map(document -> {
-      var tag = new Tag();
-      tag.setTagName(document.getString("tagName"));
-      tag.setMovieTitle(document.getString("movieTitle"));
-      tag.setMovieId(document.getString("movieId"));
-      tag.setUsername(document.getString("username"));
-      tag.setPrivacy(document.getString("privacy"));
-      tag.setDateTimeCreated(document.get("dateTimeCreated").toString());
-      tag.setState(document.getString("state"));
-      return tag;
-    });
+    var tags = tagCollection.withDocumentClass(RawBsonDocument.class).find(filter);
     var list = new ArrayList<Tag>();
-    ratings.forEach(list::add);
+    tags.forEach(raw -> list.add(raw.decode(TAG_DECODER)));
     return list;
   }
 
+  /**
+   * Returns the query for the tags that match the given filter, without running it.
+   * @param filter Bson filter to perform the find action over the collection
+   * @return MongoIterable&ltTag&gt over all Tags that match the filter
+   */
+  private MongoIterable<Tag> findTagsWithFilter(Bson filter) {
+    return getTagCollection().withDocumentClass(RawBsonDocument.class).find(filter).map(raw -> raw.decode(TAG_DECODER));
+  }
+
   /**
    * Returns all Tags associated with the given MongoDB movie hexId
    * @param movieId MongoDB hexId of movie to search for
    * @return ArrayList&ltTag&gt containing all Tags from the given movie
    */
   public List<Tag> getTagsWithMovieId(String movieId) {
-    var tags = getTagCollection();
+    return findTagsWithMovieId(movieId).into(new ArrayList<>());
+  }
+
+  public MongoIterable<Tag> findTagsWithMovieId(String movieId) {
     var filter = Filters.eq("movieId", movieId);
-    return getTagsWithFilter(tags, filter);
+    return findTagsWithFilter(filter);
   }
 
   /**
@@ -444,9 +493,12 @@ public class DatabaseController {
    * @return ArrayList&ltTag&gt containing all Tags with the name
    */
   public List<Tag> getTagsWithTagName(String tagName) {
-    MongoCollection<Document> tags = getTagCollection();
+    return findTagsWithTagName(tagName).into(new ArrayList<>());
+  }
+
+  public MongoIterable<Tag> findTagsWithTagName(String tagName) {
     Bson filter = Filters.eq("tagName", tagName);
-    return getTagsWithFilter(tags, filter);
+    return findTagsWithFilter(filter);
   }
 
   /**
@@ -455,9 +507,12 @@ public class DatabaseController {
    * @return ArrayList&ltTag&gt containing all Tags created by the given username
    */
   public List<Tag> getTagsWithUsername(String username) {
-    MongoCollection<Document> tags = getTagCollection();
+    return findTagsWithUsername(username).into(new ArrayList<>());
+  }
+
+  public MongoIterable<Tag> findTagsWithUsername(String username) {
     Bson filter = Filters.eq("username", username.toLowerCase());
-    return getTagsWithFilter(tags, filter);
+    return findTagsWithFilter(filter);
   }
 
   /**
@@ -502,27 +557,16 @@ public class DatabaseController {
    * @return an ArrayList&lt;Tag&gt; in descending order based on total score
    */
   public List<Tag> getTagScoresForMovieModal(String requesterUsername, String movieId){
-    List<Tag> tags = getTagsWithMovieId(movieId);
-
-    HashMap<String, Integer> totalCount = new HashMap<>();
-    // for each tagName we have: Use a hashmap to count its value
-    for (Tag tag : tags){
-      String tagName = tag.getTagName();
-      // if the tag is already in the map
-      if(totalCount.containsKey(tagName)){
-        // add one to the count
-        if (tag.getState().equals("upvote")) { totalCount.put(tagName, ( totalCount.get(tagName) + 1 ) ); }
-        // subtract one from the count
-        else { totalCount.put(tagName, ( totalCount.get(tagName) - 1 ) ); }
-      }
-      // this tag is a new one
-      else{
-        // start the count at 1
-        if (tag.getState().equals("upvote")) { totalCount.put(tagName, 1); }
-        // start the count at -1
-        else { totalCount.put(tagName, -1); }
-      }
-    }
+    // the scores are the same for every user and shared by concurrent requests for the movie
+    Map<String, Integer> totalCount = tagScores.get(movieId, () -> aggregateTagScores(movieId));
+    // what this user thinks of each tag, read in one query instead of one per tag
+    Map<String, String> states = new HashMap<>();
+    getTagCollection().find(Filters.and(
+            Filters.eq("username", requesterUsername.toLowerCase()),
+            Filters.eq("movieId", movieId)))
+            .projection(Projections.include("tagName", "state"))
+            .forEach(document -> states.putIfAbsent(document.getString("tagName"), document.getString("state")));
+
     ArrayList<Tag> uniqueTags = new ArrayList<>();
     // for each unique named tag create a tag
     for(String tagName : totalCount.keySet()){
@@ -532,7 +576,7 @@ public class DatabaseController {
       tag.setTotalCount(totalCount.get(tagName).toString());
       tag.setMovieId(movieId);
       // while we are at it lets assign what the user thinks of it
-      tag.setState(getTagState(requesterUsername, movieId, tagName));
+      tag.setState(states.getOrDefault(tagName, "noTag"));
 
       // add the tag to the list
       uniqueTags.add(tag);
@@ -543,6 +587,21 @@ public class DatabaseController {
     return uniqueTags;
   }
 
+  /**
+   * Totals the votes on each tag name of a movie, an upvote counts one and a downvote minus one.
+   * @return unmodifiable map of tag name to total
+   */
+  private Map<String, Integer> aggregateTagScores(String movieId) {
+    Map<String, Integer> totalCount = new HashMap<>();
+    Document vote = new Document("$cond", Arrays.asList(new Document("$eq", Arrays.asList("$state", "upvote")), 1, -1));
+    getTagCollection().aggregate(Arrays.asList(
+            Aggregates.match(Filters.eq("movieId", movieId)),
+            Aggregates.group("$tagName", Accumulators.sum("totalCount", vote))
+    )).forEach(document -> totalCount.put(document.getString("_id"), document.getInteger("totalCount")));
+    return Collections.unmodifiableMap(totalCount);
+  }
+
+
   /*
    * Tag Update Functions
    *
@@ -574,10 +633,11 @@ public class DatabaseController {
       createTag(tagName, movieId, requesterUsername, "public");
     } else if (tags.get(0).getState().equals("downvote")){
       // change to upvote
-      Bson upvoteUpdate = Updates.set("state", "upvote");
+      Bson upvoteUpdate = Updates.combine(Updates.set("state", "upvote"), Updates.inc("version", 1));
       tagCollection.updateOne(tagFilter, upvoteUpdate);
     }
     // otherwise you already have made this tag. Why are you doing this please don't do this return nothing
+    tagScores.forget(movieId);
   }
 
   /**
@@ -601,7 +661,7 @@ public class DatabaseController {
     // if the tag exists and is currently set to upvote
     if(!tags.isEmpty() && tags.get(0).getState().equals("upvote")){
       // set the state to downvote
-      Bson downvoteUpdate = Updates.set("state", "downvote");
+      Bson downvoteUpdate = Updates.combine(Updates.set("state", "downvote"), Updates.inc("version", 1));
       tagCollection.updateOne(tagFilter, downvoteUpdate);
     }
     // otherwise the tag does not exist
@@ -610,9 +670,10 @@ public class DatabaseController {
       createTag(tagName, movieId, requesterUsername, "public");
 
       // set the state to downvote
-      Bson downVoteUpdate = Updates.set("state", "downvote");
+      Bson downVoteUpdate = Updates.combine(Updates.set("state", "downvote"), Updates.inc("version", 1));
       tagCollection.updateOne(tagFilter, downVoteUpdate);
     }
+    tagScores.forget(movieId);
   }
 
   /*
@@ -620,6 +681,47 @@ public class DatabaseController {
    */
 
 
+  /*
+   * Version functions
+   *
+   * getRatingsVersion
+   * getTagsVersion
+   */
+
+  /**
+   * Returns a token that changes whenever a rating of the movie is created or updated, read with one aggregation over
+   * the movieId index instead of reading the ratings.
+   * @param movieId Mongo hexId of the movie
+   */
+  public String getRatingsVersion(String movieId) {
+    return getVersionWithMovieId(getRatingCollection(), movieId);
+  }
+
+  /**
+   * Returns a token that changes whenever a tag of the movie is created or voted on, see getRatingsVersion.
+   * @param movieId Mongo hexId of the movie
+   */
+  public String getTagsVersion(String movieId) {
+    return getVersionWithMovieId(getTagCollection(), movieId);
+  }
+
+  /**
+   * Sums up the documents of a movie: how many there are, the total of their version fields, which every update
+   * increments, and the newest creation time. Creating a document changes the count and updating one the total.
+   */
+  private static String getVersionWithMovieId(MongoCollection<Document> collection, String movieId) {
+    Document summary = collection.aggregate(Arrays.asList(
+            Aggregates.match(Filters.eq("movieId", movieId)),
+            Aggregates.group(null,
+                    Accumulators.sum("count", 1),
+                    Accumulators.sum("versions", "$version"),
+                    Accumulators.max("newest", "$dateTimeCreated"))
+    )).first();
+    if (summary == null) return "0";
+    Date newest = summary.getDate("newest");
+    return summary.get("count") + "-" + summary.get("versions") + "-" + (newest == null ? 0 : newest.getTime());
+  }
+
   /*
    * Other helper functions. These are used to support the base CRUD functions for each database object
    *
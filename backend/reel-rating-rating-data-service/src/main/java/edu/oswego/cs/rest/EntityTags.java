@@ -0,0 +1,59 @@
+package edu.oswego.cs.rest;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+
+/**
+ * Weak entity tags and cache headers for the GET read endpoints. A tag is built from version tokens of the data a
+ * response is made of, such as document version counters, so it can be compared with the If-None-Match header of a
+ * request before the data itself is read.
+ */
+final class EntityTags {
+
+  private EntityTags() {
+  }
+
+  /**
+   * @param parts version tokens the response depends on, must not contain quotes
+   * @return weak tag of the parts joined with dashes
+   */
+  static EntityTag weak(Object... parts) {
+    StringBuilder value = new StringBuilder();
+    for (Object part : parts) {
+      if (value.length() > 0) value.append('-');
+      value.append(part);
+    }
+    return new EntityTag(value.toString(), true);
+  }
+
+  /**
+   * Weak comparison of the tag with an If-None-Match header, which is either * or a comma separated list of tags.
+   * @return true if one of the tags is the same as this one, so the client's copy is current
+   */
+  static boolean matches(String ifNoneMatch, EntityTag tag) {
+    if (ifNoneMatch == null) return false;
+    String quoted = "\"" + tag.getValue() + "\"";
+    for (String candidate : ifNoneMatch.split(",")) {
+      String value = candidate.trim();
+      if (value.startsWith("W/")) value = value.substring(2);
+      if (value.equals("*") || value.equals(quoted)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Responses are read with the requester's session, so only their browser may keep them. With a max age of 0 the
+   * browser asks again every time and gets a 304 while nothing changed.
+   */
+  static CacheControl cacheControl(int maxAgeSeconds) {
+    CacheControl cacheControl = new CacheControl();
+    cacheControl.setPrivate(true);
+    cacheControl.setNoTransform(false);
+    if (maxAgeSeconds > 0) {
+      cacheControl.setMaxAge(maxAgeSeconds);
+    } else {
+      cacheControl.setNoCache(true);
+    }
+    return cacheControl;
+  }
+}
@@ -0,0 +1,78 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoIterable;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.annotation.JsonbTypeSerializer;
+import jakarta.json.bind.serializer.JsonbSerializer;
+import jakarta.json.bind.serializer.SerializationContext;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the results of a query as a JSON array while they are read from the cursor, so a large list response never
+ * sits in the heap at once. The array is written with JSON-B's JsonGenerator and every element is serialized by JSON-B
+ * itself, so the elements look exactly like a non-streamed response. The query runs when the response body is written,
+ * after the resource method has returned. Once the first element is sent the status can no longer change, so a
+ * failure part way through cuts the body short.
+ *
+ * @param <T> class the query decodes into
+ */
+@JsonbTypeSerializer(JsonArrayOutput.ArraySerializer.class)
+public class JsonArrayOutput<T> implements StreamingOutput {
+
+  // thread safe, and expensive enough to create that it is shared by all responses
+  private static final Jsonb JSONB = JsonbBuilder.create();
+
+  private final MongoIterable<T> results;
+
+  /**
+   * @param results query to run, see the find methods of DatabaseController
+   */
+  public JsonArrayOutput(MongoIterable<T> results) {
+    this.results = results;
+  }
+
+  @Override
+  public void write(OutputStream output) {
+    JSONB.toJson(this, new UnclosedOutputStream(output));
+  }
+
+  /**
+   * Serializes a JsonArrayOutput as the array of its results, one element at a time.
+   */
+  public static class ArraySerializer implements JsonbSerializer<JsonArrayOutput<?>> {
+    @Override
+    public void serialize(JsonArrayOutput<?> array, JsonGenerator generator, SerializationContext context) {
+      generator.writeStartArray();
+      try (MongoCursor<?> cursor = array.results.iterator()) {
+        while (cursor.hasNext()) {
+          context.serialize(cursor.next(), generator);
+        }
+      }
+      generator.writeEnd();
+    }
+  }
+
+  // Jsonb closes the stream it wrote to, but the response stream belongs to the server
+  private static final class UnclosedOutputStream extends FilterOutputStream {
+    UnclosedOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
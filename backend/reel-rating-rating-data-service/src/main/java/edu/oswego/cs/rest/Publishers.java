@@ -0,0 +1,83 @@
+package edu.oswego.cs.rest;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Turns the publishers of the reactive streams driver into CompletableFutures. Documents are taken as the driver reads
+ * them off the socket, so no thread waits for the query while it runs.
+ */
+final class Publishers {
+
+  private Publishers() {}
+
+  /**
+   * Collects everything the publisher emits. The whole result is held in memory, as the blocking reads do.
+   * @return future completing with the items in the order they were emitted
+   */
+  static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher) {
+    CompletableFuture<List<T>> result = new CompletableFuture<>();
+    publisher.subscribe(new Subscriber<T>() {
+      private final List<T> items = new ArrayList<>();
+
+      @Override
+      public void onSubscribe(Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(T item) {
+        items.add(item);
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        result.completeExceptionally(error);
+      }
+
+      @Override
+      public void onComplete() {
+        result.complete(items);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Takes the first item the publisher emits and cancels the rest.
+   * @return future completing with the first item, or null if the publisher emitted nothing
+   */
+  static <T> CompletableFuture<T> first(Publisher<T> publisher) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    publisher.subscribe(new Subscriber<T>() {
+      private Subscription subscription;
+
+      @Override
+      public void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(T item) {
+        if (result.complete(item)) subscription.cancel();
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        result.completeExceptionally(error);
+      }
+
+      @Override
+      public void onComplete() {
+        result.complete(null);
+      }
+    });
+    return result;
+  }
+}
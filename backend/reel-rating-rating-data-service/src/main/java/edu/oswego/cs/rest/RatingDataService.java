@@ -6,20 +6,49 @@ import edu.oswego.cs.rest.JsonClasses.JSession;
 import edu.oswego.cs.rest.JsonClasses.Rating;
 import edu.oswego.cs.rest.JsonClasses.Tag;
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Path("/")
 @RequestScoped
 public class RatingDataService {
+
+  @Inject
+  DatabaseController dbc;
+
+  @Inject
+  ReactiveDatabaseController reactiveDbc;
+
+  // read endpoints answer without holding a request thread while the session is checked and Mongo is queried
+  @Inject
+  @ConfigProperty(name = "mongo.reactive.enabled", defaultValue = "false")
+  boolean reactiveReads;
+
+  @Inject
+  BlockingExecutor blockingExecutor;
+
+  // seconds a browser may reuse a GET response without asking, 0 to have it revalidate every time
+  @Inject
+  @ConfigProperty(name = "http.cache.maxAgeSeconds", defaultValue = "0")
+  int cacheMaxAgeSeconds;
   
   String AuthServiceUrl = System.getenv("AUTH_SERVICE_URL");
 
@@ -46,6 +75,96 @@ public class RatingDataService {
     return username;
   }
 
+  /**
+   * Non-blocking version of getUsername. The request to the auth service is sent with the reactive client API, so
+   * no thread waits for the reply.
+   *
+   * @param sessionId
+   * @return stage completing with the username, or null if the session does not belong to a user
+   */
+  public CompletionStage<String> getUsernameAsync(String sessionId) {
+    Client authClient = ClientBuilder.newClient();
+    WebTarget target = authClient.target(AuthServiceUrl + "/reel-rating-auth-service/jwt/generate/" + sessionId);
+    return target.request().rx().get().thenApply(response -> {
+      String value = response.readEntity(String.class);
+      if (value == null || value.isEmpty()) {
+        return null;
+      }
+      try {
+        JwtConsumer jwtConsumer = JwtConsumer.create("reel_rating_token");
+        return jwtConsumer.createJwt(value).getClaims().getAllClaims().get("upn").toString();
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }).whenComplete((username, e) -> authClient.close());
+  }
+
+  /**
+   * Runs a read endpoint in one of three modes. With mongo.reactive.enabled the session check and the query are both
+   * non-blocking and the request thread is handed back until the result is ready. With threads.virtual.enabled the
+   * blocking session check and read run together on a virtual thread, which is cheap to park while they wait.
+   * Otherwise the blocking read runs on the request thread. In every mode a session that does not belong to a user is
+   * answered with 401.
+   *
+   * @param sessionId session of the requester
+   * @param blockingRead read through DatabaseController, may return a JsonArrayOutput to stream a list
+   * @param reactiveRead the same read through ReactiveDatabaseController
+   * @return stage completing with the response
+   */
+  private CompletionStage<Response> read(String sessionId, Callable<?> blockingRead,
+                                         Supplier<? extends CompletionStage<?>> reactiveRead) throws Exception {
+    if (reactiveReads) {
+      return getUsernameAsync(sessionId).thenCompose(requesterUsername -> requesterUsername == null
+              ? CompletableFuture.completedFuture(Response.status(Response.Status.UNAUTHORIZED).build())
+              : reactiveRead.get().thenApply(result -> Response.ok(result).build()));
+    }
+    if (blockingExecutor.isVirtual()) {
+      return blockingExecutor.supply(() -> blockingRead(sessionId, blockingRead));
+    }
+    return CompletableFuture.completedFuture(blockingRead(sessionId, blockingRead));
+  }
+
+  private Response blockingRead(String sessionId, Callable<?> read) throws Exception {
+    if (getUsername(sessionId) == null) {
+      return Response.status(Response.Status.UNAUTHORIZED).build();
+    }
+    return Response.ok(read.call()).build();
+  }
+
+  /**
+   * Runs a GET read endpoint. The session comes from the JSESSIONID header instead of a body, so browsers can cache
+   * the response. After the session check only the version of the data is read; if the client's If-None-Match still
+   * matches it, 304 is sent without running the read. The version is read before the data, so a write in between
+   * at worst sends new data under the old tag and the next request fetches it again. Runs on a virtual thread with
+   * threads.virtual.enabled, otherwise on the request thread.
+   *
+   * @param sessionId session of the requester
+   * @param ifNoneMatch tags of the copies the client has, may be null
+   * @param version reads the tag of the data for the requester's username, null if there is no data (404)
+   * @param read reads the data for the requester's username
+   * @return stage completing with the response
+   */
+  private <T> CompletionStage<Response> conditionalRead(String sessionId, String ifNoneMatch,
+                                                        Function<String, EntityTag> version,
+                                                        Function<String, T> read) throws Exception {
+    Callable<Response> respond = () -> {
+      String requesterUsername = sessionId == null ? null : getUsername(sessionId);
+      if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
+      EntityTag tag = version.apply(requesterUsername);
+      if (tag == null) { return Response.status(Response.Status.NOT_FOUND).build(); }
+      Response.ResponseBuilder response = EntityTags.matches(ifNoneMatch, tag)
+              ? Response.notModified(tag)
+              : Response.ok(read.apply(requesterUsername)).tag(tag);
+      return response.cacheControl(EntityTags.cacheControl(cacheMaxAgeSeconds))
+              .header(HttpHeaders.VARY, "JSESSIONID")
+              .build();
+    };
+    if (blockingExecutor.isVirtual()) {
+      return blockingExecutor.supply(respond);
+    }
+    return CompletableFuture.completedFuture(respond.call());
+  }
+
   /*
    * Rating Create Endpoints
    *
@@ -58,7 +177,6 @@ public class RatingDataService {
     String sessionId = rating.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     dbc.createRating(rating.getRatingName(), rating.getUserRating(), rating.getUpperbound(), rating.getSubtype(), requesterUsername, rating.getMovieId(), rating.getPrivacy());
     return Response.ok().build();
   }
@@ -66,6 +184,9 @@ public class RatingDataService {
   /*
    * Rating Get Endpoints
    *
+   * GET endpoints take the session in a JSESSIONID header and answer with ETags, see conditionalRead. Lists of ratings
+   * and tags are streamed from the cursor, see JsonArrayOutput.
+   *
    * getMostPopularAggregatedRatingForMovie
    * getRatingsWithSameNameAndUpperbound
    * getRatingsWithSameName
@@ -80,7 +201,6 @@ public class RatingDataService {
     String sessionId = jsession.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     Rating aggregatedRating = dbc.getMostPopularAggregatedRatingForMovie(movieId);
     return Response.ok(aggregatedRating).build();
   }
@@ -89,52 +209,49 @@ public class RatingDataService {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/rating/getRatingsWithSameNameAndUpperbound/")
-  public Response getRatingsWithSameNameAndUpperbound(@Context HttpServletRequest request, Rating rating) throws Exception {
-    String sessionId = rating.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Rating> ratings = dbc.getRatingsWithSameNameAndUpperbound(rating.getRatingName(), rating.getUpperbound());
-    return Response.ok(ratings).build();
+  public CompletionStage<Response> getRatingsWithSameNameAndUpperbound(@Context HttpServletRequest request, Rating rating) throws Exception {
+    return read(rating.getJSESSIONID(),
+            () -> new JsonArrayOutput<>(dbc.findRatingsWithSameNameAndUpperbound(rating.getRatingName(), rating.getUpperbound())),
+            () -> reactiveDbc.getRatingsWithSameNameAndUpperbound(rating.getRatingName(), rating.getUpperbound()));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/rating/getRatingsWithSameName/{ratingName}")
-  public Response getRatingsWithSameName(@Context HttpServletRequest request, @PathParam("ratingName") String ratingName, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Rating> ratings = dbc.getRatingsWithSameName(ratingName);
-    return Response.ok(ratings).build();
+  public CompletionStage<Response> getRatingsWithSameName(@Context HttpServletRequest request, @PathParam("ratingName") String ratingName, JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(),
+            () -> new JsonArrayOutput<>(dbc.findRatingsWithSameName(ratingName)),
+            () -> reactiveDbc.getRatingsWithSameName(ratingName));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/rating/getRatingsWithMovieId/{movieId}")
-  public Response getRatingsWithMovieId(@Context HttpServletRequest request, @PathParam("movieId") String movieId, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Rating> ratings = dbc.getRatingsWithMovieId(movieId);
-    return Response.ok(ratings).build();
+  public CompletionStage<Response> getRatingsWithMovieId(@Context HttpServletRequest request, @PathParam("movieId") String movieId, JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(),
+            () -> new JsonArrayOutput<>(dbc.findRatingsWithMovieId(movieId)),
+            () -> reactiveDbc.getRatingsWithMovieId(movieId));
+  }
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/rating/getRatingsWithMovieId/{movieId}")
+  public CompletionStage<Response> getRatingsWithMovieId(@HeaderParam("JSESSIONID") String sessionId, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch, @PathParam("movieId") String movieId) throws Exception {
+    return conditionalRead(sessionId, ifNoneMatch,
+            requesterUsername -> EntityTags.weak(dbc.getRatingsVersion(movieId)),
+            requesterUsername -> dbc.getRatingsWithMovieId(movieId));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/rating/getRatingsWithUpperbound/{upperbound}")
-  public Response getRatingsWithUpperbound(@Context HttpServletRequest request, @PathParam("upperbound") String upperbound , JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Rating> ratings = dbc.getRatingsWithUpperbound(upperbound);
-    return Response.ok(ratings).build();
+  public CompletionStage<Response> getRatingsWithUpperbound(@Context HttpServletRequest request, @PathParam("upperbound") String upperbound , JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(),
+            () -> new JsonArrayOutput<>(dbc.findRatingsWithUpperbound(upperbound)),
+            () -> reactiveDbc.getRatingsWithUpperbound(upperbound));
   }
 
   @POST
@@ -145,7 +262,6 @@ public class RatingDataService {
     String sessionId = jsession.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Rating> ratings = dbc.getUniqueRatingCategoriesAndUserRatingWithMovieId(movieId, requesterUsername);
     return Response.ok(ratings).build();
   }
@@ -163,8 +279,7 @@ public class RatingDataService {
     String sessionId = tag.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController db = new DatabaseController();
-    db.createTag(tag.getTagName(), movieId, requesterUsername, tag.getPrivacy());
+    dbc.createTag(tag.getTagName(), movieId, requesterUsername, tag.getPrivacy());
     return Response.ok().build();
   }
 
@@ -181,41 +296,30 @@ public class RatingDataService {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/tag/getTagsWithMovieId/{movieId}")
-  public Response getTagsWithMovieId(@Context HttpServletRequest request, @PathParam("movieId") String movieId, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Tag> tags = dbc.getTagsWithMovieId(movieId);
-    return Response.ok(tags).build();
+  public CompletionStage<Response> getTagsWithMovieId(@Context HttpServletRequest request, @PathParam("movieId") String movieId, JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(),
+            () -> new JsonArrayOutput<>(dbc.findTagsWithMovieId(movieId)),
+            () -> reactiveDbc.getTagsWithMovieId(movieId));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/tag/getTagsWithTagName/{tagName}")
-  public Response getTagsWithTagName(@Context HttpServletRequest request, @PathParam("tagName") String tagName, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-
-    DatabaseController dbc = new DatabaseController();
-    List<Tag> tags = dbc.getTagsWithTagName(tagName);
-    return Response.ok(tags).build();
+  public CompletionStage<Response> getTagsWithTagName(@Context HttpServletRequest request, @PathParam("tagName") String tagName, JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(),
+            () -> new JsonArrayOutput<>(dbc.findTagsWithTagName(tagName)),
+            () -> reactiveDbc.getTagsWithTagName(tagName));
   }
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/tag/getTagsWithUsername/{username}")
-  public Response getTagsWithUsername(@Context HttpServletRequest request, @PathParam("username") String username, JSession jsession) throws Exception {
-    String sessionId = jsession.getJSESSIONID();
-    String requesterUsername = getUsername(sessionId);
-    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-
-    DatabaseController dbc = new DatabaseController();
-    List<Tag> tags = dbc.getTagsWithUsername(username);
-    return Response.ok(tags).build();
+  public CompletionStage<Response> getTagsWithUsername(@Context HttpServletRequest request, @PathParam("username") String username, JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(),
+            () -> new JsonArrayOutput<>(dbc.findTagsWithUsername(username)),
+            () -> reactiveDbc.getTagsWithUsername(username));
   }
 
   @POST
@@ -227,7 +331,6 @@ public class RatingDataService {
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
 
-    DatabaseController dbc = new DatabaseController();
     Tag returnTag = new Tag();
     returnTag.setTagName(tag.getTagName()); returnTag.setUsername(requesterUsername); returnTag.setMovieId(tag.getMovieId());
     returnTag.setState(dbc.getTagState(requesterUsername, tag.getMovieId(), tag.getTagName()));
@@ -243,11 +346,20 @@ public class RatingDataService {
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
 
-    DatabaseController dbc = new DatabaseController();
     List<Tag> tags = dbc.getTagScoresForMovieModal(requesterUsername, movieId);
     return Response.ok(tags).build();
   }
 
+  // the requester's own votes are part of the response, so their username is part of the tag
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/tag/getTagScoresForMovieModal/{movieId}")
+  public CompletionStage<Response> getTagScoresForMovieModal(@HeaderParam("JSESSIONID") String sessionId, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch, @PathParam("movieId") String movieId) throws Exception {
+    return conditionalRead(sessionId, ifNoneMatch,
+            requesterUsername -> EntityTags.weak(dbc.getTagsVersion(movieId), Integer.toHexString(requesterUsername.hashCode())),
+            requesterUsername -> dbc.getTagScoresForMovieModal(requesterUsername, movieId));
+  }
+
   /*
    * Tag Update Endpoints
    *
@@ -265,7 +377,6 @@ public class RatingDataService {
       return Response.status(Response.Status.UNAUTHORIZED).build();
     }
 
-    DatabaseController dbc = new DatabaseController();
     dbc.upvoteTag(getUsername(sessionId), tag.getTagName(), tag.getMovieId());
     return Response.ok().build();
   }
@@ -281,7 +392,6 @@ public class RatingDataService {
       return Response.status(Response.Status.UNAUTHORIZED).build();
     }
 
-    DatabaseController dbc = new DatabaseController();
     dbc.downvoteTag(getUsername(sessionId), tag.getTagName(), tag.getMovieId());
     return Response.ok().build();
   }
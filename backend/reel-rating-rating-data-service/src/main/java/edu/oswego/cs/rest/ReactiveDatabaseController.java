@@ -0,0 +1,88 @@
+package edu.oswego.cs.rest;
+
+import edu.oswego.cs.rest.JsonClasses.Rating;
+import edu.oswego.cs.rest.JsonClasses.Tag;
+import com.mongodb.client.model.Filters;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking versions of the DatabaseController reads, built on the reactive streams driver. Each method returns as
+ * soon as the query is sent; the stage completes on a driver thread once the documents are read. The filters and
+ * decoders are the same as the blocking reads, so both return the same results.
+ */
+@ApplicationScoped
+public class ReactiveDatabaseController {
+  @Inject
+  MongoDatabase movieDatabase;
+
+  private MongoCollection<RawBsonDocument> ratingCollection;
+  private MongoCollection<RawBsonDocument> tagCollection;
+
+  @PostConstruct
+  void initCollections() {
+    ratingCollection = movieDatabase.getCollection("ratings", RawBsonDocument.class);
+    tagCollection = movieDatabase.getCollection("tags", RawBsonDocument.class);
+  }
+
+  /*
+   * Rating get methods, see the DatabaseController methods of the same name.
+   */
+  private CompletionStage<List<Rating>> getRatingsWithFilter(Bson filter) {
+    return Publishers.toList(ratingCollection.find(filter)).thenApply(documents -> {
+      List<Rating> ratings = new ArrayList<>(documents.size());
+      documents.forEach(raw -> ratings.add(raw.decode(DatabaseController.RATING_DECODER)));
+      return ratings;
+    });
+  }
+
+  public CompletionStage<List<Rating>> getRatingsWithSameNameAndUpperbound(String ratingName, String upperbound) {
+    return getRatingsWithFilter(Filters.and(
+            Filters.eq("ratingName", ratingName),
+            Filters.eq("upperbound", upperbound)));
+  }
+
+  public CompletionStage<List<Rating>> getRatingsWithSameName(String ratingName) {
+    return getRatingsWithFilter(Filters.eq("ratingName", ratingName));
+  }
+
+  public CompletionStage<List<Rating>> getRatingsWithMovieId(String movieId) {
+    return getRatingsWithFilter(Filters.eq("movieId", movieId));
+  }
+
+  public CompletionStage<List<Rating>> getRatingsWithUpperbound(String upperbound) {
+    return getRatingsWithFilter(Filters.eq("upperbound", upperbound));
+  }
+
+  /*
+   * Tag get methods, see the DatabaseController methods of the same name.
+   */
+  private CompletionStage<List<Tag>> getTagsWithFilter(Bson filter) {
+    return Publishers.toList(tagCollection.find(filter)).thenApply(documents -> {
+      List<Tag> tags = new ArrayList<>(documents.size());
+      documents.forEach(raw -> tags.add(raw.decode(DatabaseController.TAG_DECODER)));
+      return tags;
+    });
+  }
+
+  public CompletionStage<List<Tag>> getTagsWithMovieId(String movieId) {
+    return getTagsWithFilter(Filters.eq("movieId", movieId));
+  }
+
+  public CompletionStage<List<Tag>> getTagsWithTagName(String tagName) {
+    return getTagsWithFilter(Filters.eq("tagName", tagName));
+  }
+
+  public CompletionStage<List<Tag>> getTagsWithUsername(String username) {
+    return getTagsWithFilter(Filters.eq("username", username.toLowerCase()));
+  }
+}
@@ -0,0 +1,31 @@
+package edu.oswego.cs.rest.Codecs;
+
+import edu.oswego.cs.rest.JsonClasses.Review;
+import org.bson.BsonReader;
+
+/**
+ * Decodes a review document into a Review.
+ */
+public class ReviewDecoder extends DtoDecoder<Review> {
+
+  @Override
+  protected Review newInstance() {
+    return new Review();
+  }
+
+  @Override
+  protected boolean readField(Review r, String name, BsonReader reader) {
+    switch (name) {
+      case "movieTitle" -> r.setMovieTitle(readString(reader));
+      case "movieId" -> r.setMovieId(readString(reader));
+      case "reviewDescription" -> r.setReviewDescription(readString(reader));
+      case "dateTimeCreated" -> r.setDateTimeCreated(readString(reader));
+      case "privacy" -> r.setPrivacy(readString(reader));
+      case "username" -> r.setUsername(readString(reader));
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+}
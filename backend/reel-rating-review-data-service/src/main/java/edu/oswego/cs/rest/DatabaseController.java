@@ -1,13 +1,17 @@
 package edu.oswego.cs.rest;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import edu.oswego.cs.rest.Codecs.ReviewDecoder;
 import edu.oswego.cs.rest.JsonClasses.Review;
 import org.bson.BsonDateTime;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
@@ -15,13 +19,26 @@ import com.mongodb.client.model.Filters;
 import java.util.ArrayList;
 import java.util.List;
 
+@ApplicationScoped
 public class DatabaseController {
-  private static String mongoDatabaseName = System.getenv("MONGO_MOVIE_DATABASE_NAME");
-  private static String mongoURL = System.getenv("MONGO_MOVIE_URL");
-  private static MongoClient mongoClient = MongoClients.create(mongoURL);
+  @Inject
+  MongoDatabase movieDatabase;
+
+  // decodes the raw review documents the reads ask for, see the Codecs package
+  private static final ReviewDecoder REVIEW_DECODER = new ReviewDecoder();
+
+  // collection handles, looked up once
+  private MongoCollection<Document> movieCollection;
+  private MongoCollection<Document> reviewCollection;
+
+  @PostConstruct
+  void initCollections() {
+    movieCollection = movieDatabase.getCollection("movies");
+    reviewCollection = movieDatabase.getCollection("reviews");
+  }
 
   public MongoDatabase getMovieDatabase() {
-    return mongoClient.getDatabase(mongoDatabaseName);
+    return movieDatabase;
   }
 
   /*
@@ -31,11 +48,11 @@ public class DatabaseController {
    * getReviewCollection
    */
   public MongoCollection<Document> getMovieCollection() {
-    return getMovieDatabase().getCollection("movies");
+    return movieCollection;
   }
 
   public MongoCollection<Document> getReviewCollection() {
-    return getMovieDatabase().getCollection("reviews");
+    return reviewCollection;
   }
 
   /*
@@ -89,17 +106,9 @@ public class DatabaseController {
    * @return ArrayList&ltReview&gt containing all Reviews that match the filter
    */
   private static ArrayList<Review> getReviewsWithFilter(MongoCollection<Document> reviewsCollection, Bson filter) {
-    var reviews = reviewsCollection.find(filter).map(document -> {
-      var re = new Review();
-      re.setUsername(document.getString("username"));
-      re.setReviewDescription(document.getString("reviewDescription"));
-      re.setMovieId(document.getString("movieId"));
-      re.setDateTimeCreated(document.get("dateTimeCreated").toString());
-      re.setPrivacy(document.getString("privacy"));
-      return re;
-    });
+    var reviews = reviewsCollection.withDocumentClass(RawBsonDocument.class).find(filter);
     var list = new ArrayList<Review>();
-    reviews.forEach(list::add);
+    reviews.forEach(raw -> list.add(raw.decode(REVIEW_DECODER)));
     return list;
   }
 
@@ -0,0 +1,50 @@
+package edu.oswego.cs.rest;
+
+import edu.oswego.cs.mongo.IndexSpec;
+import edu.oswego.cs.mongo.MongoIndexes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+/**
+ * Indexes behind the review lookups by movie and by user in DatabaseController.
+ */
+@Startup
+@Singleton
+public class IndexRegistry {
+
+  static final List<IndexSpec> INDEXES = List.of(
+          IndexSpec.ascending("reviews", "movieId"),
+          IndexSpec.ascending("reviews", "username")
+  );
+
+  @Resource
+  private ManagedExecutorService executor;
+
+  @Inject
+  DatabaseController databaseController;
+
+  private final MongoIndexes indexes = new MongoIndexes(INDEXES);
+
+  @PostConstruct
+  public void ensureIndexes() {
+    executor.submit(() -> indexes.ensure(databaseController.getMovieDatabase()));
+  }
+
+  /**
+   * @return the declared indexes and their state, reported by IndexReadinessCheck
+   */
+  @Produces
+  @Lock(LockType.READ)
+  public MongoIndexes getIndexes() {
+    return indexes;
+  }
+}
@@ -5,6 +5,7 @@ import com.ibm.websphere.security.jwt.JwtConsumer;
 import edu.oswego.cs.rest.JsonClasses.JSession;
 import edu.oswego.cs.rest.JsonClasses.Review;
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.client.Client;
@@ -19,6 +20,9 @@ import java.util.List;
 @Path("/")
 @RequestScoped
 public class ReviewDataService {
+
+  @Inject
+  DatabaseController dbc;
   
   String AuthServiceUrl = System.getenv("AUTH_SERVICE_URL");
 
@@ -57,8 +61,7 @@ public class ReviewDataService {
     String sessionId = review.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController db = new DatabaseController();
-    db.createReview(movieId, review.getReviewDescription(), requesterUsername.toLowerCase(), review.getPrivacy());
+    dbc.createReview(movieId, review.getReviewDescription(), requesterUsername.toLowerCase(), review.getPrivacy());
     return Response.ok().build();
   }
 
@@ -76,7 +79,6 @@ public class ReviewDataService {
     String sessionId = jsession.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Review> reviews = dbc.getReviewsWithUsername(username.toLowerCase());
     return Response.ok(reviews).build();
   }
@@ -89,7 +91,6 @@ public class ReviewDataService {
     String sessionId = jsession.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Review> reviews = dbc.getReviewsWithMovieId(movieId);
     return Response.ok(reviews).build();
   }
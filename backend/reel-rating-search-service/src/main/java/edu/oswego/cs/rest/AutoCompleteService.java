@@ -1,12 +1,14 @@
 package edu.oswego.cs.rest;
 
 import edu.oswego.cs.rest.JsonClasses.Movie;
-import jakarta.json.Json;
+import jakarta.inject.Inject;
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 @ServerEndpoint(value = "/autocomplete", // "/systemLoad"
         decoders = { AutoCompleteDecoder.class },
@@ -15,13 +17,53 @@ import java.util.List;
 
 public class AutoCompleteService {
 
+    // control message a page sends to keep the connection open, it is not a search
+    static final String HEARTBEAT = "heartbeat";
+    // number of suggestions sent for each search
+    static final int SUGGESTIONS = PrefixIndex.TOP;
+
+    @Inject
+    DatabaseController movieDatabase;
+
+    @Inject
+    AutocompleteEngine autocomplete;
+
+    @Inject
+    AutocompleteDispatcher dispatcher;
+
+    @Inject
+    WebSocketHeartbeat heartbeat;
+
     @OnOpen
     public void onOpen(Session session) {
-       
+        heartbeat.register(session);
+    }
+
+    @OnClose
+    public void onClose(Session session) {
+        dispatcher.close(session);
+        heartbeat.unregister(session);
+    }
+
+    @OnError
+    public void onError(Session session, Throwable error) {
+        dispatcher.close(session);
+        heartbeat.unregister(session);
+    }
+
+    // answer to the pings WebSocketHeartbeat sends
+    @OnMessage
+    public void onPong(PongMessage pong, Session session) {
+        heartbeat.pongReceived();
     }
 
     @OnMessage
     public void onMessage(String option, Session session) throws IOException {
+        // older pages send the heartbeat through sendWebSocketMessage, which prefixes it like a title search
+        if (option.equals(HEARTBEAT) || option.equals("title:" + HEARTBEAT)) {
+            heartbeat.controlMessageReceived();
+            return;
+        }
 
 
         //string option.startswith().substring. if
@@ -34,69 +76,71 @@ public class AutoCompleteService {
         //Cast
         //then: var movies = movieDatabase.manualSearchByMovieCast(option);
 
-        var movieDatabase = new DatabaseController();
-
-
-        var split = option.split(":"); // cut at colon.
+        var split = option.split(":", 2); // cut at the first colon, titles may have more.
+        if (split.length < 2) {
+            session.getAsyncRemote().sendText("Please do title: , cast: , director: etc.");
+            return;
+        }
         var searchCommand = split[0];
         var inputForSearch = split[1];
-
-        switch (searchCommand) {
-            case "title" -> {
-                var movies = movieDatabase.manualSearchByMovieName(inputForSearch);
-                sendMovieResults(session, movies);
-            }
-
-            case "releasedate" -> {
-                var movies = movieDatabase.manualSearchByMovieReleaseDate(inputForSearch);
-                sendMovieResults(session, movies);
-            }
-
-            case "director" -> {
-                var movies = movieDatabase.manualSearchByMovieDirector(inputForSearch);
-                sendMovieResults(session, movies);
-            }
-
-            case "cast" -> {
-                var movies = movieDatabase.manualSearchByMovieCast(inputForSearch);
-                sendMovieResults(session, movies);
-            }
-
-            case "indexTitle" -> {
-                var movies = movieDatabase.searchByMovieNameIndex(inputForSearch);
-                sendMovieResults(session, movies);
-            }
-
-            case "indexCast" -> {
-                var movies = movieDatabase.searchByMovieCastIndex(inputForSearch);
-                sendMovieResults(session, movies);
-            }
-            default -> {
-                session.getBasicRemote().sendText("Please do title: , cast: , director: etc.");
-            }
+        // an emptied search bar clears the suggestions instead of matching every movie
+        if (inputForSearch.isBlank()) {
+            heartbeat.searchSkipped();
+            dispatcher.submit(session, () -> AutocompleteEngine.Completions.NONE);
+            return;
         }
 
-    }
+        // the search bar sends everything as a title, searches that name fields go to the query planner
+        if (searchCommand.equals("title") && StructuredQuery.isStructured(inputForSearch)) searchCommand = "query";
 
-    private static void sendMovieResults(Session session, List<Movie> movies){
-        var builder = Json.createObjectBuilder();
-        //put first 5 movies found in here
-        var array = Json.createArrayBuilder();
-        //Picks between size and movies.size. In case less than 5 show up.
-        var maxIndex = Math.min(5, movies.size());
-        for (int i = 0; i < maxIndex; i++) {
-            array.add(movies.get(i).getTitle());
+        Callable<AutocompleteEngine.Completions> search = switch (searchCommand) {
+            case "title" -> () -> autocomplete.complete(AutocompleteEngine.Field.TITLE, inputForSearch);
+
+            // several fields at once, such as director:nolan tag:heist year:2000..2010
+            case "query" -> () -> structured(inputForSearch);
+
+            case "releasedate" -> () -> titles(movieDatabase.manualSearchByMovieReleaseDate(inputForSearch,
+                    SUGGESTIONS, ResultShape.TITLES));
+
+            // directors and cast complete to names rather than to their movies' titles
+            case "director" -> () -> autocomplete.complete(AutocompleteEngine.Field.DIRECTOR, inputForSearch);
+
+            case "cast" -> () -> autocomplete.complete(AutocompleteEngine.Field.CAST, inputForSearch);
+
+            case "indexTitle" -> () -> titles(movieDatabase.searchByMovieNameIndex(inputForSearch,
+                    SUGGESTIONS, ResultShape.TITLES));
+
+            case "indexCast" -> () -> titles(movieDatabase.searchByMovieCastIndex(inputForSearch,
+                    SUGGESTIONS, ResultShape.TITLES));
+
+            default -> null;
+        };
+        if (search == null) {
+            session.getAsyncRemote().sendText("Please do title: , cast: , director: etc.");
+            return;
         }
-        builder.add("results", array);
+        // runs after the debounce window, unless a newer message from this session replaces it
+        dispatcher.submit(session, search);
+    }
 
-        var jsonResults = builder.build();
-        //Sending the list
+    // a search that is still being typed may not parse yet, it suggests nothing until it does
+    private AutocompleteEngine.Completions structured(String query) {
         try {
-            session.getBasicRemote().sendObject(jsonResults);
-        } catch (IOException | EncodeException e) {
-            //prints error
-            e.printStackTrace();
+            return titles(movieDatabase.structuredSearch(query, SUGGESTIONS, ResultShape.TITLES));
+        } catch (IllegalArgumentException e) {
+            return AutocompleteEngine.Completions.NONE;
+        }
+    }
+
+    //put first SUGGESTIONS movies found in here
+    private static AutocompleteEngine.Completions titles(List<Movie> movies) {
+        //Picks between size and movies.size. In case less than SUGGESTIONS show up.
+        var maxIndex = Math.min(SUGGESTIONS, movies.size());
+        var titles = new ArrayList<String>(maxIndex);
+        for (int i = 0; i < maxIndex; i++) {
+            titles.add(movies.get(i).getTitle());
         }
+        return new AutocompleteEngine.Completions(titles, null);
     }
 
     //Have a single endpoint but the endpoint reads the beginning part.
@@ -0,0 +1,137 @@
+package edu.oswego.cs.rest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.websocket.Session;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the searches of the autocomplete WebSockets off the container thread, keeping at most one per session. A search
+ * waits autocomplete.debounceMillis before it starts; a newer message from the same session within that window, or
+ * while the search runs, cancels it. At most autocomplete.maxConcurrency searches run at a time across all sessions.
+ *
+ * Every message a session sends gets the next number of that session's sequence, and the reply carries it as "seq"
+ * next to the "results", so a page can drop a reply older than one it already shows. Replies are sent with the async
+ * remote and replies that are stale by the time their search finishes are not sent at all. Each outcome is counted
+ * in autocomplete.queries, tagged sent, stale or cancelled. A reply whose suggestions were found by correcting a
+ * typo also carries the correction as "didYouMean".
+ */
+@ApplicationScoped
+public class AutocompleteDispatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(AutocompleteDispatcher.class.getName());
+  private static final String STATE = AutocompleteDispatcher.class.getName();
+
+  // search state of one session, kept in its user properties
+  private static final class SessionQueries {
+    final AtomicLong sequence = new AtomicLong();
+    final AtomicReference<Future<?>> current = new AtomicReference<>();
+  }
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  @ConfigProperty(name = "autocomplete.debounceMillis", defaultValue = "75")
+  long debounceMillis;
+
+  @Inject
+  @ConfigProperty(name = "autocomplete.maxConcurrency", defaultValue = "16")
+  int maxConcurrency;
+
+  @Resource
+  private ManagedScheduledExecutorService scheduler;
+
+  private Semaphore permits;
+  private Counter sent;
+  private Counter stale;
+  private Counter cancelled;
+
+  @PostConstruct
+  void init() {
+    permits = new Semaphore(maxConcurrency, true);
+    sent = metrics.counter("autocomplete.queries", new Tag("outcome", "sent"));
+    stale = metrics.counter("autocomplete.queries", new Tag("outcome", "stale"));
+    cancelled = metrics.counter("autocomplete.queries", new Tag("outcome", "cancelled"));
+  }
+
+  /**
+   * Replaces the session's pending search with this one.
+   *
+   * @param search blocking search returning the suggestions to send
+   */
+  public void submit(Session session, Callable<AutocompleteEngine.Completions> search) {
+    SessionQueries queries = queries(session);
+    long sequence = queries.sequence.incrementAndGet();
+    Future<?> next = scheduler.schedule(() -> run(session, queries, sequence, search), debounceMillis,
+            TimeUnit.MILLISECONDS);
+    Future<?> previous = queries.current.getAndSet(next);
+    if (previous != null && previous.cancel(true)) cancelled.inc();
+  }
+
+  /**
+   * Cancels the session's pending search when it closes.
+   */
+  public void close(Session session) {
+    Future<?> previous = queries(session).current.getAndSet(null);
+    if (previous != null && previous.cancel(true)) cancelled.inc();
+  }
+
+  private void run(Session session, SessionQueries queries, long sequence,
+                   Callable<AutocompleteEngine.Completions> search) {
+    try {
+      AutocompleteEngine.Completions completions;
+      permits.acquire();
+      try {
+        if (sequence != queries.sequence.get()) {
+          stale.inc();
+          return;
+        }
+        completions = search.call();
+      } finally {
+        permits.release();
+      }
+      if (sequence != queries.sequence.get() || !session.isOpen()) {
+        stale.inc();
+        return;
+      }
+      List<String> suggestions = completions.results();
+      var array = Json.createArrayBuilder();
+      for (int i = 0; i < Math.min(AutoCompleteService.SUGGESTIONS, suggestions.size()); i++) {
+        array.add(suggestions.get(i));
+      }
+      var reply = Json.createObjectBuilder()
+              .add("seq", sequence)
+              .add("results", array);
+      if (completions.didYouMean() != null) reply.add("didYouMean", completions.didYouMean());
+      session.getAsyncRemote().sendObject(reply.build());
+      sent.inc();
+    } catch (InterruptedException e) {
+      // cancelled by a newer message, counted by submit
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      LOGGER.log(Level.WARNING, "Autocomplete search failed", e);
+    }
+  }
+
+  private static SessionQueries queries(Session session) {
+    return (SessionQueries) session.getUserProperties().computeIfAbsent(STATE, key -> new SessionQueries());
+  }
+}
@@ -0,0 +1,307 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Completions for the autocomplete WebSocket, answered from memory without a database call. Titles, directors and cast
+ * names each have a PrefixIndex, weighted by popularity: a title by its number of ratings, a director or actor by the
+ * movies they worked on and the ratings of those movies.
+ *
+ * The indexes are built at startup on a managed background thread. The titles, directors, cast and rating counts
+ * they are built from are kept, so when the ChangeStreamConsumer reports changes only the changed movies, actors and
+ * rating counts are read again; the indexes are then rebuilt from memory autocomplete.rebuildDelayMillis later,
+ * once for all changes that arrived in the meantime. A rebuild replaces all indexes at once, so a lookup never sees
+ * a mix of old and new. Until the first build finishes there are no completions. A load that fails is tried again
+ * RETRY_SECONDS later, twice as long after every further failure up to MAX_RETRY_SECONDS. The estimated size of the
+ * indexes is published as autocomplete.bytes.
+ *
+ * Each field also has a SpellingIndex over its words. When a prefix has fewer than PrefixIndex.TOP completions, the
+ * words that are not known are corrected within spelling.maxEditDistance edits, the corrected prefix is completed
+ * as well, and the correction is returned as "did you mean". Corrections are looked up in memory only.
+ */
+@Startup
+@Singleton
+public class AutocompleteEngine {
+
+  private static final Logger LOGGER = Logger.getLogger(AutocompleteEngine.class.getName());
+
+  public enum Field { TITLE, DIRECTOR, CAST }
+
+  /**
+   * Completions of a prefix, most popular first, and the corrected prefix they were partly found with, null if the
+   * prefix was not corrected.
+   */
+  public record Completions(List<String> results, String didYouMean) {
+    static final Completions NONE = new Completions(List.of(), null);
+  }
+
+  private record Indexes(PrefixIndex titles, PrefixIndex directors, PrefixIndex cast,
+                         SpellingIndex titleWords, SpellingIndex directorWords, SpellingIndex castWords) {
+    PrefixIndex of(Field field) {
+      return switch (field) {
+        case TITLE -> titles;
+        case DIRECTOR -> directors;
+        case CAST -> cast;
+      };
+    }
+
+    SpellingIndex wordsOf(Field field) {
+      return switch (field) {
+        case TITLE -> titleWords;
+        case DIRECTOR -> directorWords;
+        case CAST -> castWords;
+      };
+    }
+
+    long sizeInBytes() {
+      return titles.sizeInBytes() + directors.sizeInBytes() + cast.sizeInBytes()
+              + titleWords.sizeInBytes() + directorWords.sizeInBytes() + castWords.sizeInBytes();
+    }
+
+    int entries() {
+      return titles.entries() + directors.entries() + cast.entries();
+    }
+  }
+
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  @ConfigProperty(name = "autocomplete.rebuildDelayMillis", defaultValue = "2000")
+  long rebuildDelayMillis;
+
+  @Inject
+  @ConfigProperty(name = "spelling.maxEditDistance", defaultValue = "2")
+  int maxEditDistance;
+
+  @Resource
+  private ManagedScheduledExecutorService scheduler;
+
+  // what a movie and an actor contribute to the indexes
+  private record MovieEntry(String title, String director) {}
+  private record ActorEntry(String name, List<String> movies) {}
+
+  private static final Bson MOVIE_PROJECTION = Projections.include("title", "director");
+  private static final Bson ACTOR_PROJECTION = Projections.include("name", "movies");
+
+  // wait before loading again after a failed load, doubled after every further failure
+  private static final long RETRY_SECONDS = 5;
+  private static final long MAX_RETRY_SECONDS = 300;
+
+  private volatile Indexes indexes;
+  // what the indexes are built from, by id; guarded by stateLock
+  private final Object stateLock = new Object();
+  private Map<String, MovieEntry> movies;
+  private Map<String, ActorEntry> actors;
+  private Map<String, Long> ratingCounts;
+  private boolean rebuildScheduled;
+  private boolean retryScheduled;
+  private long retrySeconds = RETRY_SECONDS;
+  private Timer buildTime;
+
+  @PostConstruct
+  void start() {
+    buildTime = metrics.timer("autocomplete.rebuild");
+    metrics.gauge("autocomplete.bytes", () -> {
+      Indexes current = indexes;
+      return current == null ? 0L : current.sizeInBytes();
+    });
+    metrics.gauge("autocomplete.entries", () -> {
+      Indexes current = indexes;
+      return current == null ? 0 : current.entries();
+    });
+    scheduler.submit(this::reload);
+  }
+
+  /**
+   * @param field what is being typed
+   * @param prefix what has been typed so far
+   * @return up to PrefixIndex.TOP completions, most popular first, followed by those of the corrected prefix if there
+   *     were fewer
+   */
+  @Lock(LockType.READ)
+  public Completions complete(Field field, String prefix) {
+    Indexes current = indexes;
+    if (current == null) return Completions.NONE;
+    List<String> results = current.of(field).complete(prefix);
+    if (results.size() >= PrefixIndex.TOP) return new Completions(results, null);
+    String corrected = current.wordsOf(field).correct(PrefixIndex.normalize(prefix));
+    if (corrected == null) return new Completions(results, null);
+    Set<String> merged = new LinkedHashSet<>(results);
+    for (String completion : current.of(field).complete(corrected)) {
+      if (merged.size() == PrefixIndex.TOP) break;
+      merged.add(completion);
+    }
+    return new Completions(List.copyOf(merged), corrected.strip());
+  }
+
+  /**
+   * Reads all titles, directors, cast and rating counts again and rebuilds the indexes, for when changes may have
+   * been missed. If the read fails, it is tried again later.
+   */
+  @Lock(LockType.READ)
+  public void reload() {
+    try {
+      synchronized (stateLock) {
+        // read into new maps, so a failed read leaves the previous ones whole
+        Map<String, Long> loadedCounts = new HashMap<>();
+        countRatings(loadedCounts, null);
+        Map<String, MovieEntry> loadedMovies = new HashMap<>();
+        movieDatabase.getCollection("movies").find().projection(MOVIE_PROJECTION)
+                .forEach(movie -> putMovie(loadedMovies, movie));
+        Map<String, ActorEntry> loadedActors = new HashMap<>();
+        movieDatabase.getCollection("actors").find().projection(ACTOR_PROJECTION)
+                .forEach(actor -> putActor(loadedActors, actor));
+        ratingCounts = loadedCounts;
+        movies = loadedMovies;
+        actors = loadedActors;
+        retrySeconds = RETRY_SECONDS;
+      }
+      rebuild();
+    } catch (RuntimeException e) {
+      // keep serving the previous indexes
+      LOGGER.log(Level.WARNING, "Could not reload the autocomplete indexes", e);
+      scheduleRetry();
+    }
+  }
+
+  private void scheduleRetry() {
+    synchronized (stateLock) {
+      if (retryScheduled) return;
+      retryScheduled = true;
+      scheduler.schedule(() -> {
+        synchronized (stateLock) {
+          retryScheduled = false;
+        }
+        reload();
+      }, retrySeconds, TimeUnit.SECONDS);
+      retrySeconds = Math.min(retrySeconds * 2, MAX_RETRY_SECONDS);
+    }
+  }
+
+  /**
+   * Reads the movies, actors and rating counts the batch changed and schedules a rebuild.
+   */
+  @Lock(LockType.READ)
+  public void apply(ChangeBatch batch) {
+    if (batch.movies().isEmpty() && batch.actors().isEmpty() && batch.ratedMovies().isEmpty()) return;
+    synchronized (stateLock) {
+      // the first load reads these as they are now
+      if (movies == null) return;
+      if (!batch.movies().isEmpty()) {
+        batch.movies().forEach(movies::remove);
+        movieDatabase.getCollection("movies").find(Filters.in("_id", ChangeBatch.objectIds(batch.movies())))
+                .projection(MOVIE_PROJECTION).forEach(movie -> putMovie(movies, movie));
+      }
+      if (!batch.actors().isEmpty()) {
+        batch.actors().forEach(actors::remove);
+        movieDatabase.getCollection("actors").find(Filters.in("_id", ChangeBatch.objectIds(batch.actors())))
+                .projection(ACTOR_PROJECTION).forEach(actor -> putActor(actors, actor));
+      }
+      if (!batch.ratedMovies().isEmpty()) {
+        batch.ratedMovies().forEach(ratingCounts::remove);
+        countRatings(ratingCounts, Filters.in("movieId", batch.ratedMovies()));
+      }
+      if (!rebuildScheduled) {
+        rebuildScheduled = true;
+        scheduler.schedule(this::rebuild, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  private void countRatings(Map<String, Long> counts, Bson filter) {
+    List<Bson> pipeline = new ArrayList<>();
+    if (filter != null) pipeline.add(Aggregates.match(filter));
+    pipeline.add(Aggregates.group("$movieId", Accumulators.sum("count", 1)));
+    movieDatabase.getCollection("ratings").aggregate(pipeline).forEach(doc -> {
+      if (doc.get("_id") instanceof String movieId) counts.put(movieId, ((Number) doc.get("count")).longValue());
+    });
+  }
+
+  private static void putMovie(Map<String, MovieEntry> movies, Document movie) {
+    movies.put(movie.getObjectId("_id").toHexString(),
+            new MovieEntry(movie.getString("title"), movie.getString("director")));
+  }
+
+  private static void putActor(Map<String, ActorEntry> actors, Document actor) {
+    List<String> actorMovies = actor.getList("movies", String.class);
+    actors.put(actor.getObjectId("_id").toHexString(),
+            new ActorEntry(actor.getString("name"), actorMovies == null ? List.of() : List.copyOf(actorMovies)));
+  }
+
+  private void rebuild() {
+    try {
+      long started = System.nanoTime();
+      Indexes built;
+      synchronized (stateLock) {
+        rebuildScheduled = false;
+        built = build();
+      }
+      indexes = built;
+      buildTime.update(Duration.ofNanos(System.nanoTime() - started));
+      LOGGER.fine("Built autocomplete indexes, " + built.entries() + " entries, " + built.sizeInBytes() + " bytes");
+    } catch (RuntimeException e) {
+      // keep serving the previous indexes, the next change or reload tries again
+      LOGGER.log(Level.WARNING, "Could not rebuild the autocomplete indexes", e);
+    }
+  }
+
+  // runs holding stateLock
+  private Indexes build() {
+    // a movie counts once for everyone who worked on it, and once more for each of its ratings
+    Map<String, Long> movieWeights = new HashMap<>();
+    Map<String, Long> titles = new HashMap<>();
+    Map<String, Long> directors = new HashMap<>();
+    movies.forEach((id, movie) -> {
+      long weight = 1 + ratingCounts.getOrDefault(id, 0L);
+      movieWeights.put(id, weight);
+      addWeight(titles, movie.title(), weight);
+      addWeight(directors, movie.director(), weight);
+    });
+
+    Map<String, Long> cast = new HashMap<>();
+    actors.values().forEach(actor -> {
+      long weight = 0;
+      for (String movieId : actor.movies()) weight += movieWeights.getOrDefault(movieId, 0L);
+      addWeight(cast, actor.name(), weight);
+    });
+    return new Indexes(new PrefixIndex(titles), new PrefixIndex(directors), new PrefixIndex(cast),
+            new SpellingIndex(titles, maxEditDistance), new SpellingIndex(directors, maxEditDistance),
+            new SpellingIndex(cast, maxEditDistance));
+  }
+
+  private static void addWeight(Map<String, Long> weights, String text, long weight) {
+    if (text != null && !text.isBlank()) weights.merge(text.strip(), weight, Long::sum);
+  }
+}
@@ -0,0 +1,332 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import edu.oswego.cs.rest.JsonClasses.Movie;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of the searchable fields of every movie, with an NGramIndex over titles and one over directors and
+ * the movies with a release date sorted newest first. Movies are numbered by their position in the snapshot; those
+ * numbers are what the indexes store and are only meaningful within the snapshot that produced them. Changes are
+ * applied by building a new snapshot from this one and the changed movies.
+ */
+final class CatalogSnapshot {
+
+  static final Bson PROJECTION = Projections.include("title", "plotSummary", "director", "releaseDate",
+          ReleaseDates.PRECISION_FIELD);
+
+  // searchable fields of one movie
+  private record Row(String id, String title, String summary, String director, String releaseDate,
+                     long releaseMillis) {
+    static Row of(Document document) {
+      Object releaseDate = document.get("releaseDate");
+      return new Row(document.getObjectId("_id").toHexString(), document.getString("title"),
+              document.getString("plotSummary"), document.getString("director"),
+              ReleaseDates.format(releaseDate, document.get(ReleaseDates.PRECISION_FIELD)),
+              releaseDate instanceof Date date ? date.getTime() : Long.MIN_VALUE);
+    }
+  }
+
+  private final String[] ids;
+  private final String[] titles;
+  private final String[] summaries;
+  private final String[] directors;
+  private final String[] releaseDates;
+  private final long[] released;
+  // position of every movie by id, for testing single movies against a structured search
+  private final Map<String, Integer> docs;
+  private final NGramIndex titleIndex;
+  private final NGramIndex directorIndex;
+  // movies with a release date, newest first, and their release dates in the same order
+  private final int[] byReleaseDate;
+  private final long[] releaseMillis;
+
+  private CatalogSnapshot(List<Row> rows) {
+    int size = rows.size();
+    ids = new String[size];
+    titles = new String[size];
+    summaries = new String[size];
+    directors = new String[size];
+    releaseDates = new String[size];
+    released = new long[size];
+    docs = new HashMap<>(size * 2);
+    int dated = 0;
+    for (int doc = 0; doc < size; doc++) {
+      Row row = rows.get(doc);
+      ids[doc] = row.id();
+      docs.put(row.id(), doc);
+      titles[doc] = row.title();
+      summaries[doc] = row.summary();
+      directors[doc] = row.director();
+      releaseDates[doc] = row.releaseDate();
+      released[doc] = row.releaseMillis();
+      if (released[doc] != Long.MIN_VALUE) dated++;
+    }
+    titleIndex = new NGramIndex(titles);
+    directorIndex = new NGramIndex(directors);
+
+    Integer[] order = new Integer[dated];
+    for (int doc = 0, i = 0; doc < size; doc++) {
+      if (released[doc] != Long.MIN_VALUE) order[i++] = doc;
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(released[b], released[a]));
+    byReleaseDate = new int[dated];
+    releaseMillis = new long[dated];
+    for (int i = 0; i < dated; i++) {
+      byReleaseDate[i] = order[i];
+      releaseMillis[i] = released[order[i]];
+    }
+  }
+
+  /**
+   * Reads the searchable fields of every movie in one pass over the collection.
+   */
+  static CatalogSnapshot load(MongoCollection<Document> movies) {
+    List<Row> rows = new ArrayList<>();
+    movies.find().projection(PROJECTION).forEach(document -> rows.add(Row.of(document)));
+    return new CatalogSnapshot(rows);
+  }
+
+  /**
+   * @param changed changed movies by id, read with PROJECTION, null for movies that were deleted
+   * @return a snapshot with the changed movies replaced and the deleted ones left out
+   */
+  CatalogSnapshot withChanges(Map<String, Document> changed) {
+    List<Row> rows = new ArrayList<>(ids.length + changed.size());
+    for (int doc = 0; doc < ids.length; doc++) {
+      if (!changed.containsKey(ids[doc])) {
+        rows.add(new Row(ids[doc], titles[doc], summaries[doc], directors[doc], releaseDates[doc], released[doc]));
+      }
+    }
+    changed.values().forEach(document -> {
+      if (document != null) rows.add(Row.of(document));
+    });
+    return new CatalogSnapshot(rows);
+  }
+
+  int size() {
+    return ids.length;
+  }
+
+  /**
+   * Title search, see rank.
+   */
+  int[] topTitles(String query, String[] words, int limit) {
+    return rank(titleIndex, query, words, limit);
+  }
+
+  /**
+   * Director search, see rank.
+   */
+  int[] topDirectors(String query, String[] words, int limit) {
+    return rank(directorIndex, query, words, limit);
+  }
+
+  /**
+   * Finds the movies whose field contains any of the words and keeps the best limit of them. Each match is scored once:
+   * the number of leading characters it shares with the query, then the number of query tokens it has as whole tokens.
+   *
+   * @param query the search as typed
+   * @param words lowercased words to match, from DatabaseController.filterString
+   * @return movies best first
+   */
+  private static int[] rank(NGramIndex index, String query, String[] words, int limit) {
+    String lowerQuery = query.toLowerCase();
+    int[] matches = new int[0];
+    for (String word : words) {
+      matches = union(matches, index.containing(word));
+    }
+    List<int[]> tokenPostings = new ArrayList<>();
+    for (String token : NGramIndex.tokenize(lowerQuery)) tokenPostings.add(index.withToken(token));
+
+    TopK best = new TopK(Math.min(limit, matches.length));
+    for (int doc : matches) {
+      int tokenHits = 0;
+      for (int[] postings : tokenPostings) {
+        if (Arrays.binarySearch(postings, doc) >= 0) tokenHits++;
+      }
+      long score = ((long) DatabaseController.stringSimilarity(lowerQuery, index.value(doc)) << 8)
+              | Math.min(tokenHits, 255);
+      best.offer(doc, score);
+    }
+    return best.result();
+  }
+
+  /**
+   * @param ranges release date ranges as pairs of inclusive start and exclusive end in epoch milliseconds
+   * @return up to limit movies released within any of the ranges, newest first
+   */
+  int[] newestReleasedIn(List<long[]> ranges, int limit) {
+    // every range is a contiguous run of byReleaseDate, found by binary search
+    List<int[]> runs = new ArrayList<>(ranges.size());
+    for (long[] range : ranges) {
+      int first = firstReleasedBefore(range[1]);
+      int end = firstReleasedBefore(range[0]);
+      if (first < end) runs.add(new int[] {first, end});
+    }
+    runs.sort((a, b) -> Integer.compare(a[0], b[0]));
+    int[] page = new int[Math.max(0, Math.min(limit, byReleaseDate.length))];
+    int size = 0;
+    int next = 0;
+    for (int[] run : runs) {
+      for (int i = Math.max(next, run[0]); i < run[1] && size < page.length; i++) {
+        page[size++] = byReleaseDate[i];
+      }
+      next = Math.max(next, run[1]);
+    }
+    return Arrays.copyOf(page, size);
+  }
+
+  // position of the newest movie released before the instant
+  private int firstReleasedBefore(long millis) {
+    int low = 0;
+    int high = releaseMillis.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (releaseMillis[mid] >= millis) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * @return card of the movie with its id, title and summary, the other fields are left for the caller
+   */
+  Movie preview(int doc) {
+    var m = new Movie();
+    m.setId(ids[doc]);
+    m.setSummary(summaries[doc]);
+    m.setTitle(titles[doc]);
+    return m;
+  }
+
+  /**
+   * Structured search clause on the title, see containing.
+   */
+  MoviePredicate titleContains(String text) {
+    return containing(titleIndex, text);
+  }
+
+  /**
+   * Structured search clause on the director, see containing.
+   */
+  MoviePredicate directorContains(String text) {
+    return containing(directorIndex, text);
+  }
+
+  /**
+   * Matches the movies whose field contains the text, estimated from the n-gram postings of the index.
+   */
+  private MoviePredicate containing(NGramIndex index, String text) {
+    String word = text.toLowerCase();
+    return new MoviePredicate() {
+      @Override
+      public long estimate() {
+        return index.estimate(word);
+      }
+
+      @Override
+      public List<String> movies() {
+        return idsOf(index.containing(word));
+      }
+
+      @Override
+      public boolean test(String movieId) {
+        Integer doc = docs.get(movieId);
+        return doc != null && index.value(doc).contains(word);
+      }
+    };
+  }
+
+  /**
+   * Structured search clause on the release date, counted exactly with two binary searches.
+   *
+   * @param from start in epoch milliseconds
+   * @param to exclusive end in epoch milliseconds
+   */
+  MoviePredicate releasedBetween(long from, long to) {
+    return new MoviePredicate() {
+      @Override
+      public long estimate() {
+        return Math.max(0, firstReleasedBefore(from) - firstReleasedBefore(to));
+      }
+
+      @Override
+      public List<String> movies() {
+        List<String> movies = new ArrayList<>();
+        for (int i = firstReleasedBefore(to); i < firstReleasedBefore(from); i++) movies.add(ids[byReleaseDate[i]]);
+        return movies;
+      }
+
+      @Override
+      public boolean test(String movieId) {
+        Integer doc = docs.get(movieId);
+        return doc != null && released[doc] != Long.MIN_VALUE && released[doc] >= from && released[doc] < to;
+      }
+    };
+  }
+
+  /**
+   * Matches every movie, for a structured search whose clauses are all negated.
+   */
+  MoviePredicate everything() {
+    return new MoviePredicate() {
+      @Override
+      public long estimate() {
+        return ids.length;
+      }
+
+      @Override
+      public List<String> movies() {
+        return Arrays.asList(ids);
+      }
+
+      @Override
+      public boolean test(String movieId) {
+        return docs.containsKey(movieId);
+      }
+    };
+  }
+
+  private List<String> idsOf(int[] matches) {
+    List<String> movies = new ArrayList<>(matches.length);
+    for (int doc : matches) movies.add(ids[doc]);
+    return movies;
+  }
+
+  String director(int doc) {
+    return directors[doc];
+  }
+
+  String releaseDate(int doc) {
+    return releaseDates[doc];
+  }
+
+  // merges two sorted posting lists into the documents found in either
+  private static int[] union(int[] a, int[] b) {
+    if (a.length == 0) return b;
+    if (b.length == 0) return a;
+    int[] either = new int[a.length + b.length];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length || j < b.length) {
+      if (j == b.length || (i < a.length && a[i] < b[j])) either[size++] = a[i++];
+      else if (i == a.length || b[j] < a[i]) either[size++] = b[j++];
+      else {
+        either[size++] = a[i++];
+        j++;
+      }
+    }
+    return Arrays.copyOf(either, size);
+  }
+}
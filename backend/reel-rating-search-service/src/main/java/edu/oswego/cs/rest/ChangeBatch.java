@@ -0,0 +1,47 @@
+package edu.oswego.cs.rest;
+
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What a batch of change stream events touched, as ids to read again. An id in movies or actors may belong to a
+ * document that has since been deleted; reading it again finds nothing, and the indexes drop it. Ratings, tags and
+ * reviews are listed by the movie they belong to.
+ *
+ * @param movies ids of movies that were inserted, updated or deleted
+ * @param actors ids of actors that were inserted, updated or deleted
+ * @param ratedMovies ids of movies whose ratings changed
+ * @param taggedMovies ids of movies whose tags changed
+ * @param reviewedMovies ids of movies whose reviews changed
+ */
+record ChangeBatch(Set<String> movies, Set<String> actors, Set<String> ratedMovies, Set<String> taggedMovies,
+                   Set<String> reviewedMovies) {
+
+  ChangeBatch() {
+    this(new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashSet<>());
+  }
+
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  int size() {
+    return movies.size() + actors.size() + ratedMovies.size() + taggedMovies.size() + reviewedMovies.size();
+  }
+
+  /**
+   * @return the ids that are valid ObjectIds, for an <code>$in</code> filter on <code>_id</code>
+   */
+  static List<ObjectId> objectIds(Collection<String> hexIds) {
+    List<ObjectId> ids = new ArrayList<>(hexIds.size());
+    for (String hexId : hexIds) {
+      if (hexId != null && ObjectId.isValid(hexId)) ids.add(new ObjectId(hexId));
+    }
+    return ids;
+  }
+}
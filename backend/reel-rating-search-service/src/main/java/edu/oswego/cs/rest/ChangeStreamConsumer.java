@@ -0,0 +1,302 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.inject.Inject;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the search indexes of this service current by tailing a change stream on the movie database instead of
+ * reading whole collections again. Changes to movies, actors, ratings, tags and reviews are collected into a
+ * ChangeBatch and applied to MovieCatalog, AutocompleteEngine, FacetIndex and FullTextIndex once
+ * changestream.batchSize changes have arrived or changestream.batchMillis has passed, so an index is at most a few
+ * seconds behind.
+ *
+ * The resume token a batch ends at is committed with the FullTextIndex, the only index kept on disk, and the stream
+ * resumes from it after a restart; a token is also committed every changestream.idleTokenSeconds while nothing
+ * changes, so it does not fall out of the oplog. If the token is no longer in the oplog, or the stream is invalidated
+ * by a dropped or renamed collection, every index is rebuilt from the database and the stream starts from the
+ * present. Change streams need a replica set; against a standalone server the indexes are instead rebuilt every
+ * changestream.fallbackRefreshSeconds.
+ *
+ * Events are counted in changestream.events, applied batches in changestream.batches and full rebuilds in
+ * changestream.rebuilds; changestream.lagMillis is how long ago the last applied change was made.
+ */
+@Startup
+@Singleton
+public class ChangeStreamConsumer {
+
+  private static final Logger LOGGER = Logger.getLogger(ChangeStreamConsumer.class.getName());
+
+  private static final List<String> COLLECTIONS = List.of("movies", "actors", "ratings", "tags", "reviews");
+  // operations after which the stream cannot go on and the indexes are rebuilt
+  private static final Set<OperationType> INVALIDATING = Set.of(OperationType.DROP, OperationType.RENAME,
+          OperationType.DROP_DATABASE, OperationType.INVALIDATE);
+  // ChangeStreamHistoryLost, ChangeStreamFatalError and InvalidResumeToken: the token cannot be resumed from
+  private static final Set<Integer> TOKEN_LOST = Set.of(286, 280, 260);
+  // the server is not part of a replica set
+  private static final int NOT_A_REPLICA_SET = 40573;
+
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  MovieCatalog movieCatalog;
+
+  @Inject
+  AutocompleteEngine autocomplete;
+
+  @Inject
+  FacetIndex facetIndex;
+
+  @Inject
+  FullTextIndex fullTextIndex;
+
+  @Inject
+  @ConfigProperty(name = "changestream.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @Inject
+  @ConfigProperty(name = "changestream.batchSize", defaultValue = "1000")
+  int batchSize;
+
+  @Inject
+  @ConfigProperty(name = "changestream.batchMillis", defaultValue = "500")
+  long batchMillis;
+
+  @Inject
+  @ConfigProperty(name = "changestream.idleTokenSeconds", defaultValue = "60")
+  long idleTokenSeconds;
+
+  @Inject
+  @ConfigProperty(name = "changestream.fallbackRefreshSeconds", defaultValue = "300")
+  long fallbackRefreshSeconds;
+
+  // the consumer runs for as long as the service does, so it gets a thread of its own instead of a pool thread
+  @Resource
+  private ManagedThreadFactory threadFactory;
+
+  @Resource
+  private ManagedScheduledExecutorService scheduler;
+
+  private volatile boolean running = true;
+  private Thread consumer;
+  private volatile Future<?> fallbackSync;
+  private volatile Future<?> fallbackRefreshes;
+  private volatile long lastChangeMillis;
+  private Counter events;
+  private Counter batches;
+  private Counter rebuilds;
+
+  @PostConstruct
+  void start() {
+    events = metrics.counter("changestream.events");
+    batches = metrics.counter("changestream.batches");
+    rebuilds = metrics.counter("changestream.rebuilds");
+    metrics.gauge("changestream.lagMillis", () -> lastChangeMillis == 0 ? 0 : System.currentTimeMillis() - lastChangeMillis);
+    if (enabled) {
+      consumer = threadFactory.newThread(this::consume);
+      consumer.setName("changestream-consumer");
+      consumer.start();
+    } else {
+      startFallback();
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    running = false;
+    if (consumer != null) consumer.interrupt();
+    if (fallbackSync != null) fallbackSync.cancel(false);
+    if (fallbackRefreshes != null) fallbackRefreshes.cancel(false);
+  }
+
+  private void consume() {
+    BsonDocument resumeToken = fullTextIndex.resumeToken();
+    while (running) {
+      try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open(resumeToken).cursor()) {
+        if (resumeToken == null) {
+          // the stream is open, so changes made while the indexes are read are not missed
+          rebuild(cursor.getResumeToken());
+        }
+        resumeToken = poll(cursor);
+        // the stream was invalidated, start over from the present
+        resumeToken = null;
+      } catch (MongoCommandException e) {
+        if (e.getErrorCode() == NOT_A_REPLICA_SET) {
+          LOGGER.warning("The movie database is not a replica set, the search indexes are rebuilt every "
+                  + fallbackRefreshSeconds + "s instead of following changes");
+          startFallback();
+          return;
+        }
+        if (TOKEN_LOST.contains(e.getErrorCode())) {
+          LOGGER.warning("Cannot resume the change stream (" + e.getErrorCodeName() + "), rebuilding the search indexes");
+          resumeToken = null;
+        } else {
+          resumeToken = retryAfterError(e);
+        }
+      } catch (MongoInterruptedException e) {
+        return;
+      } catch (MongoException | IllegalStateException e) {
+        resumeToken = retryAfterError(e);
+      }
+    }
+  }
+
+  private ChangeStreamIterable<Document> open(BsonDocument resumeToken) {
+    ChangeStreamIterable<Document> stream = movieDatabase.watch(List.of(
+            Aggregates.match(Filters.or(Filters.in("ns.coll", COLLECTIONS),
+                    Filters.in("operationType", "dropDatabase", "invalidate")))))
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .maxAwaitTime(batchMillis, TimeUnit.MILLISECONDS)
+            .batchSize(batchSize);
+    return resumeToken == null ? stream : stream.resumeAfter(resumeToken);
+  }
+
+  /**
+   * Collects changes into batches and applies them until the stream is invalidated or the service stops.
+   *
+   * @return the token the last applied batch ended at
+   */
+  private BsonDocument poll(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+    ChangeBatch batch = new ChangeBatch();
+    long batchStarted = 0;
+    long tokenSaved = System.nanoTime();
+    BsonDocument applied = cursor.getResumeToken();
+    while (running) {
+      ChangeStreamDocument<Document> change = cursor.tryNext();
+      if (change != null) {
+        events.inc();
+        if (INVALIDATING.contains(change.getOperationType())) {
+          LOGGER.warning("Change stream invalidated by a " + change.getOperationType().getValue()
+                  + ", rebuilding the search indexes");
+          return applied;
+        }
+        if (batch.isEmpty()) batchStarted = System.nanoTime();
+        add(batch, change);
+        if (change.getWallTime() != null) lastChangeMillis = change.getWallTime().getValue();
+      }
+      long now = System.nanoTime();
+      if (!batch.isEmpty() && (batch.size() >= batchSize || now - batchStarted >= batchMillis * 1_000_000)) {
+        applied = cursor.getResumeToken();
+        apply(batch, applied);
+        batch = new ChangeBatch();
+        tokenSaved = now;
+      } else if (batch.isEmpty() && now - tokenSaved >= TimeUnit.SECONDS.toNanos(idleTokenSeconds)) {
+        BsonDocument token = cursor.getResumeToken();
+        if (token != null && !token.equals(applied)) {
+          fullTextIndex.saveResumeToken(token);
+          applied = token;
+        }
+        tokenSaved = now;
+      }
+    }
+    return applied;
+  }
+
+  private static void add(ChangeBatch batch, ChangeStreamDocument<Document> change) {
+    if (change.getNamespace() == null) return;
+    switch (change.getNamespace().getCollectionName()) {
+      case "movies" -> addId(batch.movies(), change);
+      case "actors" -> addId(batch.actors(), change);
+      case "ratings" -> addMovieId(batch.ratedMovies(), change);
+      case "tags" -> addMovieId(batch.taggedMovies(), change);
+      case "reviews" -> addMovieId(batch.reviewedMovies(), change);
+      default -> { }
+    }
+  }
+
+  private static void addId(Set<String> ids, ChangeStreamDocument<Document> change) {
+    BsonDocument key = change.getDocumentKey();
+    BsonValue id = key == null ? null : key.get("_id");
+    if (id != null && id.isObjectId()) ids.add(id.asObjectId().getValue().toHexString());
+  }
+
+  // a deleted rating, tag or review no longer says which movie it was for, a full rebuild corrects the counts
+  private static void addMovieId(Set<String> movieIds, ChangeStreamDocument<Document> change) {
+    Document document = change.getFullDocument();
+    if (document != null && document.getString("movieId") != null) movieIds.add(document.getString("movieId"));
+  }
+
+  private void apply(ChangeBatch batch, BsonDocument resumeToken) {
+    movieCatalog.apply(batch);
+    autocomplete.apply(batch);
+    facetIndex.apply(batch);
+    // last, so the token is only stored once every index has the batch
+    fullTextIndex.apply(batch, resumeToken);
+    batches.inc();
+  }
+
+  /**
+   * Reads everything again. This includes a start without a token: the in-memory indexes have already begun loading
+   * on their own, possibly before the stream opened, and changes made between their read and the stream would
+   * otherwise never reach them.
+   */
+  private void rebuild(BsonDocument resumeToken) {
+    rebuilds.inc();
+    movieCatalog.reload();
+    autocomplete.reload();
+    facetIndex.reload();
+    fullTextIndex.sync(resumeToken);
+  }
+
+  /**
+   * Waits before the stream is opened again. Without a committed token the stream starts from the present, so the
+   * caller has to rebuild every index to pick up what changed in between.
+   *
+   * @return the last committed token, null if there is none
+   */
+  private BsonDocument retryAfterError(Exception e) {
+    LOGGER.log(Level.WARNING, "Change stream failed, resuming from the last committed token", e);
+    try {
+      TimeUnit.SECONDS.sleep(5);
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+    return fullTextIndex.resumeToken();
+  }
+
+  private void startFallback() {
+    if (!running) return;
+    fallbackSync = scheduler.submit(() -> fullTextIndex.sync(null));
+    fallbackRefreshes = scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        rebuild(null);
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Could not rebuild the search indexes", e);
+      }
+    }, fallbackRefreshSeconds, fallbackRefreshSeconds, TimeUnit.SECONDS);
+  }
+}
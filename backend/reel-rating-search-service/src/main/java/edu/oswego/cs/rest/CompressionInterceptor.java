@@ -0,0 +1,174 @@
+package edu.oswego.cs.rest;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response bodies larger than compression.thresholdBytes with gzip or deflate, preferring gzip.
+ */
+@Provider
+@ApplicationScoped
+public class CompressionInterceptor implements WriterInterceptor {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  @Context
+  HttpHeaders requestHeaders;
+
+  @Inject
+  @ConfigProperty(name = "compression.thresholdBytes", defaultValue = "1024")
+  int thresholdBytes;
+
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+    MultivaluedMap<String, Object> headers = context.getHeaders();
+    headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    String encoding = negotiate(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+    if (encoding == null || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+      context.proceed();
+      return;
+    }
+    ThresholdOutputStream out = new ThresholdOutputStream(context.getOutputStream(), headers, encoding,
+            thresholdBytes);
+    context.setOutputStream(out);
+    context.proceed();
+    out.finish();
+  }
+
+  /**
+   * Picks the encoding for an Accept-Encoding header, ignoring codings with q=0.
+   * @return gzip, deflate, or null if the client accepts neither
+   */
+  static String negotiate(String acceptEncoding) {
+    if (acceptEncoding == null) return null;
+    boolean gzip = false;
+    boolean deflate = false;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      if (isRefused(parts)) continue;
+      String name = parts[0].trim().toLowerCase(Locale.ROOT);
+      if (name.equals("gzip") || name.equals("*")) gzip = true;
+      else if (name.equals("deflate")) deflate = true;
+    }
+    return gzip ? "gzip" : deflate ? "deflate" : null;
+  }
+
+  private static boolean isRefused(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String param = parts[i].trim();
+      if (param.startsWith("q=")) {
+        try {
+          return Double.parseDouble(param.substring(2)) <= 0;
+        } catch (NumberFormatException e) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  // holds the body back until it passes the threshold, so the headers can still be changed
+  private static final class ThresholdOutputStream extends OutputStream {
+    private final OutputStream target;
+    private final MultivaluedMap<String, Object> headers;
+    private final String encoding;
+    private final int threshold;
+    private ByteArrayOutputStream held = new ByteArrayOutputStream();
+    private DeflaterOutputStream compressor;
+    private Deflater deflater;
+    private boolean finished;
+
+    ThresholdOutputStream(OutputStream target, MultivaluedMap<String, Object> headers, String encoding,
+                          int threshold) {
+      this.target = target;
+      this.headers = headers;
+      this.encoding = encoding;
+      this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (compressor != null) {
+        compressor.write(b, off, len);
+        return;
+      }
+      held.write(b, off, len);
+      if (held.size() > threshold) startCompressing();
+    }
+
+    private void startCompressing() throws IOException {
+      headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+      headers.remove(HttpHeaders.CONTENT_LENGTH);
+      if (encoding.equals("gzip")) {
+        GzipOutputStream gzip = new GzipOutputStream(target);
+        deflater = gzip.deflater();
+        compressor = gzip;
+      } else {
+        deflater = new Deflater();
+        compressor = new DeflaterOutputStream(target, deflater, BUFFER_SIZE);
+      }
+      held.writeTo(compressor);
+      held = null;
+    }
+
+    // while the body is held back, flushing would send the headers before the encoding is known
+    @Override
+    public void flush() throws IOException {
+      if (compressor != null) compressor.flush();
+    }
+
+    /**
+     * Sends what is still held back, or the end of the compressed body. The response stream stays open.
+     */
+    void finish() throws IOException {
+      if (finished) return;
+      finished = true;
+      if (compressor == null) {
+        held.writeTo(target);
+        held = null;
+      } else {
+        compressor.finish();
+        deflater.end();
+      }
+      target.flush();
+    }
+
+    // the server closes the response stream, only the body written through this one is completed
+    @Override
+    public void close() throws IOException {
+      finish();
+    }
+  }
+
+  // GZIPOutputStream ends its Deflater only in close(), which would also close the response stream
+  private static final class GzipOutputStream extends GZIPOutputStream {
+    GzipOutputStream(OutputStream out) throws IOException {
+      super(out, BUFFER_SIZE);
+    }
+
+    Deflater deflater() {
+      return def;
+    }
+  }
+}
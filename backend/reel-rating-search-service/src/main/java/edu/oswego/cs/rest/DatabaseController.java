@@ -1,6 +1,13 @@
 package edu.oswego.cs.rest;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+
 import java.util.*;
+import java.util.regex.Pattern;
 
 import com.mongodb.client.model.*;
 import edu.oswego.cs.rest.JsonClasses.*;
@@ -8,55 +15,79 @@ import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
-import static com.mongodb.client.model.Filters.elemMatch;
 import static com.mongodb.client.model.Filters.eq;
 
+@ApplicationScoped
 public class DatabaseController {
-  private static String mongoDatabaseName = System.getenv("MONGO_MOVIE_DATABASE_NAME");
-  private static String mongoURL = System.getenv("MONGO_MOVIE_URL");
-  private static MongoClient mongoClient = MongoClients.create(mongoURL);
-
-  public static MongoDatabase getMovieDatabase() {
-    return mongoClient.getDatabase(mongoDatabaseName);
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  // how long a per-movie aggregate is reused by the requests that follow it
+  @Inject
+  @ConfigProperty(name = "singleflight.ttlMillis", defaultValue = "1000")
+  long singleFlightTtlMillis;
+
+  // most popular rating of a movie, shared by concurrent requests for the same movie
+  private SingleFlight<String, Rating> mostPopularRatings;
+
+  @Inject
+  CardEnricher cardEnricher;
+
+  @Inject
+  MovieCatalog movieCatalog;
+
+  @Inject
+  FullTextIndex fullTextIndex;
+
+  @Inject
+  FacetIndex facetIndex;
+
+  @Inject
+  QueryPlanner queryPlanner;
+
+  // number of tags and of rating categories counted for a facet search
+  @Inject
+  @ConfigProperty(name = "facets.limit", defaultValue = "20")
+  int facetLimit;
+
+  // page size of the tag, rating category, facet, structured and full-text searches, and the number of cards
+  // given their tags and rating by the unbounded manual searches
+  @Inject
+  @ConfigProperty(name = "search.pageSize", defaultValue = "50")
+  int pageSize;
+
+  // collection handles, looked up once
+  private MongoCollection<Document> movieCollection;
+  private MongoCollection<Document> actorCollection;
+  private MongoCollection<Document> tagCollection;
+  private MongoCollection<Document> ratingCollection;
+
+  @PostConstruct
+  void init() {
+    movieCollection = movieDatabase.getCollection("movies");
+    actorCollection = movieDatabase.getCollection("actors");
+    tagCollection = movieDatabase.getCollection("tags");
+    ratingCollection = movieDatabase.getCollection("ratings");
+    mostPopularRatings = new SingleFlight<>("mostPopularRating", singleFlightTtlMillis, metrics);
   }
 
-
-  /**
-   * Creates text index for the movie title field. Repeated calls of this method don't do anything.
-   */
-  public void createTitleIndex() {
-    var movies = getMovieCollection();
-    movies.createIndex(Indexes.text("title"));
+  public MongoDatabase getMovieDatabase() {
+    return movieDatabase;
   }
 
-  /**
-   * Creates text index for actor name field. Repeated calls of this method don't do anything.
-   */
-  public void createActorNameIndex() {
-    var movies = getActorCollection();
-    movies.createIndex(Indexes.text("name"));
-  }
 
-  /**
-   * Creates text index for tag name field. Repeated calls of this method don't do anything.
-   */
-  public void createTagIndex() {
-    var tags = getTagCollection();
-    tags.createIndex(Indexes.text("tagName"));  
-  }
-
-  /**
-   * Creates text index for rating name field. Repeated calls of this method don't do anything.
+  /*
+   * Projections. Searches only read the fields they match on plus the fields documentToMoviePreview needs, never the
+   * whole movie document.
    */
-  public void createRatingIndex() {
-    var ratings = getRatingCollection();
-    ratings.createIndex(Indexes.text("ratingName"));
-  }
+  private static final Bson PREVIEW_PROJECTION = Projections.include("title", "plotSummary");
+  private static final Bson TITLE_PROJECTION = Projections.include("title");
 
   // We could have duplicate collections with the same data each of which have a text index for each field. That sounds
   // like a bad idea since it'd make things harder to update and take up more space.
@@ -67,7 +98,7 @@ public class DatabaseController {
    * @return Movie collection.
    */
   public MongoCollection<Document> getMovieCollection() {
-    return getMovieDatabase().getCollection("movies");
+    return movieCollection;
   }
 
   /**
@@ -76,7 +107,7 @@ public class DatabaseController {
    * @return Actors collection.
    */
   public MongoCollection<Document> getActorCollection() {
-    return getMovieDatabase().getCollection("actors");
+    return actorCollection;
   }
 
   /**
@@ -85,7 +116,7 @@ public class DatabaseController {
    * @return Tag collection.
    */
   public MongoCollection<Document> getTagCollection() {
-    return getMovieDatabase().getCollection("tags");
+    return tagCollection;
   }
 
   /**
@@ -94,58 +125,89 @@ public class DatabaseController {
    * @return Ratings collection.
    */
   public MongoCollection<Document> getRatingCollection() {
-    return getMovieDatabase().getCollection ("ratings");
+    return ratingCollection;
   }
 
   /**
-   * Search movies by tag names.
+   * Search movies by tag names. This method uses the FacetIndex and does not query Mongo for the matches.
    *
    * @param tagName The tag name to search by.
-   * @return Movies with the tag.
+   * @return The first page of movies with a tag whose name contains one of the words, in title order.
    */
   public List<Movie> searchByTagName(String tagName) {
-    createTagIndex();
-    var moviesToReturn = new ArrayList<Movie>();
-    TextSearchOptions options = new TextSearchOptions().caseSensitive(false);
-    //Return iterable of documents for tag name with search name
-    //Since Tags name only contains one movie but one movie contains multiple tagnames (possibly of the same name), it return the tagNames then compares the attached tags collection in Movies collection
-    Bson filter = Filters.text(tagName, options);
-    var tags = getTagCollection();
-    tags.find(filter).forEach(document -> {
-      String name = document.getString("tagName");
-      var movies = getMovieCollection();
-      Bson filters = elemMatch("AttachedTags", eq("tagName", name));
-      movies.find(filters).forEach(document1 -> {
-        Movie m = documentToMoviePreview(document1);
-        moviesToReturn.add(m);
-      });
-    });
-    return moviesToReturn;
+    return searchByTagName(tagName, pageSize, ResultShape.CARDS);
   }
 
   /**
-   * Search movies by rating name.
+   * Search movies by tag names, see searchByTagName(String).
+   *
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   */
+  public List<Movie> searchByTagName(String tagName, int limit, ResultShape shape) {
+    return moviesWithHexIds(facetIndex.searchTags(filterString(tagName), limit), shape);
+  }
+
+  /**
+   * Search movies by rating name. This method uses the FacetIndex and does not query Mongo for the matches.
    *
    * @param ratingName The rating name to search by.
-   * @return Movies with the rating name.
+   * @return The first page of movies rated in a category whose name contains one of the words, in title order.
    */
   public List<Movie> searchbyRatingName(String ratingName) {
-    createRatingIndex();
+    return moviesWithHexIds(facetIndex.searchCategories(filterString(ratingName), pageSize), ResultShape.CARDS);
+  }
+
+  /**
+   * Search movies by combinations of tags and rating categories. A movie matches if it has every tag and category of
+   * allTags and allCategories, at least one of anyTags and of anyCategories when those are given, and none of notTags
+   * and notCategories. Names are matched case-insensitively and in full.
+   *
+   * @param query The tags and categories, and optionally an offset and a limit of at most the page size.
+   * @return One page of matching movies in title order, the number of matching movies, and the most frequent tags
+   * and rating categories among all matching movies with their counts.
+   */
+  public FacetResult facetSearch(FacetQuery query) {
+    int offset = query.getOffset() == null ? 0 : Math.max(0, query.getOffset());
+    int limit = query.getLimit() == null ? pageSize : Math.max(0, Math.min(query.getLimit(), pageSize));
+    FacetIndex.Selection selection = facetIndex.search(query, offset, limit, facetLimit);
+    var result = new FacetResult();
+    result.setTotal(selection.total());
+    result.setMovies(moviesWithHexIds(selection.movieIds(), ResultShape.CARDS));
+    result.setTagCounts(selection.tagCounts());
+    result.setCategoryCounts(selection.categoryCounts());
+    return result;
+  }
+
+  /**
+   * Search movies with a structured search that combines fields, such as
+   * <code>director:nolan tag:heist year:2000..2010 rating:"Stickiness"&gt;7</code>. See StructuredQuery for the syntax
+   * and QueryPlanner for how it runs; no clause scans the movie collection.
+   *
+   * @param query The structured search.
+   * @return The first page of movies matching every clause.
+   * @throws IllegalArgumentException if the search cannot be parsed
+   */
+  public List<Movie> structuredSearch(String query) {
+    return structuredSearch(query, pageSize, ResultShape.CARDS);
+  }
+
+  /**
+   * Search movies with a structured search, see structuredSearch(String).
+   *
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   */
+  public List<Movie> structuredSearch(String query, int limit, ResultShape shape) {
+    return moviesWithHexIds(queryPlanner.search(query, limit), shape);
+  }
+
+  // the movies of the ids in the same order, as titles or movie cards
+  private List<Movie> moviesWithHexIds(List<String> movieIds, ResultShape shape) {
     var moviesToReturn = new ArrayList<Movie>();
-    TextSearchOptions options = new TextSearchOptions().caseSensitive(false);
-    //Return iterable of documents for Rating name with search name
-    Bson filter = Filters.text(ratingName, options);
-    var ratings = getRatingCollection();
-    ratings.find(filter).forEach(document -> {
-      String name = document.getString("ratingName");
-      var movies = getMovieCollection();
-      Bson filters = elemMatch("ratings", eq("ratingName", name));
-      movies.find(filters).forEach(document1 -> {
-        Movie m = documentToMoviePreview(document1);
-        moviesToReturn.add(m);
-      });
-    });
-    return moviesToReturn;
+    getMovieDocumentsWithHexIds(getMovieCollection(), movieIds, projectionFor(shape))
+            .forEach(m -> moviesToReturn.add(documentToMoviePreview(m)));
+    return shaped(moviesToReturn, shape);
   }
 
   
@@ -166,19 +228,31 @@ public class DatabaseController {
    * @return The movies with similar titles
    */
   public List<Movie> searchByMovieNameIndex(String title){
-    //Must create a text index before running a text search
-    createTitleIndex();
+    return searchByMovieNameIndex(title, Integer.MAX_VALUE, ResultShape.CARDS);
+  }
+
+  /**
+   * Search movies by name with Mongo's text index, best text score first. The limit is part of the query, so only
+   * the movies returned are read.
+   *
+   * @param title The title to search by.
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   * @return The movies with similar titles
+   */
+  public List<Movie> searchByMovieNameIndex(String title, int limit, ResultShape shape) {
     var moviesToReturn = new ArrayList<Movie>();
     TextSearchOptions options = new TextSearchOptions().caseSensitive(false);
     //Returns iterable of documents
     Bson filter = Filters.text(title, options);
     var movies = getMovieCollection();
     //turning documents into movie objects
-    movies.find(filter).forEach(document -> {
+    movies.find(filter).projection(Projections.fields(projectionFor(shape), Projections.metaTextScore("score")))
+            .sort(Sorts.metaTextScore("score")).limit(limit).forEach(document -> {
       Movie m = documentToMoviePreview(document);
       moviesToReturn.add(m);
     });
-    return moviesToReturn;
+    return shaped(moviesToReturn, shape);
   }
   
   //get a list of words to search
@@ -194,36 +268,27 @@ public class DatabaseController {
    * Search movies by name. This method's implementation of search is not as good as Mongo's text search.
    *
    * @param title Movie title to search by.
-   * @return Movies with similar titles.
+   * @return All movies with similar titles.
    */
   public List<Movie> manualSearchByMovieName(String title) {
-    var moviesToReturn = new ArrayList<Movie>();
-    var movies = getMovieCollection();
+    return manualSearchByMovieName(title, Integer.MAX_VALUE, ResultShape.CARDS);
+  }
+
+  /**
+   * Search movies by name in the MovieCatalog. Only the movies on the page are given their tags and rating.
+   *
+   * @param title Movie title to search by.
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   * @return Movies with similar titles, most similar first.
+   */
+  public List<Movie> manualSearchByMovieName(String title, int limit, ResultShape shape) {
     //The partial part
     String[] words = filterString(title);
-    movies.find().forEach(doc -> {
-      var movieTitle = doc.getString("title").toLowerCase();
-      for (String word : words) {
-        if (movieTitle.toLowerCase().contains(word)) {
-          var m = documentToMoviePreview(doc);
-          moviesToReturn.add(m);
-          break; //No duplicates
-        }
-      }
-    });
-
-    moviesToReturn.sort((o1, o2) -> {
-      int o1Score = stringSimilarity(title, o1.getTitle());
-      int o2Score = stringSimilarity(title, o2.getTitle());
-
-      return Integer.compare(o2Score, o1Score);
-
-    });
-
-    return moviesToReturn;
+    return shaped(movieCatalog.searchTitles(title, words, limit), shape);
   }
 
-  private static int stringSimilarity(String title, String o1) {
+  static int stringSimilarity(String title, String o1) {
     //The amount of characters starting from left to right that match the input string.
     var inputLowerCase = title.toLowerCase();
     var o1LowerCase = o1.toLowerCase();
@@ -270,72 +335,82 @@ public class DatabaseController {
   // Then: 2030s = 2031, 2032, 2033..etc (maybe later). idk if requirement
   //Should it take words??
 
+  // a year, or a decade when followed by "s", for example 1999 or 1990s
+  private static final Pattern YEAR_OR_DECADE = Pattern.compile("\\b(\\d{4})(s?)\\b");
+
   /**
-   * Search movies by release date. The search algorithm is not done by Mongo's text search.
+   * Search movies by release date. Every year ("1999") or decade ("1990s") in the input becomes a range of release
+   * dates, looked up in the MovieCatalog. Results are newest first.
    *
    * @param releaseDate Release date to search by.
-   * @return Movies with the release date.
+   * @return All movies with the release date.
    */
   public List<Movie> manualSearchByMovieReleaseDate(String releaseDate) {
-    var moviesToReturn = new ArrayList<Movie>();
-    var movies = getMovieCollection();
-
-    String[] words = filterString(releaseDate);
-
-    movies.find().forEach(doc -> {
-      var movieDate = doc.getString("releaseDate");
-      for (String word : words) {
-        if (movieDate.toLowerCase().contains(word)) {
-          var m = documentToMoviePreview(doc);
-          moviesToReturn.add(m);
-          break; //No duplicates
-        }
-      }
-    });
-
-    moviesToReturn.sort((o1, o2) -> {
-      int o1Score = stringSimilarity(releaseDate, o1.getReleaseDate());
-      int o2Score = stringSimilarity(releaseDate, o2.getReleaseDate());
-
-      return Integer.compare(o2Score, o1Score);
-
-    });
+    return manualSearchByMovieReleaseDate(releaseDate, Integer.MAX_VALUE, ResultShape.CARDS);
+  }
 
-    return moviesToReturn;
+  /**
+   * Search movies by release date, see manualSearchByMovieReleaseDate(String).
+   *
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   */
+  public List<Movie> manualSearchByMovieReleaseDate(String releaseDate, int limit, ResultShape shape) {
+    var ranges = new ArrayList<long[]>();
+    var matcher = YEAR_OR_DECADE.matcher(releaseDate.toLowerCase());
+    while (matcher.find()) {
+      int year = Integer.parseInt(matcher.group(1));
+      boolean decade = !matcher.group(2).isEmpty();
+      int from = decade ? year - year % 10 : year;
+      int to = from + (decade ? 10 : 1);
+      ranges.add(new long[] {ReleaseDates.startOfYear(from).getTime(), ReleaseDates.startOfYear(to).getTime()});
+    }
+    if (ranges.isEmpty()) return new ArrayList<>();
+    return shaped(movieCatalog.searchReleaseDates(ranges, limit), shape);
   }
 
   /**
    * Search for movies by movie directors. This method does not use Mongo's text search.
    *
    * @param director The director to search by.
-   * @return Movies with similar director names.
+   * @return All movies with similar director names.
    */
   public List<Movie> manualSearchByMovieDirector(String director) {
-    var moviesToReturn = new ArrayList<Movie>();
-    var movies = getMovieCollection();
+    return manualSearchByMovieDirector(director, Integer.MAX_VALUE, ResultShape.CARDS);
+  }
 
+  /**
+   * Search for movies by director in the MovieCatalog. Only the movies on the page are given their tags and rating.
+   *
+   * @param director The director to search by.
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   * @return Movies with similar director names, most similar first.
+   */
+  public List<Movie> manualSearchByMovieDirector(String director, int limit, ResultShape shape) {
     String[] words = filterString(director);
+    return shaped(movieCatalog.searchDirectors(director, words, limit), shape);
+  }
 
-    movies.find().forEach(doc -> {
-      var movieDirector = doc.getString("director");
-      for (String word : words) {
-        if (movieDirector.toLowerCase().contains(word)) {
-          var m = documentToMoviePreview(doc);
-          moviesToReturn.add(m);
-          break; //No duplicates
-        }
-      }
-    });
-
-    moviesToReturn.sort((o1, o2) -> {
-      int o1Score = stringSimilarity(director, o1.getDirector());
-      int o2Score = stringSimilarity(director, o2.getDirector());
-
-      return Integer.compare(o2Score, o1Score);
-
-    });
+  /**
+   * Search movies by title, plot summary, director, cast and public reviews, ranked by relevance. This method uses
+   * the FullTextIndex and does not query Mongo for the matches.
+   *
+   * @param text The words to search for.
+   * @return The first page of movies, most relevant first.
+   */
+  public List<Movie> fullTextSearch(String text) {
+    return fullTextSearch(text, pageSize, ResultShape.CARDS);
+  }
 
-    return moviesToReturn;
+  /**
+   * Search movies in the FullTextIndex, see fullTextSearch(String).
+   *
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   */
+  public List<Movie> fullTextSearch(String text, int limit, ResultShape shape) {
+    return shaped(fullTextIndex.search(text, limit), shape);
   }
 
   //Get actor name ->actorid -> list of movies
@@ -345,45 +420,60 @@ public class DatabaseController {
    * Search movies by cast. This method doesn't use Mongo's text search.
    *
    * @param cast The cast to search for.
-   * @return Movies with the cast members given.
+   * @return All movies with the cast members given.
    */
   public List<Movie> manualSearchByMovieCast(String cast) {
+    return manualSearchByMovieCast(cast, Integer.MAX_VALUE, ResultShape.CARDS);
+  }
+
+  /**
+   * Search movies by cast, the movies of the actors with the most similar names first. Only the first limit movie ids
+   * are loaded from the movie collection.
+   *
+   * @param cast The cast to search for.
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   * @return Movies with the cast members given.
+   */
+  public List<Movie> manualSearchByMovieCast(String cast, int limit, ResultShape shape) {
 
     var moviesToReturn = new ArrayList<Movie>();
-    var actorsToSearch = new ArrayList<Actor>();
     var actorsCollection = getActorCollection();
     var moviesCollection = getMovieCollection();
 
     String[] words = filterString(cast);
+    var matchingActors = new ArrayList<Document>();
 
     //Looking into actor collection
-    actorsCollection.find().forEach(a->{
+    actorsCollection.find().projection(Projections.include("name", "movies")).forEach(a->{
       //if the input name has an actor associated with it, get the movieID associated with it.
       for (String word : words) {
-        if (a.getString("name").toLowerCase().contains(word)){
-          var actorMovies = a.getList("movies", String.class);
-          actorMovies.forEach(id->{
-            var objectId = new ObjectId(id);
-            var filter = eq("_id", objectId);
-            //movieIds to movie objects
-            moviesCollection.find(filter).forEach(m->{
-              var movie = documentToMoviePreview(m);
-              moviesToReturn.add(movie);
-            });
-          });
+        if (!word.isEmpty() && a.getString("name").toLowerCase().contains(word)){
+          matchingActors.add(a);
+          break;
         }
       }
     });
+    // score every actor once, then take their movies in that order
+    var scores = new IdentityHashMap<Document, Integer>();
+    matchingActors.forEach(a -> scores.put(a, stringSimilarity(cast, a.getString("name"))));
+    matchingActors.sort((a1, a2) -> Integer.compare(scores.get(a2), scores.get(a1)));
 
-    moviesToReturn.sort((o1, o2) -> {
-      int o1Score = stringSimilarity(cast, o1.getPrincipleCast());
-      int o2Score = stringSimilarity(cast, o2.getPrincipleCast());
-
-      return Integer.compare(o2Score, o1Score);
-
-    });
+    var movieIds = new LinkedHashSet<String>();
+    for (Document a : matchingActors) {
+      var actorMovies = a.getList("movies", String.class);
+      if (actorMovies == null) continue;
+      for (String movieId : actorMovies) {
+        if (movieIds.size() == limit) break;
+        if (movieId != null && ObjectId.isValid(movieId)) movieIds.add(movieId);
+      }
+      if (movieIds.size() == limit) break;
+    }
+    //movieIds to movie objects
+    getMovieDocumentsWithHexIds(moviesCollection, new ArrayList<>(movieIds), projectionFor(shape))
+            .forEach(m -> moviesToReturn.add(documentToMoviePreview(m)));
 
-    return moviesToReturn;
+    return shaped(moviesToReturn, shape);
   }
 
 
@@ -398,31 +488,79 @@ public class DatabaseController {
    * @return Movies with similar cast members.
    */
   public List<Movie> searchByMovieCastIndex(String cast) {
+    return searchByMovieCastIndex(cast, Integer.MAX_VALUE, ResultShape.CARDS);
+  }
+
+  /**
+   * Search movies by cast with the actor text index, the movies of the best matching actors first. Only the first
+   * limit movie ids are loaded from the movie collection.
+   *
+   * @param cast The cast to search for.
+   * @param limit Largest number of movies to return.
+   * @param shape Whether to return titles or full movie cards.
+   * @return Movies with similar cast members.
+   */
+  public List<Movie> searchByMovieCastIndex(String cast, int limit, ResultShape shape) {
 
     var moviesToReturn = new ArrayList<Movie>();
     var actorsCollection = getActorCollection();
     var moviesCollection = getMovieCollection();
 
-    //Must create a text index before running a text search
-    createActorNameIndex();
     var options = new TextSearchOptions().caseSensitive(false);
     Bson filter = Filters.text(cast, options);
-    actorsCollection.find(filter).forEach(a -> {
+    var movieIds = new LinkedHashSet<String>();
+    for (Document a : actorsCollection.find(filter)
+            .projection(Projections.fields(Projections.include("movies"), Projections.metaTextScore("score")))
+            .sort(Sorts.metaTextScore("score"))) {
       var actorMovies = a.getList("movies", String.class);
-      actorMovies.forEach(id -> {
-        var objectId = new ObjectId(id);
-        var eqFilter = eq("_id", objectId);
-        moviesCollection.find(eqFilter).forEach(m -> {
-          var movie = documentToMoviePreview(m);
-          moviesToReturn.add(movie);
-        });
-      });
-    });
+      if (actorMovies == null) continue;
+      for (String movieId : actorMovies) {
+        if (movieIds.size() == limit) break;
+        if (movieId != null && ObjectId.isValid(movieId)) movieIds.add(movieId);
+      }
+      if (movieIds.size() == limit) break;
+    }
+    getMovieDocumentsWithHexIds(moviesCollection, new ArrayList<>(movieIds), projectionFor(shape))
+            .forEach(m -> moviesToReturn.add(documentToMoviePreview(m)));
 
-    return moviesToReturn;
+    return shaped(moviesToReturn, shape);
   }
 
 
+  // largest $in list sent in one query by getMovieDocumentsWithHexIds
+  private static final int ID_BATCH_SIZE = 500;
+
+  /**
+   * Loads many movies by id with one <code>$in</code> query per batch of ids instead of one query per id. The
+   * documents come back in the order of the ids given; ids that are not valid ObjectIds or whose movie no longer
+   * exists are skipped, as are repeated ids.
+   *
+   * @param moviesCollection MongoDB collection of movies
+   * @param hexIds MongoDB hex ids of the movies to load
+   * @param projection fields to read
+   * @return the movie documents that were found, in the order of hexIds
+   */
+  private static List<Document> getMovieDocumentsWithHexIds(MongoCollection<Document> moviesCollection,
+                                                            List<String> hexIds, Bson projection) {
+    List<ObjectId> ids = new ArrayList<>(hexIds.size());
+    Set<String> seen = new HashSet<>();
+    for (String hexId : hexIds) {
+      if (hexId != null && ObjectId.isValid(hexId) && seen.add(hexId)) ids.add(new ObjectId(hexId));
+    }
+    Map<ObjectId, Document> found = new HashMap<>(ids.size() * 2);
+    for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+      List<ObjectId> batch = ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size()));
+      moviesCollection.find(Filters.in("_id", batch)).projection(projection)
+              .forEach(document -> found.put(document.getObjectId("_id"), document));
+    }
+    List<Document> documents = new ArrayList<>(found.size());
+    for (ObjectId id : ids) {
+      Document document = found.get(id);
+      if (document != null) documents.add(document);
+    }
+    return documents;
+  }
+
   private static Movie documentToMovie(Document document) {
     var m = new Movie();
     m.setDirector(document.getString("director"));
@@ -430,7 +568,7 @@ public class DatabaseController {
     m.setSummary(document.getString("plotSummary"));
     m.setTitle(document.getString("title"));
     m.setWriters(document.getString("writers"));
-    m.setReleaseDate(document.getString("releaseDate"));
+    m.setReleaseDate(ReleaseDates.format(document.get("releaseDate"), document.get(ReleaseDates.PRECISION_FIELD)));
     m.setId(document.getObjectId("_id").toHexString());
     return m;
   }
@@ -449,50 +587,73 @@ public class DatabaseController {
 
   private static Movie documentToMoviePreview(Document document) {
     var m = new Movie();
-    // movie attributes
+    // movie attributes, the tags and rating are added by withCardDetails
     m.setId(document.getObjectId("_id").toHexString());
     m.setSummary(document.getString("plotSummary"));
     m.setTitle(document.getString("title"));
-    // get tags
-    ArrayList<String> tagNameList = new ArrayList<>();
-    for(Tag tag : getThreeTags(m.getId())) {
-      tagNameList.add(tag.getTagName());
-    }
-    m.setAttachedTags(tagNameList);
-    // mostPopAvgRating
-    // mostPopRatingUpperbound
-    // mostPopularRatingCategoryName
-    // get the most popular rating and average for each movie
-    Rating r = getMostPopularAggregatedRatingForMovie(m.getId());
-
-    // set the appropriate fields for each movie
-    //Do this if not null, do nothing if null.
-    if (r != null) {
-      m.setMostPopularRatingCategory(r.getRatingName());
-      m.setMostPopRatingUpperBound(r.getUpperbound());
-      m.setMostPopRatingAvg(r.getUserRating());
-    }
-
     return m;
   }
 
+  private static Bson projectionFor(ResultShape shape) {
+    return shape == ResultShape.TITLES ? TITLE_PROJECTION : PREVIEW_PROJECTION;
+  }
+
+  private List<Movie> shaped(List<Movie> movies, ResultShape shape) {
+    return shape == ResultShape.CARDS ? withCardDetails(movies) : movies;
+  }
+
+  // details of a movie card that are read from other collections
+  private record CardDetails(Rating rating, List<Tag> tags) {}
+
+  /**
+   * Adds three tag names and the most popular rating to the first page of movie cards of a search result. The cards
+   * are filled in concurrently by the CardEnricher; cards whose details are not read in time are returned without
+   * them. The unbounded manual searches return the cards after the first search.pageSize as bare previews, so a broad
+   * query cannot hold every enrichment permit for its whole deadline.
+   */
+  private List<Movie> withCardDetails(List<Movie> movies) {
+    cardEnricher.enrich(movies.size() > pageSize ? movies.subList(0, pageSize) : movies,
+            m -> new CardDetails(getMostPopularAggregatedRatingForMovie(m.getId()), getThreeTags(m.getId())),
+            (m, details) -> {
+              ArrayList<String> tagNameList = new ArrayList<>();
+              for (Tag tag : details.tags()) {
+                tagNameList.add(tag.getTagName());
+              }
+              m.setAttachedTags(tagNameList);
+              // set the rating fields if the movie has ratings, do nothing if not
+              Rating r = details.rating();
+              if (r != null) {
+                m.setMostPopularRatingCategory(r.getRatingName());
+                m.setMostPopRatingUpperBound(r.getUpperbound());
+                m.setMostPopRatingAvg(r.getUserRating());
+              }
+            });
+    return movies;
+  }
+
   /*
    * Methods to return those pesky little full movie cards
    */
 
-  public static List<Tag> getThreeTags(String movieId) {
-    List<Tag> tags = getTagsByMovieId(movieId);
-    return tags.subList(0, tags.size() < 3 ? tags.size() : 3);
+  public List<Tag> getThreeTags(String movieId) {
+    var tags = getTagCollection();
+    var tagList = new ArrayList<Tag>(3);
+    tags.find(eq("movieId", movieId)).projection(Projections.include("tagName")).limit(3).forEach(document -> {
+      var tag = new Tag();
+      tag.setTagName(document.getString("tagName"));
+      tagList.add(tag);
+    });
+    return tagList;
   }
 
-  public static List<Tag> getTagsByMovieId(String movieId) {
-    var reviews = getMovieDatabase().getCollection("tags");
+  public List<Tag> getTagsByMovieId(String movieId) {
+    var reviews = getTagCollection();
     var filter = eq("movieId", movieId);
     return getTagsWithFilter(reviews, filter);
   }
 
   private static ArrayList<Tag> getTagsWithFilter(MongoCollection<Document> tagCollection, Bson filter) {
-    var tags = tagCollection.find(filter).map(document -> {
+    var tags = tagCollection.find(filter).projection(Projections.include("tagName")).map(document -> {
       var tag = new Tag();
       tag.setTagName(document.getString("tagName"));
       return tag;
@@ -503,8 +664,12 @@ public class DatabaseController {
   }
 
   // ratings
-  public static Rating getMostPopularAggregatedRatingForMovie(String movieId) {
-    MongoCollection<Document> ratingCollection = getMovieDatabase().getCollection("ratings");
+  public Rating getMostPopularAggregatedRatingForMovie(String movieId) {
+    return mostPopularRatings.get(movieId, () -> aggregateMostPopularRatingForMovie(movieId));
+  }
+
+  private Rating aggregateMostPopularRatingForMovie(String movieId) {
+    MongoCollection<Document> ratingCollection = getRatingCollection();
     // get the most popular rating category name for the movie
     Document ratingNameDoc = ratingCollection.aggregate(
             Arrays.asList(
@@ -534,7 +699,7 @@ public class DatabaseController {
     int userRatingSum = 0;
     // using the most popular name and most popular upperbound go through and collect the sum of all the user ratings
     // gets the most popular upperbound for the category
-    for (Document doc : ratingCollection.find(Filters.and(eq("movieId", movieId), eq("ratingName", mostPopularCategoryName), eq("upperbound", mostPopularCategoryUpperbound)))) {
+    for (Document doc : ratingCollection.find(Filters.and(eq("movieId", movieId), eq("ratingName", mostPopularCategoryName), eq("upperbound", mostPopularCategoryUpperbound))).projection(Projections.include("userRating"))) {
       userRatingSum = userRatingSum + Integer.parseInt(doc.getString("userRating"));
     }
     int count = ratingScaleDoc.getInteger("count");
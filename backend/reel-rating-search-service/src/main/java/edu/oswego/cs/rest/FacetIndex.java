@@ -0,0 +1,254 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import edu.oswego.cs.rest.JsonClasses.FacetQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Timer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoublePredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory index of the tags and rating categories of every movie, for searches that combine several of them with
+ * AND, OR and NOT and report how often the other tags and categories occur among the results. It is read from the
+ * tag and rating collections, which name the movie of every tag and rating, and held in a FacetSnapshot of
+ * compressed bitmaps.
+ *
+ * Like the MovieCatalog, the index is loaded at startup on a managed background thread and then kept current by the
+ * ChangeStreamConsumer: the movies whose document, tags or ratings changed are read again and, facets.applyDelayMillis
+ * later, swapped in as a new snapshot together with any other changes that arrived in the meantime.
+ *
+ * The number of indexed movies is in facets.movies, the size of the bitmaps in facets.bytes, the time to load or
+ * change the index in facets.rebuild and the time to answer a query in facets.query.
+ */
+@Startup
+@Singleton
+public class FacetIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(FacetIndex.class.getName());
+
+  /**
+   * Movies matching a facet query.
+   *
+   * @param movieIds one page of the matching movies, in title order
+   * @param total number of matching movies
+   * @param tagCounts most frequent tags among all matching movies and their counts, most frequent first
+   * @param categoryCounts the same for rating categories
+   */
+  public record Selection(List<String> movieIds, int total, Map<String, Integer> tagCounts,
+                          Map<String, Integer> categoryCounts) {}
+
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  @ConfigProperty(name = "facets.applyDelayMillis", defaultValue = "1000")
+  long applyDelayMillis;
+
+  @Resource
+  private ManagedScheduledExecutorService scheduler;
+
+  // held by reload and applyPending for their whole run, so only one of them replaces the snapshot at a time
+  private final Object updateLock = new Object();
+  private final Object loadLock = new Object();
+  private volatile FacetSnapshot snapshot;
+  // changed movies waiting for the next snapshot, null for deleted ones; guarded by loadLock
+  private Map<String, FacetSnapshot.Row> pending = new HashMap<>();
+  // whether applyPending is scheduled; guarded by loadLock
+  private boolean applyScheduled;
+  private Timer loads;
+  private Timer queries;
+
+  @PostConstruct
+  void start() {
+    loads = metrics.timer("facets.rebuild");
+    queries = metrics.timer("facets.query");
+    metrics.gauge("facets.movies", () -> {
+      FacetSnapshot current = snapshot;
+      return current == null ? 0 : current.size();
+    });
+    metrics.gauge("facets.bytes", () -> {
+      FacetSnapshot current = snapshot;
+      return current == null ? 0 : current.sizeInBytes();
+    });
+    scheduler.submit(this::reload);
+  }
+
+  /**
+   * Reads every tag and rating again, for when changes may have been missed. Changes queued before the load started
+   * were read from the database before it, so the load has them; changes queued while it runs are applied after it.
+   */
+  @Lock(LockType.READ)
+  public void reload() {
+    synchronized (updateLock) {
+      try {
+        replaceSnapshot();
+      } catch (RuntimeException e) {
+        // keep serving the previous snapshot
+        LOGGER.log(Level.WARNING, "Could not reload the facet index", e);
+      }
+    }
+  }
+
+  /**
+   * Reads the tags and ratings of the movies the batch changed and schedules a new snapshot with them.
+   */
+  @Lock(LockType.READ)
+  public void apply(ChangeBatch batch) {
+    Set<String> movieIds = new HashSet<>(batch.movies());
+    movieIds.addAll(batch.taggedMovies());
+    movieIds.addAll(batch.ratedMovies());
+    if (movieIds.isEmpty()) return;
+    Map<String, FacetSnapshot.Row> changed = new HashMap<>();
+    movieIds.forEach(id -> changed.put(id, null));
+    changed.putAll(FacetSnapshot.read(movieDatabase, Filters.in("_id", ChangeBatch.objectIds(movieIds)),
+            Filters.in("movieId", movieIds)));
+    synchronized (loadLock) {
+      // kept even before the first snapshot, whose load may have read these movies before they changed
+      pending.putAll(changed);
+      schedulePending();
+    }
+  }
+
+  // called with loadLock held; without a snapshot the changes wait for the load that makes one
+  private void schedulePending() {
+    if (snapshot == null || pending.isEmpty() || applyScheduled) return;
+    applyScheduled = true;
+    scheduler.schedule(this::applyPending, applyDelayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void applyPending() {
+    synchronized (updateLock) {
+      try {
+        Map<String, FacetSnapshot.Row> changed;
+        FacetSnapshot current;
+        synchronized (loadLock) {
+          applyScheduled = false;
+          current = snapshot;
+          if (current == null) return;
+          changed = pending;
+          pending = new HashMap<>();
+        }
+        if (changed.isEmpty()) return;
+        long started = System.nanoTime();
+        FacetSnapshot next = current.withChanges(changed);
+        loads.update(Duration.ofNanos(System.nanoTime() - started));
+        snapshot = next;
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Could not apply changes to the facet index", e);
+      }
+    }
+  }
+
+  // called with updateLock held; on failure the queued changes are put back for the next snapshot
+  private FacetSnapshot replaceSnapshot() {
+    Map<String, FacetSnapshot.Row> queued;
+    synchronized (loadLock) {
+      queued = pending;
+      pending = new HashMap<>();
+    }
+    try {
+      FacetSnapshot loaded = load();
+      synchronized (loadLock) {
+        snapshot = loaded;
+        schedulePending();
+      }
+      return loaded;
+    } catch (RuntimeException e) {
+      synchronized (loadLock) {
+        queued.putAll(pending);
+        pending = queued;
+        schedulePending();
+      }
+      throw e;
+    }
+  }
+
+  private FacetSnapshot load() {
+    long started = System.nanoTime();
+    FacetSnapshot loaded = FacetSnapshot.load(movieDatabase);
+    loads.update(Duration.ofNanos(System.nanoTime() - started));
+    return loaded;
+  }
+
+  private FacetSnapshot snapshot() {
+    FacetSnapshot current = snapshot;
+    if (current != null) return current;
+    // waits for a load that is already running instead of starting a second one, and leaves apply unblocked
+    synchronized (updateLock) {
+      current = snapshot;
+      return current != null ? current : replaceSnapshot();
+    }
+  }
+
+  /**
+   * @param query tags and categories the movies must have, may have and must not have
+   * @param offset matching movies to skip
+   * @param limit largest number of movie ids to return
+   * @param facetLimit largest number of tags and of categories to count
+   * @return one page of matching movie ids in title order, the number of matches and the facet counts
+   */
+  @Lock(LockType.READ)
+  public Selection search(FacetQuery query, int offset, int limit, int facetLimit) {
+    long started = System.nanoTime();
+    Selection selection = snapshot().select(query, offset, limit, facetLimit);
+    queries.update(Duration.ofNanos(System.nanoTime() - started));
+    return selection;
+  }
+
+  /**
+   * @param words lowercased words, a tag matches if its name contains any of them
+   * @return up to limit ids of movies with a matching tag, in title order
+   */
+  @Lock(LockType.READ)
+  public List<String> searchTags(String[] words, int limit) {
+    return snapshot().withTagsContaining(words, limit);
+  }
+
+  /**
+   * @param words lowercased words, a rating category matches if its name contains any of them
+   * @return up to limit ids of movies rated in a matching category, in title order
+   */
+  @Lock(LockType.READ)
+  public List<String> searchCategories(String[] words, int limit) {
+    return snapshot().withCategoriesContaining(words, limit);
+  }
+
+  /**
+   * @return structured search clause matching the movies with the tag
+   */
+  @Lock(LockType.READ)
+  public MoviePredicate withTag(String name) {
+    return snapshot().withTag(name);
+  }
+
+  /**
+   * @param accepts test of the average rating of a movie in the category, null to accept any
+   * @return structured search clause matching the movies rated in the category
+   */
+  @Lock(LockType.READ)
+  public MoviePredicate ratedIn(String category, DoublePredicate accepts) {
+    return snapshot().ratedIn(category, accepts);
+  }
+}
@@ -0,0 +1,459 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import edu.oswego.cs.rest.JsonClasses.FacetQuery;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable tag and rating category index over every movie. Movies are numbered in title order when the snapshot is
+ * loaded, movies added later are numbered after them; each tag and category keeps the numbers of its movies in a
+ * compressed RoaringBitmap, so a query is a few bitmap intersections, unions and differences and its results come
+ * out in title order. Tags and categories are matched case-insensitively and reported with the first spelling read.
+ * Changes are applied by building a new snapshot that shares every bitmap the changes did not touch.
+ */
+final class FacetSnapshot {
+
+  /**
+   * Title, tags and rating categories of one movie.
+   *
+   * @param categories average rating in every category the movie was rated in, NaN where no rating is a number
+   */
+  record Row(String title, Set<String> tags, Map<String, Double> categories) {}
+
+  private static final int[] NONE = new int[0];
+  private static final double[] NO_VALUES = new double[0];
+
+  /*
+   * The tags or the rating categories of every movie. Facets are numbered in the order they were first read and keep
+   * their number, and an empty bitmap, until the next load. A copy shares the bitmaps of the original and copies one
+   * the first time it is written, so the original is never modified.
+   */
+  private static final class Facets {
+    private final Map<String, Integer> numbers;
+    private final List<String> names;
+    private final List<RoaringBitmap> movies;
+    // facet numbers of every movie, to count facets among matching movies and take a changed movie out of them
+    private int[][] of;
+    // a value for each facet of a movie, in the same order as of
+    private double[][] valuesOf;
+    // bitmaps that belong to this copy and may be written, only used while it is changed
+    private final BitSet owned = new BitSet();
+
+    Facets() {
+      this(new HashMap<>(), new ArrayList<>(), new ArrayList<>(), new int[0][], new double[0][]);
+    }
+
+    private Facets(Map<String, Integer> numbers, List<String> names, List<RoaringBitmap> movies, int[][] of,
+                   double[][] valuesOf) {
+      this.numbers = numbers;
+      this.names = names;
+      this.movies = movies;
+      this.of = of;
+      this.valuesOf = valuesOf;
+    }
+
+    Facets copy(int size) {
+      return new Facets(new HashMap<>(numbers), new ArrayList<>(names), new ArrayList<>(movies),
+              Arrays.copyOf(of, size), Arrays.copyOf(valuesOf, size));
+    }
+
+    void remove(int movie) {
+      for (int facet : of[movie]) writable(facet).remove(movie);
+      of[movie] = NONE;
+      valuesOf[movie] = NO_VALUES;
+    }
+
+    /**
+     * @param values value of each facet, null to store none
+     */
+    void add(int movie, Set<String> facetNames, Map<String, Double> values) {
+      Set<Integer> facets = new LinkedHashSet<>();
+      List<Double> facetValues = new ArrayList<>();
+      for (String name : facetNames) {
+        String key = key(name);
+        if (key.isEmpty()) continue;
+        Integer facet = numbers.get(key);
+        if (facet == null) {
+          facet = names.size();
+          numbers.put(key, facet);
+          names.add(name);
+          movies.add(new RoaringBitmap());
+          owned.set(facet);
+        }
+        if (facets.add(facet)) {
+          writable(facet).add(movie);
+          facetValues.add(values == null ? Double.NaN : values.get(name));
+        }
+      }
+      of[movie] = facets.stream().mapToInt(Integer::intValue).toArray();
+      valuesOf[movie] = values == null ? NO_VALUES : facetValues.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * @return the value the movie has for the facet, NaN if none was stored
+     */
+    double value(int movie, int facet) {
+      int[] facets = of[movie];
+      for (int i = 0; i < facets.length && i < valuesOf[movie].length; i++) {
+        if (facets[i] == facet) return valuesOf[movie][i];
+      }
+      return Double.NaN;
+    }
+
+    /**
+     * @return the number of the facet, null if there is none with the name
+     */
+    Integer number(String name) {
+      return name == null ? null : numbers.get(key(name));
+    }
+
+    private RoaringBitmap writable(int facet) {
+      if (!owned.get(facet)) {
+        movies.set(facet, movies.get(facet).clone());
+        owned.set(facet);
+      }
+      return movies.get(facet);
+    }
+
+    Facets finish(int size) {
+      owned.stream().forEach(facet -> movies.get(facet).runOptimize());
+      owned.clear();
+      of = Arrays.copyOf(of, size);
+      valuesOf = Arrays.copyOf(valuesOf, size);
+      return this;
+    }
+
+    /**
+     * @return the movies with the facet, null if no movie has it
+     */
+    RoaringBitmap get(String name) {
+      Integer facet = name == null ? null : numbers.get(key(name));
+      return facet == null || movies.get(facet).isEmpty() ? null : movies.get(facet);
+    }
+
+    RoaringBitmap union(List<String> facetNames) {
+      List<RoaringBitmap> bitmaps = new ArrayList<>();
+      if (facetNames != null) {
+        for (String name : facetNames) {
+          RoaringBitmap facet = get(name);
+          if (facet != null) bitmaps.add(facet);
+        }
+      }
+      return FastAggregation.or(bitmaps.iterator());
+    }
+
+    RoaringBitmap containing(String[] words) {
+      List<RoaringBitmap> bitmaps = new ArrayList<>();
+      numbers.forEach((key, facet) -> {
+        for (String word : words) {
+          if (!word.isEmpty() && key.contains(word)) {
+            bitmaps.add(movies.get(facet));
+            break;
+          }
+        }
+      });
+      return FastAggregation.or(bitmaps.iterator());
+    }
+
+    /**
+     * @param everything whether the matching movies are all movies, so the counts are the sizes of the bitmaps
+     * @return the facets most frequent among the matching movies with their counts, leaving out the required ones
+     */
+    Map<String, Integer> counts(RoaringBitmap matching, boolean everything, List<String> required, int limit) {
+      int[] counts = new int[names.size()];
+      if (everything) {
+        for (int facet = 0; facet < counts.length; facet++) counts[facet] = movies.get(facet).getCardinality();
+      } else {
+        // a movie has a few facets, walking the matching movies beats intersecting with every facet
+        IntIterator matches = matching.getIntIterator();
+        while (matches.hasNext()) {
+          for (int facet : of[matches.next()]) counts[facet]++;
+        }
+      }
+      if (required != null) {
+        for (String name : required) {
+          Integer facet = name == null ? null : numbers.get(key(name));
+          if (facet != null) counts[facet] = 0;
+        }
+      }
+      // of equal counts the facet read first wins
+      TopK best = new TopK(limit);
+      for (int facet = 0; facet < counts.length; facet++) {
+        if (counts[facet] > 0) best.offer(facet, counts[facet]);
+      }
+      Map<String, Integer> top = new LinkedHashMap<>();
+      for (int facet : best.result()) top.put(names.get(facet), counts[facet]);
+      return top;
+    }
+
+    long sizeInBytes() {
+      long bytes = 0;
+      for (RoaringBitmap bitmap : movies) bytes += bitmap.getLongSizeInBytes();
+      return bytes;
+    }
+  }
+
+  private final String[] ids;
+  private final Map<String, Integer> numbers;
+  private final RoaringBitmap live;
+  private final Facets tags;
+  private final Facets categories;
+
+  private FacetSnapshot(String[] ids, Map<String, Integer> numbers, RoaringBitmap live, Facets tags,
+                        Facets categories) {
+    this.ids = ids;
+    this.numbers = numbers;
+    this.live = live;
+    this.tags = tags;
+    this.categories = categories;
+  }
+
+  static FacetSnapshot load(MongoDatabase movieDatabase) {
+    Map<String, Row> rows = read(movieDatabase, new Document(), new Document());
+    List<String> sorted = new ArrayList<>(rows.keySet());
+    sorted.sort(Comparator.comparing((String id) -> rows.get(id).title(),
+            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+    Map<String, Row> ordered = new LinkedHashMap<>();
+    sorted.forEach(id -> ordered.put(id, rows.get(id)));
+    FacetSnapshot empty = new FacetSnapshot(new String[0], new HashMap<>(), new RoaringBitmap(), new Facets(),
+            new Facets());
+    return empty.withChanges(ordered);
+  }
+
+  /**
+   * Reads the title, tags and rating categories of the movies matching the filters.
+   *
+   * @param movieFilter filter on the movie collection
+   * @param facetFilter the same movies as a filter on the movieId of tags and ratings
+   * @return rows by movie id
+   */
+  static Map<String, Row> read(MongoDatabase movieDatabase, Bson movieFilter, Bson facetFilter) {
+    Map<String, Row> rows = new HashMap<>();
+    movieDatabase.getCollection("movies").find(movieFilter).projection(Projections.include("title"))
+            .forEach(document -> rows.put(document.getObjectId("_id").toHexString(),
+                    new Row(document.getString("title"), new LinkedHashSet<>(), new LinkedHashMap<>())));
+    readFacets(movieDatabase, "tags", "$tagName", facetFilter, rows, true);
+    readFacets(movieDatabase, "ratings", "$ratingName", facetFilter, rows, false);
+    return rows;
+  }
+
+  private static void readFacets(MongoDatabase movieDatabase, String collection, String name, Bson filter,
+                                 Map<String, Row> rows, boolean tag) {
+    // one document per movie and facet, however often it was tagged or rated; userRating is stored as a string
+    Document userRating = new Document("$convert", new Document("input", "$userRating").append("to", "double")
+            .append("onError", null).append("onNull", null));
+    movieDatabase.getCollection(collection).aggregate(List.of(
+            Aggregates.match(filter),
+            Aggregates.group(new Document("movieId", "$movieId").append("name", name),
+                    Accumulators.avg("average", userRating))
+    )).allowDiskUse(true).forEach(document -> {
+      Document key = document.get("_id", Document.class);
+      String movieId = key.getString("movieId");
+      String facet = key.getString("name");
+      // facets of a movie that no longer exists are ignored
+      Row row = movieId == null || facet == null ? null : rows.get(movieId);
+      if (row == null) return;
+      if (tag) {
+        row.tags().add(facet);
+      } else {
+        Number average = document.get("average", Number.class);
+        row.categories().putIfAbsent(facet, average == null ? Double.NaN : average.doubleValue());
+      }
+    });
+  }
+
+  /**
+   * @param changed new rows by movie id, null for movies that were deleted
+   * @return a snapshot with the changes; this one is left as it is
+   */
+  FacetSnapshot withChanges(Map<String, Row> changed) {
+    int next = ids.length;
+    String[] newIds = Arrays.copyOf(ids, ids.length + changed.size());
+    Map<String, Integer> newNumbers = new HashMap<>(numbers);
+    RoaringBitmap newLive = live.clone();
+    Facets newTags = tags.copy(newIds.length);
+    Facets newCategories = categories.copy(newIds.length);
+    for (Map.Entry<String, Row> change : changed.entrySet()) {
+      Row row = change.getValue();
+      Integer number = newNumbers.get(change.getKey());
+      if (number != null) {
+        newTags.remove(number);
+        newCategories.remove(number);
+        if (row == null) {
+          newLive.remove(number);
+          newIds[number] = null;
+          newNumbers.remove(change.getKey());
+          continue;
+        }
+      } else {
+        if (row == null) continue;
+        number = next++;
+        newIds[number] = change.getKey();
+        newNumbers.put(change.getKey(), number);
+        newLive.add(number);
+      }
+      newTags.add(number, row.tags(), null);
+      newCategories.add(number, row.categories().keySet(), row.categories());
+    }
+    newLive.runOptimize();
+    return new FacetSnapshot(Arrays.copyOf(newIds, next), newNumbers, newLive, newTags.finish(next),
+            newCategories.finish(next));
+  }
+
+  private static String key(String name) {
+    return name.trim().toLowerCase(Locale.ROOT);
+  }
+
+  int size() {
+    return live.getCardinality();
+  }
+
+  long sizeInBytes() {
+    return live.getLongSizeInBytes() + tags.sizeInBytes() + categories.sizeInBytes();
+  }
+
+  /**
+   * Runs the query: movies with all of allTags and allCategories, at least one of anyTags and of anyCategories when
+   * those are given, and none of notTags and notCategories.
+   *
+   * @param offset matching movies to skip, in title order
+   * @param limit largest number of movie ids to return
+   * @param facetLimit largest number of tags and of categories to count, the most frequent ones
+   */
+  FacetIndex.Selection select(FacetQuery query, int offset, int limit, int facetLimit) {
+    List<RoaringBitmap> required = new ArrayList<>();
+    required.add(live);
+    boolean possible = requireAll(required, tags, query.getAllTags())
+            && requireAll(required, categories, query.getAllCategories())
+            && requireAny(required, tags, query.getAnyTags())
+            && requireAny(required, categories, query.getAnyCategories());
+    RoaringBitmap matching = new RoaringBitmap();
+    if (possible) {
+      // intersect the smallest first, every later intersection is then at most that large
+      required.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+      matching = required.get(0);
+      for (int i = 1; i < required.size() && !matching.isEmpty(); i++) {
+        matching = RoaringBitmap.and(matching, required.get(i));
+      }
+      RoaringBitmap excluded = FastAggregation.or(tags.union(query.getNotTags()),
+              categories.union(query.getNotCategories()));
+      if (!excluded.isEmpty()) matching = RoaringBitmap.andNot(matching, excluded);
+    }
+    boolean everything = matching == live;
+    return new FacetIndex.Selection(page(matching, offset, limit), matching.getCardinality(),
+            tags.counts(matching, everything, query.getAllTags(), facetLimit),
+            categories.counts(matching, everything, query.getAllCategories(), facetLimit));
+  }
+
+  /**
+   * @param words lowercased words, a tag matches if its name contains any of them
+   * @return up to limit ids of movies with a matching tag, in title order
+   */
+  List<String> withTagsContaining(String[] words, int limit) {
+    return page(tags.containing(words), 0, limit);
+  }
+
+  /**
+   * @param words lowercased words, a category matches if its name contains any of them
+   * @return up to limit ids of movies with a rating in a matching category, in title order
+   */
+  List<String> withCategoriesContaining(String[] words, int limit) {
+    return page(categories.containing(words), 0, limit);
+  }
+
+  /**
+   * Structured search clause matching the movies with the tag, counted exactly by its bitmap.
+   */
+  MoviePredicate withTag(String name) {
+    RoaringBitmap movies = tags.get(name);
+    return bitmapPredicate(movies == null ? new RoaringBitmap() : movies, movie -> true);
+  }
+
+  /**
+   * Structured search clause matching the movies rated in the category whose average rating is accepted. The
+   * estimate is the number of movies rated in the category at all.
+   *
+   * @param accepts test of the average rating, null to accept any
+   */
+  MoviePredicate ratedIn(String category, DoublePredicate accepts) {
+    Integer facet = categories.number(category);
+    if (facet == null) return bitmapPredicate(new RoaringBitmap(), movie -> false);
+    RoaringBitmap movies = categories.movies.get(facet);
+    if (accepts == null) return bitmapPredicate(movies, movie -> true);
+    return bitmapPredicate(movies, movie -> accepts.test(categories.value(movie, facet)));
+  }
+
+  private MoviePredicate bitmapPredicate(RoaringBitmap movies, IntPredicate accepts) {
+    return new MoviePredicate() {
+      @Override
+      public long estimate() {
+        return movies.getLongCardinality();
+      }
+
+      @Override
+      public List<String> movies() {
+        List<String> movieIds = new ArrayList<>();
+        IntIterator numbers = movies.getIntIterator();
+        while (numbers.hasNext()) {
+          int movie = numbers.next();
+          if (accepts.test(movie)) movieIds.add(ids[movie]);
+        }
+        return movieIds;
+      }
+
+      @Override
+      public boolean test(String movieId) {
+        Integer movie = numbers.get(movieId);
+        return movie != null && movies.contains(movie) && accepts.test(movie);
+      }
+    };
+  }
+
+  private List<String> page(RoaringBitmap movies, int offset, int limit) {
+    List<String> movieIds = new ArrayList<>();
+    IntIterator numbers = movies.getIntIterator();
+    for (int skipped = 0; skipped < offset && numbers.hasNext(); skipped++) numbers.next();
+    while (movieIds.size() < limit && numbers.hasNext()) movieIds.add(ids[numbers.next()]);
+    return movieIds;
+  }
+
+  private static boolean requireAll(List<RoaringBitmap> required, Facets facets, List<String> names) {
+    if (names == null) return true;
+    for (String name : names) {
+      if (name == null) continue;
+      RoaringBitmap facet = facets.get(name);
+      // no movie has it, so none has all of them
+      if (facet == null) return false;
+      required.add(facet);
+    }
+    return true;
+  }
+
+  private static boolean requireAny(List<RoaringBitmap> required, Facets facets, List<String> names) {
+    if (names == null || names.isEmpty()) return true;
+    RoaringBitmap any = facets.union(names);
+    required.add(any);
+    return !any.isEmpty();
+  }
+}
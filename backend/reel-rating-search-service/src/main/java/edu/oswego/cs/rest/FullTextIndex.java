@@ -0,0 +1,440 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import edu.oswego.cs.rest.JsonClasses.Movie;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.inject.Inject;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOFunction;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Timer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Relevance ranked full-text search over the title, plot summary, director, cast and public reviews of every movie,
+ * kept in an embedded Lucene index so the text search work stays off the database. Matches are scored with BM25 and
+ * the fields are boosted, a title match counting most and a review match least.
+ *
+ * The index lives in an MMapDirectory under fulltext.directory. The ChangeStreamConsumer keeps it current: each
+ * batch of changes rewrites the movies it touched and is committed together with the change stream resume token it
+ * reached, so after a restart the index is served as committed and the stream resumes from that token. A full sync,
+ * which rewrites every movie and removes the ones it did not see, only runs when there is no usable token. Searches
+ * use a near-real-time reader that is refreshed every fulltext.refreshMillis.
+ */
+@Startup
+@Singleton
+public class FullTextIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(FullTextIndex.class.getName());
+
+  static final String ID = "id";
+  static final String TITLE = "title";
+  static final String SUMMARY = "plotSummary";
+  static final String DIRECTOR = "director";
+  static final String CAST = "cast";
+  static final String REVIEWS = "reviews";
+  // ids of the cast, to find the movies of an actor that changed
+  static final String ACTOR = "actor";
+  // commit user data key of the change stream resume token
+  private static final String RESUME_TOKEN = "resumeToken";
+  // start of the sync that last wrote the movie, older movies were not seen by the latest sync
+  private static final String SYNC = "sync";
+
+  private static final Map<String, Float> BOOSTS = Map.of(
+          TITLE, 4.0f,
+          DIRECTOR, 2.0f,
+          CAST, 2.0f,
+          SUMMARY, 1.0f,
+          REVIEWS, 0.5f);
+
+  private static final Bson MOVIE_PROJECTION = Projections.include("title", "plotSummary", "director");
+
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  @ConfigProperty(name = "fulltext.directory", defaultValue = "fulltext-index")
+  String directory;
+
+  @Inject
+  @ConfigProperty(name = "fulltext.refreshMillis", defaultValue = "1000")
+  long refreshMillis;
+
+  @Resource
+  private ManagedScheduledExecutorService scheduler;
+
+  private final Analyzer analyzer = new EnglishAnalyzer();
+  private final BM25Similarity similarity = new BM25Similarity();
+  private MMapDirectory indexDirectory;
+  private IndexWriter writer;
+  private SearcherManager searchers;
+  private ScheduledFuture<?> refreshes;
+  private Timer syncs;
+  private Timer queries;
+
+  @PostConstruct
+  void start() {
+    try {
+      Path path = Path.of(directory);
+      Files.createDirectories(path);
+      indexDirectory = new MMapDirectory(path);
+      IndexWriterConfig config = new IndexWriterConfig(analyzer)
+              .setSimilarity(similarity)
+              .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+      writer = new IndexWriter(indexDirectory, config);
+      // every searcher scores with the similarity the index was written with, set once when it is opened
+      searchers = new SearcherManager(writer, new SearcherFactory() {
+        @Override
+        public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+          IndexSearcher searcher = new IndexSearcher(reader);
+          searcher.setSimilarity(similarity);
+          return searcher;
+        }
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open the full-text index in " + directory, e);
+    }
+    syncs = metrics.timer("fulltext.sync");
+    queries = metrics.timer("fulltext.query");
+    metrics.gauge("fulltext.documents", () -> writer.getDocStats().numDocs);
+    refreshes = scheduler.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (refreshes != null) refreshes.cancel(false);
+    try {
+      searchers.close();
+      writer.close();
+      indexDirectory.close();
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Could not close the full-text index", e);
+    }
+  }
+
+  /**
+   * @param text the search, words are optional unless prefixed with +, "quotes" match a phrase and * a prefix
+   * @param limit largest number of movies to return
+   * @return movies with their id, title and summary, most relevant first
+   */
+  @Lock(LockType.READ)
+  public List<Movie> search(String text, int limit) {
+    long started = System.nanoTime();
+    SimpleQueryParser parser = new SimpleQueryParser(analyzer, BOOSTS);
+    parser.setDefaultOperator(BooleanClause.Occur.SHOULD);
+    Query query = parser.parse(text);
+    List<Movie> movies = new ArrayList<>();
+    try {
+      IndexSearcher searcher = searchers.acquire();
+      try {
+        for (ScoreDoc hit : searcher.search(query, Math.max(1, limit)).scoreDocs) {
+          Document document = searcher.storedFields().document(hit.doc);
+          var m = new Movie();
+          m.setId(document.get(ID));
+          m.setTitle(document.get(TITLE));
+          m.setSummary(document.get(SUMMARY));
+          movies.add(m);
+        }
+      } finally {
+        searchers.release(searcher);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Full-text search failed", e);
+    }
+    queries.update(Duration.ofNanos(System.nanoTime() - started));
+    return movies;
+  }
+
+  /**
+   * Structured search clause matching the movies whose cast has every word of the text, analyzed like the indexed
+   * cast. The estimate is the document frequency of the rarest word, which counts deleted documents until they are
+   * merged away, so it is never below the true number. The matching movies are searched for once, the first time the
+   * predicate lists or tests them, and that search is reused for the rest of the structured search.
+   *
+   * @return predicate that searches the index when it is first used, so it sees the index as it is then
+   * @throws IllegalArgumentException if the text has no words left to search for after analysis, like "the"
+   */
+  @Lock(LockType.READ)
+  public MoviePredicate castContains(String text) {
+    List<Term> terms = new ArrayList<>();
+    try (TokenStream tokens = analyzer.tokenStream(CAST, text)) {
+      CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+      tokens.reset();
+      while (tokens.incrementToken()) terms.add(new Term(CAST, term.toString()));
+      tokens.end();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not analyze " + text, e);
+    }
+    if (terms.isEmpty()) throw new IllegalArgumentException("cast:" + text + " has no words to search for");
+    BooleanQuery.Builder cast = new BooleanQuery.Builder();
+    terms.forEach(term -> cast.add(new TermQuery(term), BooleanClause.Occur.FILTER));
+    Query query = cast.build();
+    return new MoviePredicate() {
+      // a structured search runs on one thread, so this needs no locking
+      private Set<String> matching;
+
+      @Override
+      public long estimate() {
+        return withSearcher(searcher -> {
+          long rarest = Long.MAX_VALUE;
+          for (Term term : terms) rarest = Math.min(rarest, searcher.getIndexReader().docFreq(term));
+          return rarest;
+        });
+      }
+
+      @Override
+      public List<String> movies() {
+        return List.copyOf(matching());
+      }
+
+      @Override
+      public boolean test(String movieId) {
+        return matching().contains(movieId);
+      }
+
+      private Set<String> matching() {
+        if (matching == null) {
+          matching = withSearcher(searcher -> {
+            Set<String> movies = new LinkedHashSet<>();
+            int all = Math.max(1, searcher.count(query));
+            for (ScoreDoc hit : searcher.search(query, all).scoreDocs) {
+              movies.add(searcher.storedFields().document(hit.doc, Set.of(ID)).get(ID));
+            }
+            return movies;
+          });
+        }
+        return matching;
+      }
+    };
+  }
+
+  private <T> T withSearcher(IOFunction<IndexSearcher, T> read) {
+    try {
+      IndexSearcher searcher = searchers.acquire();
+      try {
+        return read.apply(searcher);
+      } finally {
+        searchers.release(searcher);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Full-text search failed", e);
+    }
+  }
+
+  private void refresh() {
+    try {
+      searchers.maybeRefresh();
+    } catch (IOException | RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Could not refresh the full-text searcher", e);
+    }
+  }
+
+  /**
+   * @return the change stream resume token of the last commit, or null if the index has none
+   */
+  @Lock(LockType.READ)
+  public BsonDocument resumeToken() {
+    for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+      if (RESUME_TOKEN.equals(entry.getKey())) return BsonDocument.parse(entry.getValue());
+    }
+    return null;
+  }
+
+  /**
+   * Writes every movie, removes the movies that are gone and commits with the resume token.
+   *
+   * @param resumeToken change stream position the sync started at, null if changes are not followed
+   */
+  @Lock(LockType.READ)
+  public void sync(BsonDocument resumeToken) {
+    long started = System.nanoTime();
+    long sync = System.currentTimeMillis();
+    try {
+      Map<String, List<org.bson.Document>> cast = castOf(null);
+      Map<String, List<String>> reviews = reviewsOf(null);
+      for (org.bson.Document movie : movieDatabase.getCollection("movies").find().projection(MOVIE_PROJECTION)) {
+        String id = movie.getObjectId("_id").toHexString();
+        writer.updateDocument(new Term(ID, id), toDocument(id, movie, cast.getOrDefault(id, List.of()),
+                reviews.getOrDefault(id, List.of()), sync));
+      }
+      writer.deleteDocuments(LongPoint.newRangeQuery(SYNC, Long.MIN_VALUE, sync - 1));
+      commit(resumeToken);
+      syncs.update(Duration.ofNanos(System.nanoTime() - started));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not sync the full-text index", e);
+    }
+  }
+
+  /**
+   * Rewrites the movies the batch touched, including the old and new movies of changed actors, and commits with the
+   * resume token the batch ends at.
+   */
+  @Lock(LockType.READ)
+  public void apply(ChangeBatch batch, BsonDocument resumeToken) {
+    try {
+      Set<String> movieIds = new HashSet<>(batch.movies());
+      movieIds.addAll(batch.reviewedMovies());
+      if (!batch.actors().isEmpty()) {
+        IndexSearcher searcher = searchers.acquire();
+        try {
+          for (String actorId : batch.actors()) {
+            TopDocs hits = searcher.search(new TermQuery(new Term(ACTOR, actorId)), Integer.MAX_VALUE);
+            for (ScoreDoc hit : hits.scoreDocs) movieIds.add(searcher.storedFields().document(hit.doc).get(ID));
+          }
+        } finally {
+          searchers.release(searcher);
+        }
+        movieDatabase.getCollection("actors").find(Filters.in("_id", ChangeBatch.objectIds(batch.actors())))
+                .projection(Projections.include("movies")).forEach(actor -> {
+          List<String> movies = actor.getList("movies", String.class);
+          if (movies != null) movieIds.addAll(movies);
+        });
+      }
+      if (!movieIds.isEmpty()) reindex(movieIds);
+      commit(resumeToken);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not apply changes to the full-text index", e);
+    }
+  }
+
+  /**
+   * Commits the resume token alone, so the stored position keeps up while nothing changes.
+   */
+  @Lock(LockType.READ)
+  public void saveResumeToken(BsonDocument resumeToken) {
+    try {
+      commit(resumeToken);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not save the change stream resume token", e);
+    }
+  }
+
+  private void reindex(Set<String> movieIds) throws IOException {
+    long sync = System.currentTimeMillis();
+    Bson byMovie = Filters.in("movieId", movieIds);
+    Map<String, List<org.bson.Document>> cast = castOf(Filters.in("movies", movieIds));
+    Map<String, List<String>> reviews = reviewsOf(byMovie);
+    Set<String> missing = new HashSet<>(movieIds);
+    for (org.bson.Document movie : movieDatabase.getCollection("movies")
+            .find(Filters.in("_id", ChangeBatch.objectIds(movieIds))).projection(MOVIE_PROJECTION)) {
+      String id = movie.getObjectId("_id").toHexString();
+      missing.remove(id);
+      writer.updateDocument(new Term(ID, id), toDocument(id, movie, cast.getOrDefault(id, List.of()),
+              reviews.getOrDefault(id, List.of()), sync));
+    }
+    for (String id : missing) writer.deleteDocuments(new Term(ID, id));
+  }
+
+  // without a token the commit has none, so a later start does not resume from an outdated position
+  private synchronized void commit(BsonDocument resumeToken) throws IOException {
+    writer.setLiveCommitData(resumeToken == null
+            ? Map.<String, String>of().entrySet()
+            : Map.of(RESUME_TOKEN, resumeToken.toJson()).entrySet());
+    writer.commit();
+    searchers.maybeRefresh();
+  }
+
+  // actors by the movies they are in, from the actors matching the filter or all actors
+  private Map<String, List<org.bson.Document>> castOf(Bson filter) {
+    Map<String, List<org.bson.Document>> cast = new HashMap<>();
+    for (org.bson.Document actor : movieDatabase.getCollection("actors")
+            .find(filter == null ? new BsonDocument() : filter)
+            .projection(Projections.include("name", "movies"))) {
+      List<String> movies = actor.getList("movies", String.class);
+      if (movies == null || actor.getString("name") == null) continue;
+      movies.forEach(movieId -> cast.computeIfAbsent(movieId, id -> new ArrayList<>()).add(actor));
+    }
+    return cast;
+  }
+
+  // descriptions of the public reviews by movie, from the reviews matching the filter or all reviews
+  private Map<String, List<String>> reviewsOf(Bson filter) {
+    Map<String, List<String>> reviews = new HashMap<>();
+    Bson isPublic = Filters.ne("privacy", "private");
+    for (org.bson.Document review : movieDatabase.getCollection("reviews")
+            .find(filter == null ? isPublic : Filters.and(filter, isPublic))
+            .projection(Projections.include("movieId", "reviewDescription"))) {
+      String movieId = review.getString("movieId");
+      String description = review.getString("reviewDescription");
+      if (movieId != null && description != null) {
+        reviews.computeIfAbsent(movieId, id -> new ArrayList<>()).add(description);
+      }
+    }
+    return reviews;
+  }
+
+  private static Document toDocument(String id, org.bson.Document movie, List<org.bson.Document> cast,
+                                     List<String> reviews, long sync) {
+    Document document = new Document();
+    document.add(new StringField(ID, id, Field.Store.YES));
+    addText(document, TITLE, movie.getString("title"), Field.Store.YES);
+    addText(document, SUMMARY, movie.getString("plotSummary"), Field.Store.YES);
+    addText(document, DIRECTOR, movie.getString("director"), Field.Store.NO);
+    cast.forEach(actor -> {
+      document.add(new StringField(ACTOR, actor.getObjectId("_id").toHexString(), Field.Store.NO));
+      addText(document, CAST, actor.getString("name"), Field.Store.NO);
+    });
+    reviews.forEach(review -> addText(document, REVIEWS, review, Field.Store.NO));
+    document.add(new LongPoint(SYNC, sync));
+    return document;
+  }
+
+  private static void addText(Document document, String field, String value, Field.Store store) {
+    if (value != null) document.add(new TextField(field, value, store));
+  }
+}
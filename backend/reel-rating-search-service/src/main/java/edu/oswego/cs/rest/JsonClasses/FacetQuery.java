@@ -0,0 +1,43 @@
+package edu.oswego.cs.rest.JsonClasses;
+
+import java.util.ArrayList;
+
+public class FacetQuery extends JSession {
+  // a movie matches with all of the all lists, at least one of each non-empty any list and none of the not lists
+  private ArrayList<String> allTags;
+  private ArrayList<String> anyTags;
+  private ArrayList<String> notTags;
+  private ArrayList<String> allCategories;
+  private ArrayList<String> anyCategories;
+  private ArrayList<String> notCategories;
+  private Integer offset;
+  private Integer limit;
+
+  // constructor
+  public FacetQuery() {}
+
+  // getters and setters
+  public ArrayList<String> getAllTags() { return allTags; }
+  public void setAllTags(ArrayList<String> allTags) { this.allTags = allTags; }
+
+  public ArrayList<String> getAnyTags() { return anyTags; }
+  public void setAnyTags(ArrayList<String> anyTags) { this.anyTags = anyTags; }
+
+  public ArrayList<String> getNotTags() { return notTags; }
+  public void setNotTags(ArrayList<String> notTags) { this.notTags = notTags; }
+
+  public ArrayList<String> getAllCategories() { return allCategories; }
+  public void setAllCategories(ArrayList<String> allCategories) { this.allCategories = allCategories; }
+
+  public ArrayList<String> getAnyCategories() { return anyCategories; }
+  public void setAnyCategories(ArrayList<String> anyCategories) { this.anyCategories = anyCategories; }
+
+  public ArrayList<String> getNotCategories() { return notCategories; }
+  public void setNotCategories(ArrayList<String> notCategories) { this.notCategories = notCategories; }
+
+  public Integer getOffset() { return offset; }
+  public void setOffset(Integer offset) { this.offset = offset; }
+
+  public Integer getLimit() { return limit; }
+  public void setLimit(Integer limit) { this.limit = limit; }
+}
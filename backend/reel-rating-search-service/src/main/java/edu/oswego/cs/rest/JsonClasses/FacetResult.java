@@ -0,0 +1,28 @@
+package edu.oswego.cs.rest.JsonClasses;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetResult {
+  private int total;
+  private List<Movie> movies;
+  // the most frequent tags and rating categories among all matching movies, most frequent first
+  private Map<String, Integer> tagCounts;
+  private Map<String, Integer> categoryCounts;
+
+  // constructor
+  public FacetResult() {}
+
+  // getters and setters
+  public int getTotal() { return total; }
+  public void setTotal(int total) { this.total = total; }
+
+  public List<Movie> getMovies() { return movies; }
+  public void setMovies(List<Movie> movies) { this.movies = movies; }
+
+  public Map<String, Integer> getTagCounts() { return tagCounts; }
+  public void setTagCounts(Map<String, Integer> tagCounts) { this.tagCounts = tagCounts; }
+
+  public Map<String, Integer> getCategoryCounts() { return categoryCounts; }
+  public void setCategoryCounts(Map<String, Integer> categoryCounts) { this.categoryCounts = categoryCounts; }
+}
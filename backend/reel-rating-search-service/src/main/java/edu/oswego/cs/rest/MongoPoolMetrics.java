@@ -0,0 +1,86 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes the Mongo connection pool as MicroProfile metrics: how long requests wait to check out a connection, how
+ * many connections are open and in use, and how many checkouts fail.
+ */
+@ApplicationScoped
+public class MongoPoolMetrics implements ConnectionPoolListener {
+
+  @Inject
+  MetricRegistry metrics;
+
+  // summed over every pool, the reactive client has a pool of its own
+  private final AtomicInteger maxSize = new AtomicInteger();
+  private final AtomicInteger open = new AtomicInteger();
+  private final AtomicInteger checkedOut = new AtomicInteger();
+  // checkout start time by operation id, an operation checks out at most one connection at a time
+  private final Map<Long, Long> checkoutStarted = new ConcurrentHashMap<>();
+  private Timer checkoutWait;
+
+  @PostConstruct
+  void register() {
+    checkoutWait = metrics.timer("mongo.pool.checkoutWait");
+    metrics.gauge("mongo.pool.open", open::get);
+    metrics.gauge("mongo.pool.checkedOut", checkedOut::get);
+    metrics.gauge("mongo.pool.usage", () -> maxSize.get() == 0 ? 0.0 : (double) checkedOut.get() / maxSize.get());
+  }
+
+  @Override
+  public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+    maxSize.addAndGet(event.getSettings().getMaxSize());
+  }
+
+  @Override
+  public void connectionCreated(ConnectionCreatedEvent event) {
+    open.incrementAndGet();
+  }
+
+  @Override
+  public void connectionClosed(ConnectionClosedEvent event) {
+    open.decrementAndGet();
+  }
+
+  @Override
+  public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+    checkoutStarted.put(event.getOperationId(), System.nanoTime());
+  }
+
+  @Override
+  public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+    checkedOut.incrementAndGet();
+    Long started = checkoutStarted.remove(event.getOperationId());
+    if (started != null) checkoutWait.update(Duration.ofNanos(System.nanoTime() - started));
+  }
+
+  @Override
+  public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+    checkoutStarted.remove(event.getOperationId());
+    metrics.counter("mongo.pool.checkoutFailed", new Tag("reason", event.getReason().name())).inc();
+  }
+
+  @Override
+  public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+    checkedOut.decrementAndGet();
+  }
+}
@@ -0,0 +1,265 @@
+package edu.oswego.cs.rest;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import edu.oswego.cs.rest.JsonClasses.Movie;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory search index over the title, director and release date of every movie, used by the manual searches in
+ * DatabaseController so they no longer scan the movie collection. The catalog is loaded at startup on a managed
+ * background thread; a search that arrives before that load finishes waits for it, and loads the catalog itself if
+ * it failed.
+ *
+ * After that the ChangeStreamConsumer keeps it current: the movies a batch of changes touched are read again by id
+ * and, catalog.applyDelayMillis later, folded into a new CatalogSnapshot together with any other changes that arrived
+ * in the meantime. A new snapshot is swapped in whole, so searches never wait for one.
+ *
+ * Searches return movie cards with only the id, title, summary and the searched field filled in.
+ */
+@Startup
+@Singleton
+public class MovieCatalog {
+
+  private static final Logger LOGGER = Logger.getLogger(MovieCatalog.class.getName());
+
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  @ConfigProperty(name = "catalog.applyDelayMillis", defaultValue = "1000")
+  long applyDelayMillis;
+
+  @Resource
+  private ManagedScheduledExecutorService scheduler;
+
+  // held by reload and applyPending for their whole run, so only one of them replaces the snapshot at a time
+  private final Object updateLock = new Object();
+  private final Object loadLock = new Object();
+  private volatile CatalogSnapshot snapshot;
+  // changed movies waiting for the next snapshot, null for deleted ones; guarded by loadLock
+  private Map<String, Document> pending = new HashMap<>();
+  // whether applyPending is scheduled; guarded by loadLock
+  private boolean applyScheduled;
+  private Timer loads;
+
+  @PostConstruct
+  void start() {
+    loads = metrics.timer("catalog.rebuild");
+    metrics.gauge("catalog.movies", () -> {
+      CatalogSnapshot current = snapshot;
+      return current == null ? 0 : current.size();
+    });
+    scheduler.submit(this::reload);
+  }
+
+  /**
+   * Reads the whole catalog again, for when changes may have been missed. Changes queued before the load started
+   * were read from the database before it, so the load has them; changes queued while it runs are applied after it.
+   */
+  @Lock(LockType.READ)
+  public void reload() {
+    synchronized (updateLock) {
+      try {
+        replaceSnapshot();
+      } catch (RuntimeException e) {
+        // keep serving the previous snapshot
+        LOGGER.log(Level.WARNING, "Could not reload the movie catalog", e);
+      }
+    }
+  }
+
+  /**
+   * Reads the movies the batch changed and schedules a new snapshot with them.
+   */
+  @Lock(LockType.READ)
+  public void apply(ChangeBatch batch) {
+    if (batch.movies().isEmpty()) return;
+    Map<String, Document> changed = new HashMap<>();
+    batch.movies().forEach(id -> changed.put(id, null));
+    movieDatabase.getCollection("movies").find(Filters.in("_id", ChangeBatch.objectIds(batch.movies())))
+            .projection(CatalogSnapshot.PROJECTION)
+            .forEach(document -> changed.put(document.getObjectId("_id").toHexString(), document));
+    synchronized (loadLock) {
+      // kept even before the first snapshot, whose load may have read these movies before they changed
+      pending.putAll(changed);
+      schedulePending();
+    }
+  }
+
+  // called with loadLock held; without a snapshot the changes wait for the load that makes one
+  private void schedulePending() {
+    if (snapshot == null || pending.isEmpty() || applyScheduled) return;
+    applyScheduled = true;
+    scheduler.schedule(this::applyPending, applyDelayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void applyPending() {
+    synchronized (updateLock) {
+      try {
+        Map<String, Document> changed;
+        CatalogSnapshot current;
+        synchronized (loadLock) {
+          applyScheduled = false;
+          current = snapshot;
+          if (current == null) return;
+          changed = pending;
+          pending = new HashMap<>();
+        }
+        if (changed.isEmpty()) return;
+        long started = System.nanoTime();
+        CatalogSnapshot next = current.withChanges(changed);
+        loads.update(Duration.ofNanos(System.nanoTime() - started));
+        snapshot = next;
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Could not apply changes to the movie catalog", e);
+      }
+    }
+  }
+
+  // called with updateLock held; on failure the queued changes are put back for the next snapshot
+  private CatalogSnapshot replaceSnapshot() {
+    Map<String, Document> queued;
+    synchronized (loadLock) {
+      queued = pending;
+      pending = new HashMap<>();
+    }
+    try {
+      CatalogSnapshot loaded = load();
+      synchronized (loadLock) {
+        snapshot = loaded;
+        schedulePending();
+      }
+      return loaded;
+    } catch (RuntimeException e) {
+      synchronized (loadLock) {
+        queued.putAll(pending);
+        pending = queued;
+        schedulePending();
+      }
+      throw e;
+    }
+  }
+
+  private CatalogSnapshot load() {
+    long started = System.nanoTime();
+    CatalogSnapshot loaded = CatalogSnapshot.load(movieDatabase.getCollection("movies"));
+    loads.update(Duration.ofNanos(System.nanoTime() - started));
+    return loaded;
+  }
+
+  private CatalogSnapshot snapshot() {
+    CatalogSnapshot current = snapshot;
+    if (current != null) return current;
+    // waits for a load that is already running instead of starting a second one, and leaves apply unblocked
+    synchronized (updateLock) {
+      current = snapshot;
+      return current != null ? current : replaceSnapshot();
+    }
+  }
+
+  /**
+   * @param title the search as typed
+   * @param words lowercased words to match, a movie matches if its title contains any of them
+   * @return up to limit movies, most similar title first
+   */
+  @Lock(LockType.READ)
+  public List<Movie> searchTitles(String title, String[] words, int limit) {
+    CatalogSnapshot catalog = snapshot();
+    List<Movie> movies = new ArrayList<>();
+    for (int doc : catalog.topTitles(title, words, limit)) {
+      movies.add(catalog.preview(doc));
+    }
+    return movies;
+  }
+
+  /**
+   * @param director the search as typed
+   * @param words lowercased words to match, a movie matches if its director contains any of them
+   * @return up to limit movies with their director, most similar director first
+   */
+  @Lock(LockType.READ)
+  public List<Movie> searchDirectors(String director, String[] words, int limit) {
+    CatalogSnapshot catalog = snapshot();
+    List<Movie> movies = new ArrayList<>();
+    for (int doc : catalog.topDirectors(director, words, limit)) {
+      var m = catalog.preview(doc);
+      m.setDirector(catalog.director(doc));
+      movies.add(m);
+    }
+    return movies;
+  }
+
+  /**
+   * @param ranges release date ranges as pairs of inclusive start and exclusive end in epoch milliseconds
+   * @return up to limit movies with their release date, newest first
+   */
+  @Lock(LockType.READ)
+  public List<Movie> searchReleaseDates(List<long[]> ranges, int limit) {
+    CatalogSnapshot catalog = snapshot();
+    List<Movie> movies = new ArrayList<>();
+    for (int doc : catalog.newestReleasedIn(ranges, limit)) {
+      var m = catalog.preview(doc);
+      m.setReleaseDate(catalog.releaseDate(doc));
+      movies.add(m);
+    }
+    return movies;
+  }
+
+  /**
+   * @return structured search clause matching movies whose title contains the text
+   */
+  @Lock(LockType.READ)
+  public MoviePredicate titleContains(String text) {
+    return snapshot().titleContains(text);
+  }
+
+  /**
+   * @return structured search clause matching movies whose director contains the text
+   */
+  @Lock(LockType.READ)
+  public MoviePredicate directorContains(String text) {
+    return snapshot().directorContains(text);
+  }
+
+  /**
+   * @param from start in epoch milliseconds
+   * @param to exclusive end in epoch milliseconds
+   * @return structured search clause matching movies released in the range, listed newest first
+   */
+  @Lock(LockType.READ)
+  public MoviePredicate releasedBetween(long from, long to) {
+    return snapshot().releasedBetween(from, to);
+  }
+
+  /**
+   * @return structured search clause matching every movie
+   */
+  @Lock(LockType.READ)
+  public MoviePredicate everything() {
+    return snapshot().everything();
+  }
+}
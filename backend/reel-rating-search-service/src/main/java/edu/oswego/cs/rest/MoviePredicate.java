@@ -0,0 +1,27 @@
+package edu.oswego.cs.rest;
+
+import java.util.List;
+
+/**
+ * One clause of a structured search, answered by the index that holds its field. The QueryPlanner asks every clause
+ * for an estimate, lists the movies of the most selective one and tests each of them against the others, so a search
+ * costs about as much as its most selective clause.
+ */
+public interface MoviePredicate {
+
+  /**
+   * @return about how many movies match, from the statistics of the index; at least the true number where the
+   * index only has an upper bound
+   */
+  long estimate();
+
+  /**
+   * @return ids of the matching movies, in the order of the index
+   */
+  List<String> movies();
+
+  /**
+   * @return whether the movie with the id matches
+   */
+  boolean test(String movieId);
+}
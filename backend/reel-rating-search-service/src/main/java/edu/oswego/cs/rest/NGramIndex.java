@@ -0,0 +1,172 @@
+package edu.oswego.cs.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index over one text field of the catalog. Values are lowercased; every token of a value and every
+ * substring of one to three characters (n-gram) points to a sorted int array of the documents that contain it.
+ *
+ * A word of up to three characters is looked up directly. A longer word intersects the postings of its trigrams,
+ * starting with the shortest, and the few candidates left are checked with String.contains. Either way a lookup costs
+ * in proportion to the postings it touches, not to the size of the catalog.
+ */
+final class NGramIndex {
+
+  static final int MAX_GRAM = 3;
+  private static final int[] NONE = new int[0];
+
+  private final String[] values;
+  private final Map<String, int[]> tokens;
+  private final Map<String, int[]> grams;
+
+  /**
+   * @param values value of the field for each document, null for documents without one
+   */
+  NGramIndex(String[] values) {
+    this.values = new String[values.length];
+    Map<String, IntList> tokenLists = new HashMap<>();
+    Map<String, IntList> gramLists = new HashMap<>();
+    for (int doc = 0; doc < values.length; doc++) {
+      String value = values[doc] == null ? "" : values[doc].toLowerCase();
+      this.values[doc] = value;
+      for (String token : tokenize(value)) {
+        tokenLists.computeIfAbsent(token, t -> new IntList()).addOnce(doc);
+      }
+      for (int length = 1; length <= MAX_GRAM; length++) {
+        for (int i = 0; i + length <= value.length(); i++) {
+          gramLists.computeIfAbsent(value.substring(i, i + length), g -> new IntList()).addOnce(doc);
+        }
+      }
+    }
+    tokens = freeze(tokenLists);
+    grams = freeze(gramLists);
+  }
+
+  /**
+   * Splits a lowercased value into its tokens, the runs of letters and digits.
+   */
+  static List<String> tokenize(String value) {
+    List<String> tokens = new ArrayList<>();
+    for (String token : value.split("[^\\p{L}\\p{N}]+")) {
+      if (!token.isEmpty()) tokens.add(token);
+    }
+    return tokens;
+  }
+
+  /**
+   * @return the lowercased value of the document
+   */
+  String value(int doc) {
+    return values[doc];
+  }
+
+  /**
+   * @return the distinct tokens of the field with the number of documents containing each
+   */
+  Map<String, Integer> tokenCounts() {
+    Map<String, Integer> counts = new HashMap<>(tokens.size() * 2);
+    tokens.forEach((token, docs) -> counts.put(token, docs.length));
+    return counts;
+  }
+
+  /**
+   * @param token lowercased token
+   * @return sorted documents that have the token, do not modify
+   */
+  int[] withToken(String token) {
+    return tokens.getOrDefault(token, NONE);
+  }
+
+  /**
+   * @param word lowercased word
+   * @return sorted documents whose value contains the word, none for an empty word
+   */
+  int[] containing(String word) {
+    if (word.isEmpty()) return NONE;
+    if (word.length() <= MAX_GRAM) return grams.getOrDefault(word, NONE);
+    Set<String> trigrams = new HashSet<>();
+    for (int i = 0; i + MAX_GRAM <= word.length(); i++) trigrams.add(word.substring(i, i + MAX_GRAM));
+    List<int[]> postings = new ArrayList<>(trigrams.size());
+    for (String trigram : trigrams) {
+      int[] docs = grams.get(trigram);
+      if (docs == null) return NONE;
+      postings.add(docs);
+    }
+    postings.sort((a, b) -> Integer.compare(a.length, b.length));
+    int[] candidates = postings.get(0);
+    for (int i = 1; i < postings.size() && candidates.length > 0; i++) {
+      candidates = intersect(candidates, postings.get(i));
+    }
+    IntList matches = new IntList();
+    for (int doc : candidates) {
+      if (values[doc].contains(word)) matches.addOnce(doc);
+    }
+    return matches.toArray();
+  }
+
+  /**
+   * @param word lowercased word
+   * @return at least the number of documents containing the word, read from the postings without intersecting them:
+   * exact for a word of up to three characters, otherwise the length of its shortest trigram posting list
+   */
+  int estimate(String word) {
+    if (word.isEmpty()) return 0;
+    if (word.length() <= MAX_GRAM) return grams.getOrDefault(word, NONE).length;
+    int shortest = Integer.MAX_VALUE;
+    for (int i = 0; i + MAX_GRAM <= word.length(); i++) {
+      shortest = Math.min(shortest, grams.getOrDefault(word.substring(i, i + MAX_GRAM), NONE).length);
+    }
+    return shortest;
+  }
+
+  /**
+   * Merges two sorted posting lists into the documents found in both.
+   */
+  static int[] intersect(int[] a, int[] b) {
+    int[] both = new int[Math.min(a.length, b.length)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) i++;
+      else if (a[i] > b[j]) j++;
+      else {
+        both[size++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(both, size);
+  }
+
+  private static Map<String, int[]> freeze(Map<String, IntList> lists) {
+    Map<String, int[]> frozen = new HashMap<>(lists.size() * 2);
+    lists.forEach((key, list) -> frozen.put(key, list.toArray()));
+    return frozen;
+  }
+
+  /**
+   * Growable int array for building posting lists. Documents are added in increasing order, so a document already
+   * in the list is the last one.
+   */
+  static final class IntList {
+    private int[] items = new int[4];
+    private int size;
+
+    void addOnce(int doc) {
+      if (size > 0 && items[size - 1] == doc) return;
+      if (size == items.length) items = Arrays.copyOf(items, size * 2);
+      items[size++] = doc;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(items, size);
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package edu.oswego.cs.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact prefix trie for autocomplete. Every entry is indexed from its start and from the start of each word in it,
+ * so "wars" completes to "Star Wars". The trie is path compressed: a node exists only where keys branch, its edge
+ * label is read from one of the keys below it instead of being copied, and the nodes live in int arrays laid out
+ * breadth first so the children of a node are contiguous and sorted.
+ *
+ * Entries are numbered by rank, most popular first, so the best completions below a node are simply its smallest
+ * entry numbers. Each node stores its top TOP entries, computed once when the trie is built; a lookup walks at most
+ * the length of the prefix and copies that list.
+ */
+final class PrefixIndex {
+
+  static final int TOP = 5;
+
+  private final String[] texts;
+  private final String[] normalized;
+  // keys, sorted: the suffix of normalized[keyEntry[k]] starting at keyOffset[k]
+  private final int[] keyEntry;
+  private final int[] keyOffset;
+  // nodes: a key below the node, the length of the prefix it stands for, and where its children start
+  private final int[] nodeKey;
+  private final int[] nodeDepth;
+  private final int[] firstChild;
+  // best entries of each node, TOP per node, padded with -1
+  private final int[] top;
+
+  /**
+   * @param weights text of every entry with its popularity
+   */
+  PrefixIndex(Map<String, Long> weights) {
+    List<Map.Entry<String, Long>> ranked = new ArrayList<>(weights.entrySet());
+    ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+    texts = new String[ranked.size()];
+    normalized = new String[ranked.size()];
+    Ints entries = new Ints();
+    Ints offsets = new Ints();
+    for (int entry = 0; entry < texts.length; entry++) {
+      texts[entry] = ranked.get(entry).getKey();
+      String text = normalize(texts[entry]).strip();
+      normalized[entry] = text;
+      for (int i = 0; i < text.length(); i++) {
+        if (i == 0 || text.charAt(i - 1) == ' ') {
+          entries.add(entry);
+          offsets.add(i);
+        }
+      }
+    }
+
+    Integer[] order = new Integer[entries.size];
+    for (int k = 0; k < order.length; k++) order[k] = k;
+    Comparator<Integer> bySuffix = (a, b) -> compareSuffixes(entries.items[a], offsets.items[a],
+            entries.items[b], offsets.items[b]);
+    Arrays.sort(order, bySuffix.thenComparing(k -> entries.items[k]));
+    keyEntry = new int[order.length];
+    keyOffset = new int[order.length];
+    for (int k = 0; k < order.length; k++) {
+      keyEntry[k] = entries.items[order[k]];
+      keyOffset[k] = offsets.items[order[k]];
+    }
+
+    // breadth first: a node covers the keys lo..hi, which share its prefix
+    Ints lo = new Ints();
+    Ints hi = new Ints();
+    Ints depth = new Ints();
+    Ints children = new Ints();
+    Ints terminalEnd = new Ints();
+    lo.add(0);
+    hi.add(keyEntry.length);
+    for (int node = 0; node < lo.size; node++) {
+      int from = lo.items[node];
+      int to = hi.items[node];
+      int nodeDepth = node == 0 ? 0 : commonPrefix(from, to - 1);
+      depth.add(nodeDepth);
+      children.add(lo.size);
+      // keys that end at this node sort before the ones that go on
+      int k = from;
+      while (k < to && keyLength(k) == nodeDepth) k++;
+      terminalEnd.add(k);
+      while (k < to) {
+        char c = keyChar(k, nodeDepth);
+        int groupEnd = k + 1;
+        while (groupEnd < to && keyChar(groupEnd, nodeDepth) == c) groupEnd++;
+        lo.add(k);
+        hi.add(groupEnd);
+        k = groupEnd;
+      }
+    }
+    int nodes = lo.size;
+    nodeKey = Arrays.copyOf(lo.items, nodes);
+    nodeDepth = Arrays.copyOf(depth.items, nodes);
+    firstChild = Arrays.copyOf(children.items, nodes + 1);
+    firstChild[nodes] = nodes;
+
+    // children are numbered after their parent, so going backwards every child is done before its parent
+    top = new int[nodes * TOP];
+    Arrays.fill(top, -1);
+    for (int node = nodes - 1; node >= 0; node--) {
+      Ints candidates = new Ints();
+      for (int k = nodeKey[node]; k < terminalEnd.items[node]; k++) candidates.add(keyEntry[k]);
+      for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+        for (int i = 0; i < TOP && top[child * TOP + i] >= 0; i++) candidates.add(top[child * TOP + i]);
+      }
+      int[] sorted = Arrays.copyOf(candidates.items, candidates.size);
+      Arrays.sort(sorted);
+      int kept = 0;
+      for (int i = 0; i < sorted.length && kept < TOP; i++) {
+        if (kept == 0 || top[node * TOP + kept - 1] != sorted[i]) top[node * TOP + kept++] = sorted[i];
+      }
+    }
+  }
+
+  /**
+   * Lowercases the text and turns every run of characters other than letters and digits into one space.
+   */
+  static String normalize(String text) {
+    StringBuilder normalized = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = Character.toLowerCase(text.charAt(i));
+      if (Character.isLetterOrDigit(c)) {
+        normalized.append(c);
+      } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+        normalized.append(' ');
+      }
+    }
+    return normalized.toString();
+  }
+
+  /**
+   * @param prefix what has been typed so far
+   * @return up to TOP entries with a word starting with the prefix, most popular first
+   */
+  List<String> complete(String prefix) {
+    String query = normalize(prefix);
+    if (query.isEmpty() || nodeDepth.length == 0) return List.of();
+    int node = find(query);
+    // a finished last word may also be the end of an entry, which no key continues with a space
+    if (node < 0 && query.endsWith(" ") && query.length() > 1) node = find(query.substring(0, query.length() - 1));
+    if (node < 0) return List.of();
+    List<String> completions = new ArrayList<>(TOP);
+    for (int i = 0; i < TOP && top[node * TOP + i] >= 0; i++) completions.add(texts[top[node * TOP + i]]);
+    return completions;
+  }
+
+  /**
+   * @return the node where the query ends, or -1 if no key starts with it
+   */
+  private int find(String query) {
+    int node = 0;
+    int matched = 0;
+    while (matched < query.length()) {
+      int child = findChild(node, query.charAt(matched));
+      if (child < 0) return -1;
+      int end = Math.min(nodeDepth[child], query.length());
+      for (int i = matched + 1; i < end; i++) {
+        if (keyChar(nodeKey[child], i) != query.charAt(i)) return -1;
+      }
+      node = child;
+      matched = end;
+    }
+    return node;
+  }
+
+  int entries() {
+    return texts.length;
+  }
+
+  /**
+   * @return estimated heap size of the index in bytes, counting the arrays and the strings they hold
+   */
+  long sizeInBytes() {
+    long bytes = 4L * (keyEntry.length + keyOffset.length + nodeKey.length + nodeDepth.length + firstChild.length
+            + top.length);
+    for (int entry = 0; entry < texts.length; entry++) {
+      // reference in each array, object header and length of each string
+      bytes += 2 * (8 + 40) + texts[entry].length() + 2L * normalized[entry].length();
+    }
+    return bytes;
+  }
+
+  // children are sorted by the first character of their edge
+  private int findChild(int node, char c) {
+    int low = firstChild[node];
+    int high = firstChild[node + 1] - 1;
+    int depth = nodeDepth[node];
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char label = keyChar(nodeKey[mid], depth);
+      if (label < c) low = mid + 1;
+      else if (label > c) high = mid - 1;
+      else return mid;
+    }
+    return -1;
+  }
+
+  private int commonPrefix(int a, int b) {
+    int length = Math.min(keyLength(a), keyLength(b));
+    int i = 0;
+    while (i < length && keyChar(a, i) == keyChar(b, i)) i++;
+    return i;
+  }
+
+  private int keyLength(int key) {
+    return normalized[keyEntry[key]].length() - keyOffset[key];
+  }
+
+  private char keyChar(int key, int i) {
+    return normalized[keyEntry[key]].charAt(keyOffset[key] + i);
+  }
+
+  private int compareSuffixes(int entryA, int offsetA, int entryB, int offsetB) {
+    String a = normalized[entryA];
+    String b = normalized[entryB];
+    int length = Math.min(a.length() - offsetA, b.length() - offsetB);
+    for (int i = 0; i < length; i++) {
+      int diff = a.charAt(offsetA + i) - b.charAt(offsetB + i);
+      if (diff != 0) return diff;
+    }
+    return (a.length() - offsetA) - (b.length() - offsetB);
+  }
+
+  // growable int array used while building
+  private static final class Ints {
+    int[] items = new int[16];
+    int size;
+
+    void add(int value) {
+      if (size == items.length) items = Arrays.copyOf(items, size * 2);
+      items[size++] = value;
+    }
+  }
+}
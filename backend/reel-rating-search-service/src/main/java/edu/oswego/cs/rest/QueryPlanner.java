@@ -0,0 +1,137 @@
+package edu.oswego.cs.rest;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs structured searches, see StructuredQuery. Every clause is handed to the index that holds its field, which
+ * estimates from its own statistics how many movies match: the n-gram postings of the MovieCatalog for titles and
+ * directors, its release dates for years, the bitmaps of the FacetIndex for tags and rating categories and the
+ * document frequencies of the FullTextIndex for cast.
+ *
+ * The clause with the lowest estimate drives the search: its movies are listed and each is tested against the other
+ * clauses, those that reject the most movies first, until the limit is reached. A search therefore costs about as
+ * much as its most selective clause, however many broad clauses come with it, and a clause no movie matches ends it
+ * before anything is listed. Negated clauses only ever test; a search with nothing but negated clauses is driven by
+ * the whole catalog.
+ *
+ * Searches are timed in structuredsearch.query, and structuredsearch.driver counts which field drove them.
+ */
+@ApplicationScoped
+public class QueryPlanner {
+
+  private static final Logger LOGGER = Logger.getLogger(QueryPlanner.class.getName());
+
+  @Inject
+  MovieCatalog movieCatalog;
+
+  @Inject
+  FacetIndex facetIndex;
+
+  @Inject
+  FullTextIndex fullTextIndex;
+
+  @Inject
+  MetricRegistry metrics;
+
+  // a clause with its predicate and how many movies are expected to pass it
+  private record Step(StructuredQuery.Clause clause, MoviePredicate predicate, long passing) {
+    boolean test(String movieId) {
+      return predicate.test(movieId) != clause.negated();
+    }
+
+    @Override
+    public String toString() {
+      return (clause.negated() ? "-" : "") + clause.field().name().toLowerCase() + ":" + clause.value() + "~" + passing;
+    }
+  }
+
+  /**
+   * @param query the structured search
+   * @param limit largest number of movies to return
+   * @return ids of matching movies, in the order of the index of the driving clause
+   * @throws IllegalArgumentException if the search cannot be parsed, or a cast clause has no words to search for
+   */
+  public List<String> search(String query, int limit) {
+    long started = System.nanoTime();
+    List<StructuredQuery.Clause> clauses = StructuredQuery.parse(query);
+    List<String> movieIds = new ArrayList<>();
+    if (clauses.isEmpty() || limit <= 0) return movieIds;
+
+    MoviePredicate everything = movieCatalog.everything();
+    long movies = everything.estimate();
+    List<Step> steps = new ArrayList<>(clauses.size());
+    for (StructuredQuery.Clause clause : clauses) {
+      MoviePredicate predicate = predicate(clause);
+      long estimate = Math.min(movies, predicate.estimate());
+      // a clause nothing matches, so no movie matches them all
+      if (estimate == 0 && !clause.negated()) return record("none", started, movieIds);
+      steps.add(new Step(clause, predicate, clause.negated() ? movies - estimate : estimate));
+    }
+    steps.sort(Comparator.comparingLong(Step::passing));
+
+    Step driver = null;
+    for (Step step : steps) {
+      if (!step.clause().negated()) {
+        driver = step;
+        break;
+      }
+    }
+    steps.remove(driver);
+    if (LOGGER.isLoggable(Level.FINE)) LOGGER.fine("Plan for " + query + ": " + driver + " then " + steps);
+
+    MoviePredicate candidates = driver == null ? everything : driver.predicate();
+    for (String movieId : candidates.movies()) {
+      boolean matches = true;
+      for (int i = 0; i < steps.size() && matches; i++) {
+        matches = steps.get(i).test(movieId);
+      }
+      if (matches) {
+        movieIds.add(movieId);
+        if (movieIds.size() == limit) break;
+      }
+    }
+    return record(driver == null ? "all" : driver.clause().field().name().toLowerCase(), started, movieIds);
+  }
+
+  private List<String> record(String driver, long started, List<String> movieIds) {
+    metrics.counter("structuredsearch.driver", new Tag("field", driver)).inc();
+    metrics.timer("structuredsearch.query").update(Duration.ofNanos(System.nanoTime() - started));
+    return movieIds;
+  }
+
+  private MoviePredicate predicate(StructuredQuery.Clause clause) {
+    return switch (clause.field()) {
+      case TITLE -> movieCatalog.titleContains(clause.value());
+      case DIRECTOR -> movieCatalog.directorContains(clause.value());
+      case CAST -> fullTextIndex.castContains(clause.value());
+      case TAG -> facetIndex.withTag(clause.value());
+      case YEAR -> {
+        long[] range = clause.releaseRange();
+        yield movieCatalog.releasedBetween(range[0], range[1]);
+      }
+      case RATING -> facetIndex.ratedIn(clause.value(), comparison(clause.operator(), clause.number()));
+    };
+  }
+
+  private static DoublePredicate comparison(String operator, double number) {
+    if (operator == null) return null;
+    return switch (operator) {
+      case ">" -> average -> average > number;
+      case ">=" -> average -> average >= number;
+      case "<" -> average -> average < number;
+      case "<=" -> average -> average <= number;
+      default -> average -> average == number;
+    };
+  }
+}
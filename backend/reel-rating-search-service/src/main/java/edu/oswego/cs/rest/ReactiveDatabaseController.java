@@ -0,0 +1,206 @@
+package edu.oswego.cs.rest;
+
+import edu.oswego.cs.rest.JsonClasses.Movie;
+import edu.oswego.cs.rest.JsonClasses.Rating;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.TextSearchOptions;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking versions of the indexed DatabaseController searches, built on the reactive streams driver. Each method
+ * returns as soon as the first query is sent; the tags and rating of every result are then read concurrently instead of
+ * one movie after the other. The manual searches scan the whole movie collection and stay blocking.
+ */
+@ApplicationScoped
+public class ReactiveDatabaseController {
+  @Inject
+  MongoDatabase movieDatabase;
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  @ConfigProperty(name = "singleflight.ttlMillis", defaultValue = "1000")
+  long singleFlightTtlMillis;
+
+  private static final Bson PREVIEW_PROJECTION = Projections.include("title", "plotSummary");
+  // largest $in list sent in one query, as in DatabaseController
+  private static final int ID_BATCH_SIZE = 500;
+
+  private MongoCollection<Document> movieCollection;
+  private MongoCollection<Document> actorCollection;
+  private MongoCollection<Document> tagCollection;
+  private MongoCollection<Document> ratingCollection;
+  // most popular rating of a movie, shared by concurrent requests for the same movie
+  private SingleFlight<String, Rating> mostPopularRatings;
+
+  @PostConstruct
+  void initCollections() {
+    movieCollection = movieDatabase.getCollection("movies");
+    actorCollection = movieDatabase.getCollection("actors");
+    tagCollection = movieDatabase.getCollection("tags");
+    ratingCollection = movieDatabase.getCollection("ratings");
+    mostPopularRatings = new SingleFlight<>("mostPopularRatingReactive", singleFlightTtlMillis, metrics);
+  }
+
+  /**
+   * Search movies by name with Mongo's text index, see DatabaseController.searchByMovieNameIndex.
+   */
+  public CompletionStage<List<Movie>> searchByMovieNameIndex(String title) {
+    Bson filter = Filters.text(title, new TextSearchOptions().caseSensitive(false));
+    return Publishers.toList(movieCollection.find(filter).projection(PREVIEW_PROJECTION))
+            .thenCompose(this::documentsToMoviePreviews);
+  }
+
+  /**
+   * Search movies by cast with the actor text index, see DatabaseController.searchByMovieCastIndex.
+   */
+  public CompletionStage<List<Movie>> searchByMovieCastIndex(String cast) {
+    Bson filter = Filters.text(cast, new TextSearchOptions().caseSensitive(false));
+    return Publishers.toList(actorCollection.find(filter).projection(Projections.include("movies")))
+            .thenCompose(actors -> {
+              var movieIds = new ArrayList<String>();
+              for (Document actor : actors) {
+                var actorMovies = actor.getList("movies", String.class);
+                if (actorMovies != null) movieIds.addAll(actorMovies);
+              }
+              return getMovieDocumentsWithHexIds(movieIds);
+            })
+            .thenCompose(this::documentsToMoviePreviews);
+  }
+
+  /**
+   * Loads movies by id with one <code>$in</code> query per batch, all batches at once. Keeps the order of the ids and
+   * skips invalid, repeated and missing ids like DatabaseController.getMovieDocumentsWithHexIds.
+   */
+  private CompletionStage<List<Document>> getMovieDocumentsWithHexIds(List<String> hexIds) {
+    List<ObjectId> ids = new ArrayList<>(hexIds.size());
+    Set<String> seen = new HashSet<>();
+    for (String hexId : hexIds) {
+      if (hexId != null && ObjectId.isValid(hexId) && seen.add(hexId)) ids.add(new ObjectId(hexId));
+    }
+    List<CompletableFuture<List<Document>>> batches = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+      List<ObjectId> batch = ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size()));
+      batches.add(Publishers.toList(movieCollection.find(Filters.in("_id", batch)).projection(PREVIEW_PROJECTION)));
+    }
+    return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).thenApply(done -> {
+      Map<ObjectId, Document> found = new HashMap<>(ids.size() * 2);
+      for (CompletableFuture<List<Document>> batch : batches) {
+        batch.join().forEach(document -> found.put(document.getObjectId("_id"), document));
+      }
+      List<Document> documents = new ArrayList<>(found.size());
+      for (ObjectId id : ids) {
+        Document document = found.get(id);
+        if (document != null) documents.add(document);
+      }
+      return documents;
+    });
+  }
+
+  /**
+   * Builds the movie cards for the documents, reading the tags and rating of every movie at the same time.
+   */
+  private CompletionStage<List<Movie>> documentsToMoviePreviews(List<Document> documents) {
+    List<CompletableFuture<Movie>> previews = new ArrayList<>(documents.size());
+    for (Document document : documents) {
+      previews.add(documentToMoviePreview(document));
+    }
+    return CompletableFuture.allOf(previews.toArray(new CompletableFuture[0])).thenApply(done -> {
+      List<Movie> movies = new ArrayList<>(previews.size());
+      previews.forEach(preview -> movies.add(preview.join()));
+      return movies;
+    });
+  }
+
+  /**
+   * Non-blocking DatabaseController.documentToMoviePreview: title, summary, three tag names and the most popular
+   * rating.
+   */
+  private CompletableFuture<Movie> documentToMoviePreview(Document document) {
+    var m = new Movie();
+    m.setId(document.getObjectId("_id").toHexString());
+    m.setSummary(document.getString("plotSummary"));
+    m.setTitle(document.getString("title"));
+    var tagNames = Publishers.toList(tagCollection.find(Filters.eq("movieId", m.getId()))
+            .projection(Projections.include("tagName")).limit(3));
+    var rating = getMostPopularAggregatedRatingForMovie(m.getId());
+    return tagNames.thenCombine(rating, (tags, r) -> {
+      ArrayList<String> tagNameList = new ArrayList<>();
+      tags.forEach(tag -> tagNameList.add(tag.getString("tagName")));
+      m.setAttachedTags(tagNameList);
+      if (r != null) {
+        m.setMostPopularRatingCategory(r.getRatingName());
+        m.setMostPopRatingUpperBound(r.getUpperbound());
+        m.setMostPopRatingAvg(r.getUserRating());
+      }
+      return m;
+    });
+  }
+
+  /**
+   * Non-blocking DatabaseController.getMostPopularAggregatedRatingForMovie. The three queries depend on each other and
+   * run in sequence, without a thread waiting in between. Concurrent calls for the same movie share one run.
+   * @return future completing with the rating, or null if the movie has no ratings
+   */
+  private CompletableFuture<Rating> getMostPopularAggregatedRatingForMovie(String movieId) {
+    return mostPopularRatings.future(movieId, () -> aggregateMostPopularRatingForMovie(movieId));
+  }
+
+  private CompletableFuture<Rating> aggregateMostPopularRatingForMovie(String movieId) {
+    return Publishers.first(ratingCollection.aggregate(Arrays.asList(
+            Aggregates.match(Filters.eq("movieId", movieId)),
+            Aggregates.group("$ratingName", Accumulators.sum("count", 1)),
+            Aggregates.sort(Sorts.descending("count"))
+    ))).thenCompose(ratingNameDoc -> {
+      if (ratingNameDoc == null) return CompletableFuture.completedFuture(null);
+      String mostPopularCategoryName = ratingNameDoc.getString("_id");
+      return Publishers.first(ratingCollection.aggregate(Arrays.asList(
+              Aggregates.match(Filters.and(Filters.eq("movieId", movieId),
+                      Filters.eq("ratingName", mostPopularCategoryName))),
+              Aggregates.group("$upperbound", Accumulators.sum("count", 1)),
+              Aggregates.sort(Sorts.descending("count"))
+      ))).thenCompose(ratingScaleDoc -> {
+        String mostPopularCategoryUpperbound = ratingScaleDoc.getString("_id");
+        Bson filter = Filters.and(Filters.eq("movieId", movieId), Filters.eq("ratingName", mostPopularCategoryName),
+                Filters.eq("upperbound", mostPopularCategoryUpperbound));
+        return Publishers.toList(ratingCollection.find(filter).projection(Projections.include("userRating")))
+                .thenApply(ratings -> {
+                  int userRatingSum = 0;
+                  for (Document doc : ratings) {
+                    userRatingSum = userRatingSum + Integer.parseInt(doc.getString("userRating"));
+                  }
+                  double average = ((double) userRatingSum) / ratingScaleDoc.getInteger("count");
+                  Rating rating = new Rating();
+                  rating.setRatingName(mostPopularCategoryName);
+                  rating.setUpperbound(mostPopularCategoryUpperbound);
+                  rating.setUserRating(Double.toString(average));
+                  return rating;
+                });
+      });
+    });
+  }
+}
@@ -0,0 +1,133 @@
+package edu.oswego.cs.rest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts between the release date strings the API exchanges and the BSON dates stored on movie documents. Release
+ * dates are stored as UTC midnight, next to a releaseDatePrecision field that records whether the date was given as a
+ * year, a month or a day. A date given as a bare year is stored as January 1st of that year with precision year and
+ * is formatted back as just the year, while a movie released on January 1st keeps its day.
+ */
+public final class ReleaseDates {
+
+  // field of the movie document next to releaseDate
+  public static final String PRECISION_FIELD = "releaseDatePrecision";
+  public static final String YEAR_PRECISION = "year";
+  public static final String MONTH_PRECISION = "month";
+  public static final String DAY_PRECISION = "day";
+
+  // a release date read from a string and how much of it the string gave
+  private record Parsed(LocalDate day, String precision) {}
+
+  private static final Pattern YEAR = Pattern.compile("^\\d{4}$");
+  private static final Pattern YEAR_MONTH = Pattern.compile("^\\d{4}-\\d{2}$");
+  private static final Pattern ISO_DAY = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
+  private static final Pattern ANY_YEAR = Pattern.compile("\\b(1[89]\\d{2}|2\\d{3})\\b");
+  private static final DateTimeFormatter LONG_FORM = DateTimeFormatter.ofPattern("MMMM d, uuuu", Locale.ENGLISH);
+
+  private ReleaseDates() {
+  }
+
+  /**
+   * Parses a release date. Accepts <code>yyyy</code>, <code>yyyy-MM</code>, <code>yyyy-MM-dd</code> and
+   * <code>MMMM d, yyyy</code>; anything else that contains a year is read as that year.
+   *
+   * @param releaseDate release date string
+   * @return the start of the release date in UTC, or null if the string has no year in it
+   */
+  public static Date parse(String releaseDate) {
+    Parsed parsed = read(releaseDate);
+    return parsed == null ? null : toDate(parsed.day());
+  }
+
+  /**
+   * @param releaseDate release date string
+   * @return year, month or day, whichever the string names, or null if the string has no year in it
+   */
+  public static String precision(String releaseDate) {
+    Parsed parsed = read(releaseDate);
+    return parsed == null ? null : parsed.precision();
+  }
+
+  private static Parsed read(String releaseDate) {
+    if (releaseDate == null) return null;
+    String value = releaseDate.trim();
+    try {
+      if (YEAR.matcher(value).matches()) {
+        return new Parsed(LocalDate.of(Integer.parseInt(value), 1, 1), YEAR_PRECISION);
+      }
+      if (YEAR_MONTH.matcher(value).matches()) return new Parsed(YearMonth.parse(value).atDay(1), MONTH_PRECISION);
+      return new Parsed(LocalDate.parse(value), DAY_PRECISION);
+    } catch (DateTimeParseException ignored) {
+      // not ISO, try the other forms
+    }
+    try {
+      return new Parsed(LocalDate.parse(value, LONG_FORM), DAY_PRECISION);
+    } catch (DateTimeParseException ignored) {
+      // fall back to the first year in the string
+    }
+    Matcher year = ANY_YEAR.matcher(value);
+    return year.find() ? new Parsed(LocalDate.of(Integer.parseInt(year.group(1)), 1, 1), YEAR_PRECISION) : null;
+  }
+
+  /**
+   * Returns the exclusive end of the period a release date string names: the next year for a year, the next month
+   * for a month and the next day otherwise. Used as the upper bound of range queries so <code>to=2010</code> includes
+   * every movie released in 2010.
+   *
+   * @param releaseDate release date string
+   * @return the first instant after the named period, or null if the string has no year in it
+   */
+  public static Date parseEnd(String releaseDate) {
+    Parsed parsed = read(releaseDate);
+    if (parsed == null) return null;
+    return toDate(switch (parsed.precision()) {
+      case YEAR_PRECISION -> parsed.day().plusYears(1);
+      case MONTH_PRECISION -> parsed.day().plusMonths(1);
+      default -> parsed.day().plusDays(1);
+    });
+  }
+
+  /**
+   * Formats a stored release date for the API, as much of it as its precision says was given. Values that are still
+   * strings, from rows the migration could not read, are returned unchanged.
+   *
+   * @param value the releaseDate field of a movie document
+   * @param precision the releaseDatePrecision field of the document, null for a day
+   * @return the release date as a string, or null if the field is missing
+   */
+  public static String format(Object value, Object precision) {
+    if (value instanceof Date date) return truncate(toLocalDate(date).toString(), precision);
+    return value == null ? null : value.toString();
+  }
+
+  /**
+   * Cuts a <code>yyyy-MM-dd</code> date down to its precision; anything else is returned unchanged.
+   */
+  public static String truncate(String day, Object precision) {
+    if (!ISO_DAY.matcher(day).matches()) return day;
+    if (YEAR_PRECISION.equals(precision)) return day.substring(0, 4);
+    if (MONTH_PRECISION.equals(precision)) return day.substring(0, 7);
+    return day;
+  }
+
+  public static Date startOfYear(int year) {
+    return toDate(LocalDate.of(year, 1, 1));
+  }
+
+  private static Date toDate(LocalDate day) {
+    return Date.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+  }
+
+  private static LocalDate toLocalDate(Date date) {
+    return date.toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+  }
+}
@@ -0,0 +1,12 @@
+package edu.oswego.cs.rest;
+
+/**
+ * How much of each movie a DatabaseController search returns. Autocomplete only shows titles, so it asks for TITLES
+ * and skips the tag and rating lookups that a page of CARDS pays for on every movie.
+ */
+public enum ResultShape {
+  // id and title only
+  TITLES,
+  // id, title, summary, the searched field, three tag names and the most popular rating
+  CARDS
+}
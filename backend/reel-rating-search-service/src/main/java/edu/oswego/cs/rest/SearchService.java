@@ -2,6 +2,7 @@ package edu.oswego.cs.rest;
 
 import edu.oswego.cs.rest.JsonClasses.*;
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
@@ -15,10 +16,16 @@ import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import jakarta.ws.rs.core.Response.Status;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 import java.util.Optional;
 
 import com.ibm.websphere.security.jwt.JwtConsumer;
@@ -30,6 +37,20 @@ import com.ibm.websphere.security.jwt.JwtConsumer;
 @RequestScoped
 public class SearchService {
 
+  @Inject
+  DatabaseController dbc;
+
+  @Inject
+  ReactiveDatabaseController reactiveDbc;
+
+  // read endpoints answer without holding a request thread while the session is checked and Mongo is queried
+  @Inject
+  @ConfigProperty(name = "mongo.reactive.enabled", defaultValue = "false")
+  boolean reactiveReads;
+
+  @Inject
+  BlockingExecutor blockingExecutor;
+
   String AuthServiceUrl = System.getenv("AUTH_SERVICE_URL");
 
   /**
@@ -56,6 +77,62 @@ public class SearchService {
     return username;
   }
 
+  /**
+   * Non-blocking version of getUsername. The request to the auth service is sent with the reactive client API, so
+   * no thread waits for the reply.
+   *
+   * @param sessionId
+   * @return stage completing with the username, or null if the session does not belong to a user
+   */
+  public CompletionStage<String> getUsernameAsync(String sessionId) {
+    Client authClient = ClientBuilder.newClient();
+    WebTarget target = authClient.target(AuthServiceUrl + "/reel-rating-auth-service/jwt/generate/" + sessionId);
+    return target.request().rx().get().thenApply(response -> {
+      String value = response.readEntity(String.class);
+      if (value == null || value.isEmpty()) {
+        return null;
+      }
+      try {
+        JwtConsumer jwtConsumer = JwtConsumer.create("reel_rating_token");
+        return jwtConsumer.createJwt(value).getClaims().getAllClaims().get("upn").toString();
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }).whenComplete((username, e) -> authClient.close());
+  }
+
+  /**
+   * Runs a read endpoint in one of three modes. With mongo.reactive.enabled the session check and the query are both
+   * non-blocking and the request thread is handed back until the result is ready. With threads.virtual.enabled the
+   * blocking session check and read run together on a virtual thread, which is cheap to park while they wait.
+   * Otherwise the blocking read runs on the request thread. In every mode a session that does not belong to a user is
+   * answered with 401.
+   *
+   * @param sessionId session of the requester
+   * @param blockingRead read through DatabaseController
+   * @param reactiveRead the same read through ReactiveDatabaseController
+   * @return stage completing with the response
+   */
+  private <T> CompletionStage<Response> read(String sessionId, Callable<T> blockingRead,
+                                             Supplier<CompletionStage<T>> reactiveRead) throws Exception {
+    if (reactiveReads) {
+      return getUsernameAsync(sessionId).thenCompose(requesterUsername -> requesterUsername == null
+              ? CompletableFuture.completedFuture(Response.status(Response.Status.UNAUTHORIZED).build())
+              : reactiveRead.get().thenApply(result -> Response.ok(result).build()));
+    }
+    if (blockingExecutor.isVirtual()) {
+      return blockingExecutor.supply(() -> blockingRead(sessionId, blockingRead));
+    }
+    return CompletableFuture.completedFuture(blockingRead(sessionId, blockingRead));
+  }
+
+  private <T> Response blockingRead(String sessionId, Callable<T> read) throws Exception {
+    if (getUsername(sessionId) == null) {
+      return Response.status(Response.Status.UNAUTHORIZED).build();
+    }
+    return Response.ok(read.call()).build();
+  }
+
   /*
    * Movie Get Endpoints
    *
@@ -63,9 +140,12 @@ public class SearchService {
    * searchMovieByReleaseDate
    * searchMovieByDirector
    * searchMovieByCast
+   * fullTextSearch
    *
    * searchMovieByTagName
    * searchMovieByRatingName
+   * facetSearch
+   * structuredSearch
    * searchUsersByName
    *
    *
@@ -74,13 +154,10 @@ public class SearchService {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/searchByMovieNameIndex/{name}")
-  public Response searchByMovieName(@Context HttpServletRequest request, @PathParam("name") String name, JSession jsession) throws Exception {
-   String sessionId = jsession.getJSESSIONID();
-   String requesterUsername = getUsername(sessionId);
-   if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Movie> movies = dbc.searchByMovieNameIndex(name);
-    return Response.ok(movies).build();
+  public CompletionStage<Response> searchByMovieName(@Context HttpServletRequest request, @PathParam("name") String name, JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(),
+            () -> dbc.searchByMovieNameIndex(name),
+            () -> reactiveDbc.searchByMovieNameIndex(name));
   }
 
   @POST
@@ -91,11 +168,22 @@ public class SearchService {
    String sessionId = jsession.getJSESSIONID();
    String requesterUsername = getUsername(sessionId);
    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Movie> movies = dbc.manualSearchByMovieName(name);
     return Response.ok(movies).build();
   }
 
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/movie/fullTextSearch/{text}")
+  public Response fullTextSearch(@Context HttpServletRequest request, @PathParam("text") String text, JSession jsession) throws Exception {
+    String sessionId = jsession.getJSESSIONID();
+    String requesterUsername = getUsername(sessionId);
+    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
+    List<Movie> movies = dbc.fullTextSearch(text);
+    return Response.ok(movies).build();
+  }
+
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
@@ -104,7 +192,6 @@ public class SearchService {
    String sessionId = jsession.getJSESSIONID();
    String requesterUsername = getUsername(sessionId);
    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Movie> movies = dbc.manualSearchByMovieReleaseDate(releaseDate);
     return Response.ok(movies).build();
   }
@@ -117,7 +204,6 @@ public class SearchService {
    String sessionId = jsession.getJSESSIONID();
    String requesterUsername = getUsername(sessionId);
    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Movie> movies = dbc.manualSearchByMovieDirector(director);
     return Response.ok(movies).build();
   }
@@ -130,7 +216,6 @@ public class SearchService {
    String sessionId = jsession.getJSESSIONID();
    String requesterUsername = getUsername(sessionId);
    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Movie> movies = dbc.manualSearchByMovieCast(actorName);
     return Response.ok(movies).build();
   }
@@ -139,13 +224,10 @@ public class SearchService {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/movie/searchByActorNameIndex/{actorName}")
-  public Response searchByActorNameIndex(@Context HttpServletRequest request, @PathParam("actorName") String actorName, JSession jsession) throws Exception {
-   String sessionId = jsession.getJSESSIONID();
-   String requesterUsername = getUsername(sessionId);
-   if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
-    List<Movie> movies = dbc.searchByMovieCastIndex(actorName);
-    return Response.ok(movies).build();
+  public CompletionStage<Response> searchByActorNameIndex(@Context HttpServletRequest request, @PathParam("actorName") String actorName, JSession jsession) throws Exception {
+    return read(jsession.getJSESSIONID(),
+            () -> dbc.searchByMovieCastIndex(actorName),
+            () -> reactiveDbc.searchByMovieCastIndex(actorName));
   }
 
   @POST
@@ -156,7 +238,6 @@ public class SearchService {
     String sessionId = jsession.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Movie> movies = dbc.searchbyRatingName(ratingName);
     return Response.ok(movies).build();
   }
@@ -169,9 +250,33 @@ public class SearchService {
     String sessionId = jsession.getJSESSIONID();
     String requesterUsername = getUsername(sessionId);
     if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
-    DatabaseController dbc = new DatabaseController();
     List<Movie> movies = dbc.searchByTagName(tagName);
     return Response.ok(movies).build();
   }
 
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/movie/facetSearch")
+  public Response facetSearch(@Context HttpServletRequest request, FacetQuery query) throws Exception {
+    String sessionId = query.getJSESSIONID();
+    String requesterUsername = getUsername(sessionId);
+    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
+    FacetResult result = dbc.facetSearch(query);
+    return Response.ok(result).build();
+  }
+
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/movie/structuredSearch/{query}")
+  public Response structuredSearch(@Context HttpServletRequest request, @PathParam("query") String query, JSession jsession) throws Exception {
+    String sessionId = jsession.getJSESSIONID();
+    String requesterUsername = getUsername(sessionId);
+    if (requesterUsername == null) { return Response.status(Response.Status.UNAUTHORIZED).build(); }
+    List<Movie> movies;
+    try { movies = dbc.structuredSearch(query); } catch (IllegalArgumentException e) { return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build(); }
+    return Response.ok(movies).build();
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package edu.oswego.cs.rest;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one. The first caller for a key loads it; callers that arrive while
+ * that load is running wait for the same CompletableFuture instead of starting their own, and callers that arrive
+ * within the TTL after it finished get its result. A failed load is not kept, the next caller loads again.
+ *
+ * Results are shared between callers and must not be modified. Each outcome is counted in the singleflight.requests
+ * metric, tagged with the name of the instance and whether the call was a miss, collapsed into a running load, or a
+ * hit on a finished one.
+ *
+ * @param <K> key, for example a movie id
+ * @param <V> loaded value
+ */
+public class SingleFlight<K, V> {
+
+  // finished entries are swept out once the map grows past this many keys
+  private static final int SWEEP_THRESHOLD = 1024;
+
+  private static final class Entry<V> {
+    final CompletableFuture<V> result = new CompletableFuture<>();
+    volatile long expiresAt = Long.MAX_VALUE;
+
+    boolean isFresh(long now) {
+      return !result.isDone() || now - expiresAt < 0;
+    }
+  }
+
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+  private final Counter misses;
+  private final Counter collapsed;
+  private final Counter hits;
+
+  /**
+   * @param name name the metrics are tagged with
+   * @param ttlMillis how long a finished result is reused, 0 to only share loads that are still running
+   * @param metrics registry to publish the counts in
+   */
+  public SingleFlight(String name, long ttlMillis, MetricRegistry metrics) {
+    this.ttlNanos = ttlMillis * 1_000_000;
+    Tag flight = new Tag("name", name);
+    misses = metrics.counter("singleflight.requests", flight, new Tag("outcome", "miss"));
+    collapsed = metrics.counter("singleflight.requests", flight, new Tag("outcome", "collapsed"));
+    hits = metrics.counter("singleflight.requests", flight, new Tag("outcome", "hit"));
+  }
+
+  /**
+   * Returns the value for the key, loading it on the calling thread unless a load is running or a result is fresh.
+   * @throws RuntimeException the exception thrown by the load this call waited for
+   */
+  public V get(K key, Supplier<V> load) {
+    try {
+      return future(key, () -> CompletableFuture.completedFuture(load.get())).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      throw e;
+    }
+  }
+
+  /**
+   * Non-blocking version of get for loads that return a future themselves.
+   */
+  public CompletableFuture<V> future(K key, Supplier<CompletableFuture<V>> load) {
+    long now = System.nanoTime();
+    boolean[] leader = {false};
+    Entry<V> entry = entries.compute(key, (k, current) -> {
+      if (current != null && current.isFresh(now)) return current;
+      leader[0] = true;
+      return new Entry<>();
+    });
+    if (!leader[0]) {
+      (entry.result.isDone() ? hits : collapsed).inc();
+      return entry.result;
+    }
+    misses.inc();
+    CompletableFuture<V> loaded;
+    try {
+      loaded = load.get();
+    } catch (RuntimeException e) {
+      loaded = CompletableFuture.failedFuture(e);
+    }
+    loaded.whenComplete((value, error) -> {
+      if (error != null) {
+        entries.remove(key, entry);
+        entry.result.completeExceptionally(error);
+      } else {
+        entry.expiresAt = System.nanoTime() + ttlNanos;
+        entry.result.complete(value);
+      }
+      if (entries.size() > SWEEP_THRESHOLD) {
+        long sweptAt = System.nanoTime();
+        entries.values().removeIf(e -> !e.isFresh(sweptAt));
+      }
+    });
+    return entry.result;
+  }
+
+  /**
+   * Drops the result for the key after a write changed it. Callers already waiting on a running load still get that
+   * load's result; the next caller loads again.
+   */
+  public void forget(K key) {
+    entries.remove(key);
+  }
+}
@@ -0,0 +1,230 @@
+package edu.oswego.cs.rest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo tolerant lookup of the words of one autocomplete field, using symmetric deletes. Every word is indexed under
+ * each string that can be made from one of its prefixes by deleting up to maxDistance characters. A typed word is
+ * looked up under its own deletes, and the candidates found are checked with the edit distance, counting a swap of two
+ * neighbouring characters as one edit. Only the first PREFIX characters of a word are used for the deletes, which
+ * bounds the size of the index on long words; the edit distance is still computed on the whole word.
+ *
+ * The word still being typed is compared with the start of each known word instead, so "incpe" finds "inception".
+ * Its deletes are made from its first PREFIX characters less the edits allowed, which line up with a prefix of at
+ * most PREFIX characters of the word it matches.
+ *
+ * Words are weighted by how popular the entries containing them are, and a correction prefers the closest word, then
+ * the most popular.
+ */
+final class SpellingIndex {
+
+  private static final int PREFIX = 7;
+  // shortest delete ever looked up, those of a three character word with one edit
+  private static final int MIN_DELETE = 2;
+
+  private final int maxDistance;
+  // words sorted, and the weight of each
+  private final String[] words;
+  private final long[] weights;
+  private final Map<String, int[]> deletes;
+
+  /**
+   * @param entries text of every entry with its popularity, as given to PrefixIndex
+   * @param maxDistance largest number of edits a correction may make
+   */
+  SpellingIndex(Map<String, Long> entries, int maxDistance) {
+    this.maxDistance = maxDistance;
+    Map<String, Long> wordWeights = new HashMap<>();
+    entries.forEach((text, weight) -> {
+      for (String word : PrefixIndex.normalize(text).split(" ")) {
+        if (!word.isEmpty()) wordWeights.merge(word, weight, Long::sum);
+      }
+    });
+    words = wordWeights.keySet().toArray(new String[0]);
+    Arrays.sort(words);
+    weights = new long[words.length];
+    Map<String, NGramIndex.IntList> lists = new HashMap<>();
+    for (int id = 0; id < words.length; id++) {
+      weights[id] = wordWeights.get(words[id]);
+      String key = words[id].length() > PREFIX ? words[id].substring(0, PREFIX) : words[id];
+      Set<String> keys = new HashSet<>();
+      for (int length = MIN_DELETE; length <= key.length(); length++) {
+        for (String delete : deletesOf(key.substring(0, length), maxDistance)) {
+          if (delete.length() >= MIN_DELETE) keys.add(delete);
+        }
+      }
+      for (String delete : keys) {
+        lists.computeIfAbsent(delete, d -> new NGramIndex.IntList()).addOnce(id);
+      }
+    }
+    deletes = new HashMap<>(lists.size() * 2);
+    lists.forEach((delete, ids) -> deletes.put(delete, ids.toArray()));
+  }
+
+  /**
+   * Corrects every word of a normalized query that is not a known word. The last word is still being typed, so it
+   * counts as known if a word starts with it, and is otherwise corrected to a word that starts almost like it.
+   *
+   * @return the corrected query, or null if nothing was corrected
+   */
+  String correct(String query) {
+    boolean typing = !query.endsWith(" ");
+    String[] typed = query.strip().split(" ");
+    boolean corrected = false;
+    for (int i = 0; i < typed.length; i++) {
+      boolean last = typing && i == typed.length - 1;
+      if (typed[i].isEmpty() || (last ? hasPrefix(typed[i]) : isWord(typed[i]))) continue;
+      String suggestion = last ? suggestCompletion(typed[i]) : suggest(typed[i]);
+      if (suggestion != null) {
+        typed[i] = suggestion;
+        corrected = true;
+      }
+    }
+    if (!corrected) return null;
+    return String.join(" ", typed) + (typing ? "" : " ");
+  }
+
+  /**
+   * @return the closest and then most popular known word within the edit distance allowed for the word's length, or
+   *     null if there is none
+   */
+  String suggest(String word) {
+    return closest(word, false);
+  }
+
+  /**
+   * @return the closest and then most popular known word that starts within the edit distance allowed for the
+   *     prefix's length of the prefix, or null if there is none
+   */
+  String suggestCompletion(String prefix) {
+    return closest(prefix, true);
+  }
+
+  private String closest(String word, boolean prefix) {
+    int allowed = allowedDistance(word.length());
+    if (allowed == 0) return null;
+    int keyLength = prefix ? Math.max(1, PREFIX - allowed) : PREFIX;
+    String key = word.length() > keyLength ? word.substring(0, keyLength) : word;
+    Set<Integer> seen = new HashSet<>();
+    int best = -1;
+    int bestDistance = Integer.MAX_VALUE;
+    for (String delete : deletesOf(key, allowed)) {
+      int[] ids = deletes.get(delete);
+      if (ids == null) continue;
+      for (int id : ids) {
+        if (!seen.add(id)) continue;
+        int distance = prefix ? prefixDistance(word, words[id], allowed) : distance(word, words[id], allowed);
+        if (distance > allowed) continue;
+        if (distance < bestDistance || (distance == bestDistance && weights[id] > weights[best])) {
+          best = id;
+          bestDistance = distance;
+        }
+      }
+    }
+    return best < 0 ? null : words[best];
+  }
+
+  boolean isWord(String word) {
+    return Arrays.binarySearch(words, word) >= 0;
+  }
+
+  boolean hasPrefix(String prefix) {
+    int at = Arrays.binarySearch(words, prefix);
+    if (at >= 0) return true;
+    int next = -at - 1;
+    return next < words.length && words[next].startsWith(prefix);
+  }
+
+  /**
+   * @return estimated heap size of the index in bytes
+   */
+  long sizeInBytes() {
+    long bytes = 12L * words.length;
+    for (String word : words) bytes += 40 + 2L * word.length();
+    for (Map.Entry<String, int[]> entry : deletes.entrySet()) {
+      // map entry, key string and posting array
+      bytes += 32 + 40 + 2L * entry.getKey().length() + 16 + 4L * entry.getValue().length;
+    }
+    return bytes;
+  }
+
+  // short words have too many neighbours to correct reliably
+  private int allowedDistance(int length) {
+    if (length < 3) return 0;
+    if (length < 6) return Math.min(1, maxDistance);
+    return maxDistance;
+  }
+
+  /**
+   * @return the word and every string made from it by deleting up to distance characters
+   */
+  static Set<String> deletesOf(String word, int distance) {
+    Set<String> deletes = new HashSet<>();
+    deletes.add(word);
+    List<String> level = List.of(word);
+    for (int d = 0; d < distance; d++) {
+      Set<String> next = new HashSet<>();
+      for (String s : level) {
+        for (int i = 0; i < s.length(); i++) {
+          String delete = s.substring(0, i) + s.substring(i + 1);
+          if (deletes.add(delete)) next.add(delete);
+        }
+      }
+      level = List.copyOf(next);
+    }
+    return deletes;
+  }
+
+  /**
+   * Edit distance with insertions, deletions, substitutions and swaps of neighbouring characters.
+   *
+   * @return the distance, or limit + 1 once it is known to be larger than limit
+   */
+  static int distance(String a, String b, int limit) {
+    if (Math.abs(a.length() - b.length()) > limit) return limit + 1;
+    return distance(a, b, limit, false);
+  }
+
+  /**
+   * Edit distance of a to the closest prefix of b, see distance(String, String, int).
+   */
+  static int prefixDistance(String a, String b, int limit) {
+    if (b.length() < a.length() - limit) return limit + 1;
+    return distance(a, b, limit, true);
+  }
+
+  private static int distance(String a, String b, int limit, boolean prefix) {
+    int[] previous2 = new int[b.length() + 1];
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) previous[j] = j;
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      int rowMin = current[0];
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+        if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+          d = Math.min(d, previous2[j - 2] + 1);
+        }
+        current[j] = d;
+        rowMin = Math.min(rowMin, d);
+      }
+      if (rowMin > limit) return limit + 1;
+      int[] recycled = previous2;
+      previous2 = previous;
+      previous = current;
+      current = recycled;
+    }
+    int distance = previous[b.length()];
+    if (prefix) {
+      for (int j = 0; j < b.length(); j++) distance = Math.min(distance, previous[j]);
+    }
+    return Math.min(distance, limit + 1);
+  }
+}
@@ -0,0 +1,146 @@
+package edu.oswego.cs.rest;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser for structured searches that combine several fields, such as
+ * <code>director:nolan tag:heist year:2000..2010 rating:"Stickiness"&gt;7</code>. A search is a list of clauses
+ * separated by spaces and a movie has to match all of them:
+ *
+ * <ul>
+ *   <li><code>title:</code>, <code>director:</code>, <code>cast:</code> the field contains the value; words without a
+ *   field are title clauses</li>
+ *   <li><code>tag:</code> the movie has the tag</li>
+ *   <li><code>year:2000</code>, <code>year:2000..2010</code>, <code>year:2000..</code>, <code>year:..2010</code> the
+ *   movie was released in that year or range of years, both ends included</li>
+ *   <li><code>rating:Stickiness</code> the movie has ratings in the category; followed by one of
+ *   <code>&gt; &gt;= &lt; &lt;= =</code> and a number, their average compares that way with the number</li>
+ * </ul>
+ *
+ * A value with spaces is put in double quotes, and a clause starting with <code>-</code> is negated. Field names are
+ * case-insensitive; a word with a colon that is not a field name, like a title with a colon in it, is a title clause.
+ */
+final class StructuredQuery {
+
+  enum Field { TITLE, DIRECTOR, CAST, TAG, YEAR, RATING }
+
+  /**
+   * @param operator comparison of a rating clause, null for any rating
+   * @param number what the average rating is compared with, NaN without an operator
+   */
+  record Clause(Field field, String value, String operator, double number, boolean negated) {
+
+    /**
+     * @return start and exclusive end in epoch milliseconds of the years of a year clause
+     */
+    long[] releaseRange() {
+      int dots = value.indexOf("..");
+      String first = dots < 0 ? value : value.substring(0, dots);
+      String last = dots < 0 ? value : value.substring(dots + 2);
+      long from = first.isBlank() ? Long.MIN_VALUE + 1 : startOfYear(first, 0);
+      long to = last.isBlank() ? Long.MAX_VALUE : startOfYear(last, 1);
+      return new long[] {from, to};
+    }
+
+    private long startOfYear(String year, int plus) {
+      try {
+        return LocalDate.of(Integer.parseInt(year.trim()) + plus, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant()
+                .toEpochMilli();
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("year:" + value + " is not a year or a range of years like 2000..2010");
+      }
+    }
+  }
+
+  private static final Map<String, Field> FIELDS = Map.of("title", Field.TITLE, "director", Field.DIRECTOR,
+          "cast", Field.CAST, "tag", Field.TAG, "year", Field.YEAR, "rating", Field.RATING);
+  private static final Pattern FIELD = Pattern.compile("(title|director|cast|tag|year|rating):",
+          Pattern.CASE_INSENSITIVE);
+  private static final Pattern ANY_FIELD = Pattern.compile("(^|\\s)-?(title|director|cast|tag|year|rating):",
+          Pattern.CASE_INSENSITIVE);
+  private static final Set<String> OPERATORS = Set.of(">", ">=", "<", "<=", "=");
+
+  private StructuredQuery() {
+  }
+
+  /**
+   * @return whether the search names at least one field, as opposed to a plain title
+   */
+  static boolean isStructured(String query) {
+    return ANY_FIELD.matcher(query).find();
+  }
+
+  /**
+   * An unclosed quote runs to the end of the search, so a search that is still being typed parses.
+   *
+   * @return the clauses in the order given, empty for a blank search
+   * @throws IllegalArgumentException if a year or a rating comparison cannot be read
+   */
+  static List<Clause> parse(String query) {
+    List<Clause> clauses = new ArrayList<>();
+    Matcher field = FIELD.matcher(query);
+    int length = query.length();
+    int i = 0;
+    while (i < length) {
+      if (Character.isWhitespace(query.charAt(i))) {
+        i++;
+        continue;
+      }
+      boolean negated = query.charAt(i) == '-' && i + 1 < length && !Character.isWhitespace(query.charAt(i + 1));
+      if (negated) i++;
+      Field name = Field.TITLE;
+      if (field.region(i, length).lookingAt()) {
+        name = FIELDS.get(field.group(1).toLowerCase(Locale.ROOT));
+        i = field.end();
+      }
+      String value;
+      if (i < length && query.charAt(i) == '"') {
+        int close = query.indexOf('"', i + 1);
+        if (close < 0) close = length;
+        value = query.substring(i + 1, close);
+        i = Math.min(length, close + 1);
+      } else {
+        int start = i;
+        while (i < length && !Character.isWhitespace(query.charAt(i))
+                && !(name == Field.RATING && isComparison(query.charAt(i)))) {
+          i++;
+        }
+        value = query.substring(start, i);
+      }
+      String operator = null;
+      double number = Double.NaN;
+      if (name == Field.RATING && i < length && isComparison(query.charAt(i))) {
+        int start = i;
+        while (i < length && isComparison(query.charAt(i))) i++;
+        operator = query.substring(start, i);
+        start = i;
+        while (i < length && !Character.isWhitespace(query.charAt(i))) i++;
+        if (!OPERATORS.contains(operator)) {
+          throw new IllegalArgumentException(operator + " is not one of > >= < <= =");
+        }
+        try {
+          number = Double.parseDouble(query.substring(start, i));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("rating:" + value + operator + " needs a number to compare with");
+        }
+      }
+      if (value.isBlank()) continue;
+      Clause clause = new Clause(name, value.trim(), operator, number, negated);
+      if (name == Field.YEAR) clause.releaseRange();
+      clauses.add(clause);
+    }
+    return clauses;
+  }
+
+  private static boolean isComparison(char c) {
+    return c == '<' || c == '>' || c == '=';
+  }
+}
@@ -0,0 +1,90 @@
+package edu.oswego.cs.rest;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the k best of the documents offered to it, in a min-heap of primitive arrays whose root is the worst one
+ * kept. Picking a page of k results out of n matches costs O(n log k) and never sorts the matches that do not make
+ * the page. A higher score is better; of equal scores the lower document number, which is catalog order, wins.
+ */
+final class TopK {
+
+  private final int k;
+  private final int[] docs;
+  private final long[] scores;
+  private int size;
+
+  TopK(int k) {
+    this.k = Math.max(0, k);
+    docs = new int[this.k];
+    scores = new long[this.k];
+  }
+
+  void offer(int doc, long score) {
+    if (size < k) {
+      docs[size] = doc;
+      scores[size] = score;
+      siftUp(size++);
+    } else if (k > 0 && better(doc, score, docs[0], scores[0])) {
+      docs[0] = doc;
+      scores[0] = score;
+      siftDown(0);
+    }
+  }
+
+  /**
+   * @return the documents kept, best first
+   */
+  int[] result() {
+    int[] heapDocs = Arrays.copyOf(docs, size);
+    long[] heapScores = Arrays.copyOf(scores, size);
+    int[] result = new int[size];
+    // take the worst off the root until the heap is empty, filling the result from the back
+    for (int remaining = size; remaining > 0; remaining--) {
+      result[remaining - 1] = heapDocs[0];
+      heapDocs[0] = heapDocs[remaining - 1];
+      heapScores[0] = heapScores[remaining - 1];
+      siftDown(heapDocs, heapScores, 0, remaining - 1);
+    }
+    return result;
+  }
+
+  private static boolean better(int docA, long scoreA, int docB, long scoreB) {
+    return scoreA > scoreB || (scoreA == scoreB && docA < docB);
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      int parent = (i - 1) / 2;
+      if (!better(docs[parent], scores[parent], docs[i], scores[i])) return;
+      swap(docs, scores, i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i) {
+    siftDown(docs, scores, i, size);
+  }
+
+  private static void siftDown(int[] docs, long[] scores, int i, int size) {
+    while (true) {
+      int worst = i;
+      int left = 2 * i + 1;
+      int right = left + 1;
+      if (left < size && better(docs[worst], scores[worst], docs[left], scores[left])) worst = left;
+      if (right < size && better(docs[worst], scores[worst], docs[right], scores[right])) worst = right;
+      if (worst == i) return;
+      swap(docs, scores, i, worst);
+      i = worst;
+    }
+  }
+
+  private static void swap(int[] docs, long[] scores, int i, int j) {
+    int doc = docs[i];
+    docs[i] = docs[j];
+    docs[j] = doc;
+    long score = scores[i];
+    scores[i] = scores[j];
+    scores[j] = score;
+  }
+}
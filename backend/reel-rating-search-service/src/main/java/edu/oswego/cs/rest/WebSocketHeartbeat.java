@@ -0,0 +1,115 @@
+package edu.oswego.cs.rest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.websocket.Session;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the autocomplete WebSockets alive at the protocol level. Every websocket.pingIntervalMillis each open session
+ * is sent a ping frame, which browsers answer with a pong on their own, so the connection carries traffic without
+ * the page sending anything. A session that stays silent for websocket.idleTimeoutMillis, pongs included, is closed
+ * by the server.
+ *
+ * Heartbeats are counted in websocket.heartbeats, tagged pong or control for the control message a page sends, and
+ * messages answered without running a search in websocket.skippedSearches.
+ */
+@ApplicationScoped
+public class WebSocketHeartbeat {
+
+  private static final ByteBuffer PING = ByteBuffer.allocate(0);
+
+  @Inject
+  MetricRegistry metrics;
+
+  @Inject
+  @ConfigProperty(name = "websocket.pingIntervalMillis", defaultValue = "10000")
+  long pingIntervalMillis;
+
+  @Inject
+  @ConfigProperty(name = "websocket.idleTimeoutMillis", defaultValue = "30000")
+  long idleTimeoutMillis;
+
+  @Resource
+  private ManagedScheduledExecutorService scheduler;
+
+  private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+  private ScheduledFuture<?> pings;
+  private Counter pongs;
+  private Counter controlMessages;
+  private Counter skippedSearches;
+
+  @PostConstruct
+  void start() {
+    pongs = metrics.counter("websocket.heartbeats", new Tag("kind", "pong"));
+    controlMessages = metrics.counter("websocket.heartbeats", new Tag("kind", "control"));
+    skippedSearches = metrics.counter("websocket.skippedSearches");
+    metrics.gauge("websocket.sessions", sessions::size);
+    pings = scheduler.scheduleAtFixedRate(this::pingAll, pingIntervalMillis, pingIntervalMillis,
+            TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (pings != null) pings.cancel(false);
+  }
+
+  /**
+   * Starts pinging the session and sets its idle timeout.
+   */
+  public void register(Session session) {
+    session.setMaxIdleTimeout(idleTimeoutMillis);
+    sessions.add(session);
+  }
+
+  public void unregister(Session session) {
+    sessions.remove(session);
+  }
+
+  public void pongReceived() {
+    pongs.inc();
+  }
+
+  /**
+   * Counts a heartbeat control message, which is also a search that was skipped.
+   */
+  public void controlMessageReceived() {
+    controlMessages.inc();
+    skippedSearches.inc();
+  }
+
+  /**
+   * Counts a message that was answered without a search, such as an empty search term.
+   */
+  public void searchSkipped() {
+    skippedSearches.inc();
+  }
+
+  private void pingAll() {
+    for (Session session : sessions) {
+      if (!session.isOpen()) {
+        sessions.remove(session);
+        continue;
+      }
+      try {
+        session.getAsyncRemote().sendPing(PING.duplicate());
+      } catch (IOException | IllegalStateException e) {
+        // the session is closing or busy sending a result, the next round pings it again
+      }
+    }
+  }
+}
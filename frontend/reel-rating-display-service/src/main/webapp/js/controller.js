@@ -191,24 +191,32 @@ function homeInit(){
     } 
 
     let webSocket = NetworkReq.openWebSocket("ws://moxie.cs.oswego.edu:30505/reel-rating-search-service/autocomplete");
+    // sequence number of the suggestions shown, replies come back numbered per connection
+    let lastResultSequence = 0;
     searchBar.addEventListener("input", ()=>{ 
         NetworkReq.sendWebSocketMessage(webSocket, searchBar.value);
     });
 
-    setInterval(()=>{ //Need this to keep the connection open
-        NetworkReq.sendWebSocketMessage(webSocket, "heartbeat");
-    },5000)
+    setInterval(()=>{ //The server pings the connection, this keeps proxies in between from closing it
+        NetworkReq.sendWebSocketHeartbeat(webSocket);
+    },20000)
 
     webSocket.onclose = (exception) => {
         console.log(`Connection websocket closed because ${exception.reason}`);
         setTimeout(() => {
             webSocket = NetworkReq.openWebSocket("ws://moxie.cs.oswego.edu:30505/reel-rating-search-service/autocomplete");
+            lastResultSequence = 0;
         }, 1000);
     }
 
     const searchAutoCompleteList = document.getElementById("searchAutoComplete");
     webSocket.onmessage = (response) => {
         let dataObject = JSON.parse(response.data);
+        // a reply older than the suggestions already shown is out of date
+        if ('seq' in dataObject) {
+            if (dataObject.seq <= lastResultSequence) return;
+            lastResultSequence = dataObject.seq;
+        }
         if ('results' in dataObject) {
             let movieNames = dataObject.results;
             searchAutoCompleteList.replaceChildren();
@@ -222,6 +230,13 @@ function homeInit(){
                 searchAutoCompleteList.appendChild(option);
                 autoCompleteCurrentCount++;
             }
+            // the server corrected a typo in what was typed, offer the correction too
+            if ('didYouMean' in dataObject && !movieNames.includes(dataObject.didYouMean)) {
+                let option = document.createElement("option");
+                option.value = dataObject.didYouMean;
+                option.label = `Did you mean: ${dataObject.didYouMean}`;
+                searchAutoCompleteList.appendChild(option);
+            }
         }
     }
 
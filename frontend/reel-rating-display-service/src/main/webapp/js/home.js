@@ -62,9 +62,8 @@ export const getRatingsPageData = (movieTitle, movieID)=>{
         appendExistingCategories    
     );
 
-    NetworkReq.fetchPost(
+    NetworkReq.fetchGetWithSession(
         `${globals.ratingsBase}/tag/getTagScoresForMovieModal/${movieID}`,
-        jSessionIdStringified,
         appendUpDownVote    
     );
 
@@ -182,14 +181,12 @@ export function feedbackForExistingRatingClick() {
  */
 export function feedbackForTagSubmission() {
     JSStyles.alertAnimation("Tag Created");
-    let jSessionIdStringified = Tools.getJSessionId();
 
     const showMoreRateButton = document.getElementById("rateButton");
     let movieID = showMoreRateButton.getAttribute("movieID");
     //Update Tags to include new rating
-    NetworkReq.fetchPost(
+    NetworkReq.fetchGetWithSession(
         `${globals.ratingsBase}/tag/getTagScoresForMovieModal/${movieID}`,
-        jSessionIdStringified,
         appendUpDownVote    
     );
 }
@@ -635,16 +632,14 @@ function getShowMoreData(movieID, movieTitle){
     document.getElementById("ratingsContainer").replaceChildren();
 
     //Get General Info
-    NetworkReq.fetchPost(
+    NetworkReq.fetchGetWithSession(
         `${globals.movieDataBase}/movie/getMovieWithMovieId/${movieID}`,
-        jSessionIdStringified,
         appendGeneralSection
     );
 
     //Get Existing Ratings
-    NetworkReq.fetchPost(
+    NetworkReq.fetchGetWithSession(
         `${globals.ratingsBase}/rating/getRatingsWithMovieId/${movieID}`,
-        jSessionIdStringified,
         appendExistingRatings
     );
 
@@ -678,12 +673,9 @@ async function appendGeneralSection(serverRes){
         document.getElementById("showMoreReleaseDate").innerText = genData.releaseDate;
         document.getElementById("showMoreRuntime").innerText = genData.runtime;
 
-        let jSessionIdStringified = Tools.getJSessionId();
-
         //Get Tags
-        NetworkReq.fetchPost(
+        NetworkReq.fetchGetWithSession(
             `${globals.ratingsBase}/tag/getTagScoresForMovieModal/${genData.id}`,
-            jSessionIdStringified,
             appendTagsToShowMore
         )
     }catch(error){
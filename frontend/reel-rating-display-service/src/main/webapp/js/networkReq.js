@@ -86,6 +86,35 @@ export function fetchGet(url, callbackFunc){
 }
 
 
+/**
+ * Use fetch to send a Get request for a cacheable read to the server. The session is sent in the JSESSIONID header,
+ * so the browser can keep the response and revalidate it with its ETag on the next request.
+ * If the response is 200 run the callback
+ * @param {string} url 
+ * @param {object} callbackFunc 
+ */
+export function fetchGetWithSession(url, callbackFunc){
+    fetch(url,{
+        mode : "cors",
+        method : "get",
+        headers:{
+            "JSESSIONID" : sessionStorage.getItem("JSESSIONID"),
+        },
+        credentials: "include"
+    })
+    .then((serverData)=>{
+        if(serverData.status === 200 && callbackFunc !== null){
+            callbackFunc(serverData);
+        } else {
+            console.log(`There was an error in getting data at ${url}`);
+        }
+    })
+    .catch((error)=>{
+        JSStyles.alertAnimation("There was an error getting your information. Please try again later.");
+        console.log(`There was an error in the fetchGetWithSession function\n${error}`);
+    });
+}
+
 /**
  * Open the WebSocket at the url and append the listeners 
  * @param {string} url 
@@ -127,4 +156,15 @@ export function sendWebSocketMessage(currentWebSocket, message){
     } else {
         console.error('WebSocket is not open');
     }
+}
+
+
+/**
+ * Send the heartbeat control message, which keeps the connection open without running a search
+ * @param {Object} currentWebSocket 
+ */
+export function sendWebSocketHeartbeat(currentWebSocket){
+    if (currentWebSocket.readyState === WebSocket.OPEN) {
+        currentWebSocket.send("heartbeat");
+    }
 }
\ No newline at end of file